@@ -19,7 +19,14 @@ public class Main {
     private static boolean isAnonymousMode = false;
 
     public static void main(String[] args) {
-        initializeSystem();
+        try {
+            initializeSystem();
+        } catch (ExceptionInInitializerError e) {
+            // Сервер не зміг безпечно завантажити дані (наприклад, зіпсований журнал змін)
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            System.err.println("[FATAL] Систему не запущено: " + cause.getMessage());
+            System.exit(1);
+        }
         runMainLoop();
         shutdownSystem();
     }
@@ -373,6 +380,13 @@ public class Main {
                 (System.currentTimeMillis() - startupManager.getStartupTime()) + " мс");
 
         System.out.println("Черга синхронізації: " + com.hostel.server.SyncManager.getQueueSize() + " завдань");
+        com.hostel.server.SyncManager.getStats().forEach((key, value) ->
+                System.out.println("  sync." + key + ": " + value));
+        System.out.println("Нагадування: заплановано бронювань " +
+                com.hostel.service.NotificationService.getScheduledReminders() + ", надіслано " +
+                com.hostel.service.NotificationService.getSentReminders());
+        com.hostel.service.NotificationService.getDispatchStats().forEach((key, value) ->
+                System.out.println("  notify." + key + ": " + value));
     }
 
     private static void showLoginOptions() {
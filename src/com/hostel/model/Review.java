@@ -1,7 +1,6 @@
 package com.hostel.model;
 
 import java.time.LocalDateTime;
-import java.util.UUID;
 
 public class Review {
     private String id;
@@ -16,7 +15,6 @@ public class Review {
                   int rating, String comment) {
         validateRating(rating);
 
-        this.id = "REVIEW_" + UUID.randomUUID().toString().substring(0, 8);
         this.bookingId = bookingId;
         this.clientId = clientId;
         this.hostelId = hostelId;
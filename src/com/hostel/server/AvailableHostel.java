@@ -0,0 +1,39 @@
+package com.hostel.server;
+
+import com.hostel.model.Hostel;
+import com.hostel.model.Room;
+import java.util.List;
+
+/**
+ * Результат пошуку з урахуванням зайнятості: хостел і його кімнати,
+ * що відповідають умовам і вільні на весь період (від найдешевшої).
+ */
+public class AvailableHostel {
+    private final Hostel hostel;
+    private final List<Room> freeRooms;
+    final double score;
+    final double rating;
+
+    AvailableHostel(Hostel hostel, List<Room> freeRooms, double score, double rating) {
+        this.hostel = hostel;
+        this.freeRooms = freeRooms;
+        this.score = score;
+        this.rating = rating;
+    }
+
+    public Hostel getHostel() {
+        return hostel;
+    }
+
+    public List<Room> getFreeRooms() {
+        return freeRooms;
+    }
+
+    public double getCheapestPricePerHour() {
+        return freeRooms.get(0).getPricePerHour();
+    }
+
+    public double getRating() {
+        return rating;
+    }
+}
@@ -0,0 +1,387 @@
+package com.hostel.server;
+
+import com.hostel.model.*;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * Компактний двійковий знімок.
+ * Файл: магічне число, версія, назва типу, кількість записів, далі записи
+ * з префіксом довжини (varint). Рядки пишуться через словник файлу: кожен
+ * унікальний рядок (ідентифікатори, міста, статуси) зберігається один раз,
+ * далі - лише його номер. Перелічення - порядкові номери, дати - секунди епохи (UTC).
+ */
+public class BinaryStorageCodec implements StorageCodec {
+    private static final int MAGIC = 0x48535442; // "HSTB"
+    private static final int VERSION = 1;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // Кодування одного типу сутностей
+    private interface EntityFormat<T> {
+        void write(Encoder out, T entity) throws IOException;
+
+        T read(Decoder in);
+    }
+
+    private static final Map<Class<?>, EntityFormat<?>> FORMATS = new HashMap<>();
+
+    static {
+        FORMATS.put(Client.class, new EntityFormat<Client>() {
+            public void write(Encoder out, Client client) throws IOException {
+                writeUser(out, client);
+                out.writeString(client.getFirstName());
+                out.writeString(client.getLastName());
+            }
+
+            public Client read(Decoder in) {
+                String id = in.readString();
+                Client client = new Client(in.readString(), in.readString(), in.readString(),
+                        in.readString(), in.readString());
+                client.setId(id);
+                return client;
+            }
+        });
+
+        FORMATS.put(Manager.class, new EntityFormat<Manager>() {
+            public void write(Encoder out, Manager manager) throws IOException {
+                writeUser(out, manager);
+            }
+
+            public Manager read(Decoder in) {
+                String id = in.readString();
+                Manager manager = new Manager(in.readString(), in.readString(), in.readString());
+                manager.setId(id);
+                return manager;
+            }
+        });
+
+        FORMATS.put(Hostel.class, new EntityFormat<Hostel>() {
+            public void write(Encoder out, Hostel hostel) throws IOException {
+                out.writeString(hostel.getId());
+                out.writeString(hostel.getName());
+                out.writeString(hostel.getAddress());
+                out.writeString(hostel.getCity());
+                out.writeString(hostel.getManagerId());
+                out.writeBoolean(hostel.isActive());
+            }
+
+            public Hostel read(Decoder in) {
+                String id = in.readString();
+                Hostel hostel = new Hostel(in.readString(), in.readString(), in.readString(), in.readString());
+                hostel.setId(id);
+                hostel.setActive(in.readBoolean());
+                return hostel;
+            }
+        });
+
+        FORMATS.put(Room.class, new EntityFormat<Room>() {
+            public void write(Encoder out, Room room) throws IOException {
+                out.writeString(room.getId());
+                out.writeString(room.getHostelId());
+                out.writeEnum(room.getType());
+                out.writeVarLong(room.getCapacity());
+                out.writeDouble(room.getPricePerHour());
+                out.writeBoolean(room.isAvailable());
+            }
+
+            public Room read(Decoder in) {
+                String id = in.readString();
+                Room room = new Room(in.readString(), in.readEnum(Room.RoomType.class),
+                        (int) in.readVarLong(), in.readDouble());
+                room.setId(id);
+                room.setAvailable(in.readBoolean());
+                return room;
+            }
+        });
+
+        FORMATS.put(Booking.class, new EntityFormat<Booking>() {
+            public void write(Encoder out, Booking booking) throws IOException {
+                out.writeString(booking.getId());
+                out.writeString(booking.getHostelId());
+                out.writeString(booking.getRoomId());
+                out.writeString(booking.getClientId());
+                out.writeTime(booking.getCheckInTime());
+                out.writeTime(booking.getCheckOutTime());
+                out.writeDouble(booking.getTotalPrice());
+                out.writeEnum(booking.getStatus());
+                out.writeEnum(booking.getPaymentStatus());
+                out.writeString(booking.getClientFirstName());
+                out.writeString(booking.getClientLastName());
+                out.writeString(booking.getClientPhone());
+                out.writeString(booking.getClientEmail());
+                out.writeTime(booking.getCreatedAt());
+                out.writeVarLong(booking.getRating() == null ? 0 : booking.getRating());
+                out.writeString(booking.getReview());
+            }
+
+            public Booking read(Decoder in) {
+                String id = in.readString();
+                String hostelId = in.readString();
+                String roomId = in.readString();
+                String clientId = in.readString();
+                LocalDateTime checkIn = in.readTime();
+                LocalDateTime checkOut = in.readTime();
+                double totalPrice = in.readDouble();
+                Booking.BookingStatus status = in.readEnum(Booking.BookingStatus.class);
+                Booking.PaymentStatus paymentStatus = in.readEnum(Booking.PaymentStatus.class);
+                Booking booking = new Booking(hostelId, roomId, clientId, checkIn, checkOut, totalPrice,
+                        in.readString(), in.readString(), in.readString(), in.readString());
+                booking.setId(id);
+                booking.setStatus(status);
+                booking.setPaymentStatus(paymentStatus);
+                booking.setCreatedAt(in.readTime());
+                int rating = (int) in.readVarLong();
+                booking.setRating(rating == 0 ? null : rating);
+                booking.setReview(in.readString());
+                return booking;
+            }
+        });
+
+        FORMATS.put(Review.class, new EntityFormat<Review>() {
+            public void write(Encoder out, Review review) throws IOException {
+                out.writeString(review.getId());
+                out.writeString(review.getBookingId());
+                out.writeString(review.getClientId());
+                out.writeString(review.getHostelId());
+                out.writeVarLong(review.getRating());
+                out.writeString(review.getComment());
+                out.writeTime(review.getCreatedAt());
+            }
+
+            public Review read(Decoder in) {
+                String id = in.readString();
+                Review review = new Review(in.readString(), in.readString(), in.readString(),
+                        (int) in.readVarLong(), in.readString());
+                review.setId(id);
+                review.setCreatedAt(in.readTime());
+                return review;
+            }
+        });
+    }
+
+    private static void writeUser(Encoder out, User user) throws IOException {
+        out.writeString(user.getId());
+        out.writeString(user.getEmail());
+        out.writeString(user.getPhone());
+        out.writeString(user.getPassword());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> EntityFormat<T> formatFor(Class<T> type) {
+        EntityFormat<T> format = (EntityFormat<T>) FORMATS.get(type);
+        if (format == null) {
+            throw new IllegalArgumentException("Тип не підтримується двійковим форматом: " + type.getName());
+        }
+        return format;
+    }
+
+    @Override
+    public String getName() {
+        return "binary";
+    }
+
+    @Override
+    public String getExtension() {
+        return ".bin";
+    }
+
+    @Override
+    public <T> void write(Path path, Map<String, T> entities, Class<T> type) throws IOException {
+        EntityFormat<T> format = formatFor(type);
+
+        try (DataOutputStream file = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(path), BUFFER_SIZE))) {
+            file.writeInt(MAGIC);
+            file.writeByte(VERSION);
+            file.writeUTF(type.getSimpleName());
+            file.writeInt(entities.size());
+
+            Encoder record = new Encoder();
+            for (Map.Entry<String, T> entry : entities.entrySet()) {
+                record.reset();
+                record.writeString(entry.getKey());
+                format.write(record, entry.getValue());
+                writeVarLong(file, record.size());
+                record.writeTo(file);
+            }
+        }
+    }
+
+    @Override
+    public <T> int read(Path path, Class<T> type, Map<String, ? super T> target) throws IOException {
+        EntityFormat<T> format = formatFor(type);
+
+        try (DataInputStream file = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE))) {
+            if (file.readInt() != MAGIC) {
+                throw new IOException("Файл не є двійковим знімком: " + path);
+            }
+            int version = file.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IOException("Непідтримувана версія двійкового знімка: " + version);
+            }
+            String storedType = file.readUTF();
+            if (!storedType.equals(type.getSimpleName())) {
+                throw new IOException("Знімок містить " + storedType + ", очікувався " + type.getSimpleName());
+            }
+
+            int count = file.readInt();
+            Decoder record = new Decoder();
+            for (int i = 0; i < count; i++) {
+                record.load(file, (int) readVarLong(file));
+                String id = record.readString();
+                target.put(id, format.read(record));
+            }
+            return count;
+        } catch (RuntimeException e) {
+            throw new IOException("Пошкоджений двійковий знімок " + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    // ========== КОДУВАННЯ ==========
+
+    // Беззнаковий varint (7 біт на байт)
+    private static void writeVarLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Пошкоджене число varint");
+    }
+
+    // Буфер одного запису; словник рядків спільний для всього файлу
+    private static class Encoder extends ByteArrayOutputStream {
+        private final DataOutputStream data = new DataOutputStream(this);
+        private final Map<String, Integer> dictionary = new HashMap<>();
+
+        // Знакові числа - зигзаг-кодування, щоб малі від'ємні займали мало байт
+        void writeVarLong(long value) throws IOException {
+            BinaryStorageCodec.writeVarLong(data, (value << 1) ^ (value >> 63));
+        }
+
+        void writeDouble(double value) throws IOException {
+            data.writeDouble(value);
+        }
+
+        void writeBoolean(boolean value) throws IOException {
+            data.writeBoolean(value);
+        }
+
+        // 0 - null, інакше ordinal + 1
+        void writeEnum(Enum<?> value) throws IOException {
+            BinaryStorageCodec.writeVarLong(data, value == null ? 0 : value.ordinal() + 1);
+        }
+
+        // 0 - null, 1 - новий рядок (далі UTF-8), n >= 2 - рядок словника з номером n - 2
+        void writeString(String value) throws IOException {
+            if (value == null) {
+                BinaryStorageCodec.writeVarLong(data, 0);
+                return;
+            }
+            Integer index = dictionary.get(value);
+            if (index != null) {
+                BinaryStorageCodec.writeVarLong(data, index + 2);
+                return;
+            }
+            dictionary.put(value, dictionary.size());
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            BinaryStorageCodec.writeVarLong(data, 1);
+            BinaryStorageCodec.writeVarLong(data, bytes.length);
+            data.write(bytes);
+        }
+
+        // Ознака наявності, секунди епохи і наносекунди
+        void writeTime(LocalDateTime value) throws IOException {
+            data.writeBoolean(value != null);
+            if (value != null) {
+                writeVarLong(value.toEpochSecond(ZoneOffset.UTC));
+                BinaryStorageCodec.writeVarLong(data, value.getNano());
+            }
+        }
+    }
+
+    private static class Decoder {
+        private final List<String> dictionary = new ArrayList<>();
+        private byte[] bytes = new byte[256];
+        private ByteBuffer buffer;
+
+        void load(DataInput in, int length) throws IOException {
+            if (bytes.length < length) {
+                bytes = new byte[Math.max(length, bytes.length * 2)];
+            }
+            in.readFully(bytes, 0, length);
+            buffer = ByteBuffer.wrap(bytes, 0, length);
+        }
+
+        private long readRawVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = buffer.get();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Пошкоджене число varint");
+        }
+
+        long readVarLong() {
+            long raw = readRawVarLong();
+            return (raw >>> 1) ^ -(raw & 1);
+        }
+
+        double readDouble() {
+            return buffer.getDouble();
+        }
+
+        boolean readBoolean() {
+            return buffer.get() != 0;
+        }
+
+        <E extends Enum<E>> E readEnum(Class<E> type) {
+            int value = (int) readRawVarLong();
+            return value == 0 ? null : type.getEnumConstants()[value - 1];
+        }
+
+        String readString() {
+            int ref = (int) readRawVarLong();
+            if (ref == 0) {
+                return null;
+            }
+            if (ref >= 2) {
+                return dictionary.get(ref - 2);
+            }
+            int length = (int) readRawVarLong();
+            String value = new String(bytes, buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+            dictionary.add(value);
+            return value;
+        }
+
+        LocalDateTime readTime() {
+            if (!readBoolean()) {
+                return null;
+            }
+            long seconds = readVarLong();
+            int nanos = (int) readRawVarLong();
+            return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+        }
+    }
+}
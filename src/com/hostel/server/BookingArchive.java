@@ -0,0 +1,683 @@
+package com.hostel.server;
+
+import com.hostel.model.Booking;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Архів історичних (завершених і скасованих) бронювань поза кучею.
+ * Записи фіксованої довжини лежать у файлі, відображеному в пам'ять,
+ * рядки - в окремій купі рядків. Індекс "bookingId -> номер запису" теж поза
+ * кучею (SlotIndex), а об'єкти Booking створюються при зверненні.
+ * Запис можна оновити на місці (оцінка, оплата), видалений слот використовується повторно.
+ *
+ * Пошук за хостелом чи клієнтом - перебір записів із порівнянням байтів у купі
+ * рядків, тож на кожне архівне бронювання в кучі не лишається жодного запису.
+ *
+ * Рядки, що більше не потрібні (видалені записи, замінені значення), лишаються
+ * в купі, доки їх не набереться половина, а сама купа не подвоїться з минулого
+ * стискання: тоді вона переписується, тож кожне стискання окупається ростом.
+ */
+class BookingArchive {
+    private static final int RECORD_SIZE = 128;
+    private static final int STRINGS_HEADER_SIZE = 16;
+    private static final long NULL_REF = -1;
+    private static final long NULL_TIME = Long.MIN_VALUE;
+    private static final int STRING_CACHE_SIZE = 4096;
+    // Скільки слотів перебір проходить за одне захоплення монітора
+    private static final int SCAN_CHUNK = 4096;
+
+    // Заголовок файлу записів (перший слот): 0 - розмір, 8 - байти звільнених рядків
+    private static final int RELEASED_BYTES = 8;
+    // Заголовок купи рядків: 0 - розмір, 8 - розмір після останнього стискання
+    private static final int COMPACTED_SIZE = 8;
+
+    // Розкладка запису (зміщення в байтах)
+    private static final int FLAGS = 0;          // 1 - запис живий
+    private static final int STATUS = 1;         // ordinal + 1
+    private static final int PAYMENT = 2;        // ordinal + 1
+    private static final int RATING = 3;         // 0 - немає оцінки
+    private static final int ID = 8;             // у вільному слоті - номер наступного вільного
+    private static final int HOSTEL_ID = 16;
+    private static final int ROOM_ID = 24;
+    private static final int CLIENT_ID = 32;
+    private static final int CHECK_IN = 40;      // секунди (8) + наносекунди (4)
+    private static final int CHECK_OUT = 52;
+    private static final int CREATED_AT = 64;
+    private static final int TOTAL_PRICE = 80;
+    private static final int FIRST_NAME = 88;
+    private static final int LAST_NAME = 96;
+    private static final int PHONE = 104;
+    private static final int EMAIL = 112;
+    private static final int REVIEW = 120;
+    private static final int[] STRING_FIELDS = {
+            ID, HOSTEL_ID, ROOM_ID, CLIENT_ID, FIRST_NAME, LAST_NAME, PHONE, EMAIL, REVIEW};
+
+    // Поля для scan()
+    static final int BY_HOSTEL = HOSTEL_ID;
+    static final int BY_CLIENT = CLIENT_ID;
+
+    private final Path recordsPath;
+    private final Path stringsPath;
+    private final long compactMinBytes;
+    private MappedFile records;
+    private MappedFile strings;
+    private final SlotIndex slotById;
+    // Вільні слоти зв'язані в список через поле ID; -1 - вільних немає
+    private long freeHead = -1;
+    private int liveCount;
+    private int slotCount;
+    private long compactions;
+    // Повторювані рядки (id хостелів, кімнат, клієнтів) пишуться в купу один раз
+    private final Map<String, Long> recentStrings = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+            return size() > STRING_CACHE_SIZE;
+        }
+    };
+
+    // compactMinBytes - менша купа рядків не стискається, хоч би скільки в ній було сміття
+    BookingArchive(Path recordsPath, Path stringsPath, long compactMinBytes) throws IOException {
+        this.recordsPath = recordsPath;
+        this.stringsPath = stringsPath;
+        this.compactMinBytes = compactMinBytes;
+        recoverCompaction();
+        // Перший слот файлу записів - заголовок
+        this.records = new MappedFile(recordsPath, RECORD_SIZE);
+        this.strings = new MappedFile(stringsPath, STRINGS_HEADER_SIZE);
+        this.slotCount = (int) ((records.size() - RECORD_SIZE) / RECORD_SIZE);
+        this.slotById = new SlotIndex(slotCount);
+
+        for (int slot = slotCount - 1; slot >= 0; slot--) {
+            if (records.get(slotOffset(slot) + FLAGS) == 1) {
+                slotById.put(readString(records.getLong(slotOffset(slot) + ID)), slot);
+                liveCount++;
+            } else {
+                releaseSlot(slot);
+            }
+        }
+    }
+
+    synchronized int size() {
+        return liveCount;
+    }
+
+    synchronized boolean contains(String bookingId) {
+        return slotById.get(bookingId) >= 0;
+    }
+
+    synchronized Booking get(String bookingId) {
+        int slot = slotById.get(bookingId);
+        return slot < 0 ? null : readRecord(slotOffset(slot));
+    }
+
+    // Додавання або оновлення на місці; дані скидаються на диск до повернення
+    synchronized void put(Booking booking) throws IOException {
+        int slot = slotById.get(booking.getId());
+        boolean existing = slot >= 0;
+        if (!existing) {
+            if (freeHead >= 0) {
+                slot = (int) freeHead;
+                freeHead = records.getLong(slotOffset(slot) + ID);
+            } else {
+                slot = slotCount++;
+            }
+            records.ensureSize(slotOffset(slot) + RECORD_SIZE);
+            slotById.put(booking.getId(), slot);
+            liveCount++;
+        }
+        writeRecord(slotOffset(slot), booking, existing);
+        strings.force();
+        records.force();
+        compactIfNeeded();
+    }
+
+    synchronized void remove(String bookingId) throws IOException {
+        int slot = slotById.remove(bookingId);
+        if (slot >= 0) {
+            long offset = slotOffset(slot);
+            for (int field : STRING_FIELDS) {
+                addReleasedBytes(stringBytes(records.getLong(offset + field)));
+            }
+            records.put(offset + FLAGS, (byte) 0);
+            releaseSlot(slot);
+            liveCount--;
+            records.force();
+            compactIfNeeded();
+        }
+    }
+
+    // Обхід усіх записів (об'єкти створюються по одному)
+    synchronized void forEach(Consumer<Booking> consumer) {
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (records.get(slotOffset(slot) + FLAGS) == 1) {
+                consumer.accept(readRecord(slotOffset(slot)));
+            }
+        }
+    }
+
+    /**
+     * Лінивий перебір записів, у яких поле (BY_HOSTEL, BY_CLIENT) дорівнює key.
+     * Порівнюються байти в купі рядків, об'єкти створюються лише для збігів.
+     * Монітор береться порціями по SCAN_CHUNK слотів, тож перебір не зупиняє
+     * запис в архів і бачить зміни між порціями (як ітератори ConcurrentHashMap).
+     */
+    Iterator<Booking> scan(int field, String key) {
+        byte[] wanted = key.getBytes(StandardCharsets.UTF_8);
+        return new Iterator<>() {
+            private int slot;
+            private Booking next;
+            private boolean done;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null && !done) {
+                    synchronized (BookingArchive.this) {
+                        int end = Math.min(slotCount, slot + SCAN_CHUNK);
+                        for (; slot < end && next == null; slot++) {
+                            long offset = slotOffset(slot);
+                            if (records.get(offset + FLAGS) == 1 && stringEquals(records.getLong(offset + field), wanted)) {
+                                next = readRecord(offset);
+                            }
+                        }
+                        done = slot >= slotCount;
+                    }
+                }
+                return next != null;
+            }
+
+            @Override
+            public Booking next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Booking result = next;
+                next = null;
+                return result;
+            }
+        };
+    }
+
+    synchronized long getFileBytes() {
+        return records.size() + strings.size();
+    }
+
+    synchronized long getCompactions() {
+        return compactions;
+    }
+
+    synchronized void close() {
+        records.close();
+        strings.close();
+    }
+
+    private static long slotOffset(int slot) {
+        return (long) (slot + 1) * RECORD_SIZE;
+    }
+
+    private void releaseSlot(int slot) {
+        records.putLong(slotOffset(slot) + ID, freeHead);
+        freeHead = slot;
+    }
+
+    private void writeRecord(long offset, Booking booking, boolean existing) throws IOException {
+        writeStringField(offset + ID, booking.getId(), existing);
+        writeStringField(offset + HOSTEL_ID, booking.getHostelId(), existing);
+        writeStringField(offset + ROOM_ID, booking.getRoomId(), existing);
+        writeStringField(offset + CLIENT_ID, booking.getClientId(), existing);
+        writeTime(offset + CHECK_IN, booking.getCheckInTime());
+        writeTime(offset + CHECK_OUT, booking.getCheckOutTime());
+        writeTime(offset + CREATED_AT, booking.getCreatedAt());
+        records.putDouble(offset + TOTAL_PRICE, booking.getTotalPrice());
+        writeStringField(offset + FIRST_NAME, booking.getClientFirstName(), existing);
+        writeStringField(offset + LAST_NAME, booking.getClientLastName(), existing);
+        writeStringField(offset + PHONE, booking.getClientPhone(), existing);
+        writeStringField(offset + EMAIL, booking.getClientEmail(), existing);
+        writeStringField(offset + REVIEW, booking.getReview(), existing);
+        records.put(offset + STATUS, (byte) (booking.getStatus() == null ? 0 : booking.getStatus().ordinal() + 1));
+        records.put(offset + PAYMENT, (byte) (booking.getPaymentStatus() == null ? 0 :
+                booking.getPaymentStatus().ordinal() + 1));
+        records.put(offset + RATING, (byte) (booking.getRating() == null ? 0 : booking.getRating()));
+        // Прапорець останнім: запис стає видимим лише повністю заповненим
+        records.put(offset + FLAGS, (byte) 1);
+    }
+
+    // При оновленні запису незмінений рядок лишається на місці, а замінений рахується як сміття
+    private void writeStringField(long position, String value, boolean existing) throws IOException {
+        if (existing) {
+            long old = records.getLong(position);
+            if (Objects.equals(readString(old), value)) {
+                return;
+            }
+            addReleasedBytes(stringBytes(old));
+        }
+        records.putLong(position, writeString(value));
+    }
+
+    private Booking readRecord(long offset) {
+        Booking booking = new Booking(
+                readString(records.getLong(offset + HOSTEL_ID)),
+                readString(records.getLong(offset + ROOM_ID)),
+                readString(records.getLong(offset + CLIENT_ID)),
+                readTime(offset + CHECK_IN),
+                readTime(offset + CHECK_OUT),
+                records.getDouble(offset + TOTAL_PRICE),
+                readString(records.getLong(offset + FIRST_NAME)),
+                readString(records.getLong(offset + LAST_NAME)),
+                readString(records.getLong(offset + PHONE)),
+                readString(records.getLong(offset + EMAIL)));
+        booking.setId(readString(records.getLong(offset + ID)));
+        booking.setCreatedAt(readTime(offset + CREATED_AT));
+        int status = records.get(offset + STATUS);
+        booking.setStatus(status == 0 ? null : Booking.BookingStatus.values()[status - 1]);
+        int payment = records.get(offset + PAYMENT);
+        booking.setPaymentStatus(payment == 0 ? null : Booking.PaymentStatus.values()[payment - 1]);
+        int rating = records.get(offset + RATING);
+        booking.setRating(rating == 0 ? null : rating);
+        booking.setReview(readString(records.getLong(offset + REVIEW)));
+        return booking;
+    }
+
+    private void writeTime(long offset, LocalDateTime time) {
+        records.putLong(offset, time == null ? NULL_TIME : time.toEpochSecond(ZoneOffset.UTC));
+        records.putInt(offset + 8, time == null ? 0 : time.getNano());
+    }
+
+    private LocalDateTime readTime(long offset) {
+        long seconds = records.getLong(offset);
+        return seconds == NULL_TIME ? null :
+                LocalDateTime.ofEpochSecond(seconds, records.getInt(offset + 8), ZoneOffset.UTC);
+    }
+
+    // Купа рядків: [довжина int][UTF-8], рядок не перетинає межу сегмента відображення
+    private long writeString(String value) throws IOException {
+        if (value == null) {
+            return NULL_REF;
+        }
+        Long cached = recentStrings.get(value);
+        if (cached != null) {
+            return cached;
+        }
+        long offset = appendString(strings, value);
+        recentStrings.put(value, offset);
+        return offset;
+    }
+
+    private static long appendString(MappedFile heap, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        long offset = heap.allocate(4 + bytes.length);
+        heap.putInt(offset, bytes.length);
+        heap.putBytes(offset + 4, bytes);
+        return offset;
+    }
+
+    private String readString(long offset) {
+        if (offset == NULL_REF) {
+            return null;
+        }
+        byte[] bytes = new byte[strings.getInt(offset)];
+        strings.getBytes(offset + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Порівняння рядка в купі з байтами без створення String
+    private boolean stringEquals(long offset, byte[] wanted) {
+        if (offset == NULL_REF || strings.getInt(offset) != wanted.length) {
+            return false;
+        }
+        for (int i = 0; i < wanted.length; i++) {
+            if (strings.get(offset + 4 + i) != wanted[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long stringBytes(long offset) {
+        return offset == NULL_REF ? 0 : 4 + strings.getInt(offset);
+    }
+
+    // Оцінка зверху: спільний для кількох записів рядок рахується при кожному звільненні
+    private void addReleasedBytes(long bytes) {
+        records.putLong(RELEASED_BYTES, records.getLong(RELEASED_BYTES) + bytes);
+    }
+
+    // Сам запис уже збережено, тож невдале стискання лише відкладається до наступної зміни
+    private void compactIfNeeded() {
+        long size = strings.size();
+        if (size >= compactMinBytes && size >= strings.getLong(COMPACTED_SIZE) * 2 &&
+                records.getLong(RELEASED_BYTES) * 2 > size) {
+            try {
+                compact();
+            } catch (IOException e) {
+                System.err.println("[ARCHIVE ERROR] Помилка стискання купи рядків: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Стискання купи рядків: живі записи копіюються в тимчасові файли з новою купою,
+     * де лишаються тільки їхні рядки, і файли підміняються перейменуванням - спершу
+     * записи, потім рядки. Номери слотів не змінюються, тож індекс лишається чинним.
+     * Після збою між перейменуваннями підміну завершує recoverCompaction().
+     */
+    private void compact() throws IOException {
+        Path recordsTemp = tempPath(recordsPath);
+        Path stringsTemp = tempPath(stringsPath);
+        Files.deleteIfExists(recordsTemp);
+        Files.deleteIfExists(stringsTemp);
+        long before = strings.size();
+
+        MappedFile newRecords = new MappedFile(recordsTemp, RECORD_SIZE);
+        MappedFile newStrings = new MappedFile(stringsTemp, STRINGS_HEADER_SIZE);
+        Map<String, Long> copied = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > STRING_CACHE_SIZE;
+            }
+        };
+        byte[] record = new byte[RECORD_SIZE];
+        try {
+            for (int slot = 0; slot < slotCount; slot++) {
+                long offset = slotOffset(slot);
+                records.getBytes(offset, record);
+                newRecords.ensureSize(offset + RECORD_SIZE);
+                newRecords.putBytes(offset, record);
+                if (record[FLAGS] != 1) {
+                    continue;
+                }
+                for (int field : STRING_FIELDS) {
+                    String value = readString(records.getLong(offset + field));
+                    long ref = NULL_REF;
+                    if (value != null) {
+                        Long existing = copied.get(value);
+                        ref = existing != null ? existing : appendString(newStrings, value);
+                        copied.put(value, ref);
+                    }
+                    newRecords.putLong(offset + field, ref);
+                }
+            }
+            newRecords.putLong(RELEASED_BYTES, 0);
+            newStrings.putLong(COMPACTED_SIZE, newStrings.size());
+        } finally {
+            newStrings.close();
+            newRecords.close();
+        }
+
+        records.close();
+        strings.close();
+        try {
+            Files.move(recordsTemp, recordsPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.move(stringsTemp, stringsPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            records = new MappedFile(recordsPath, RECORD_SIZE);
+            strings = new MappedFile(stringsPath, STRINGS_HEADER_SIZE);
+            recentStrings.clear();
+        }
+        compactions++;
+        System.out.println(String.format("[ARCHIVE] Купу рядків стиснуто: %d -> %d байт",
+                before, strings.size()));
+    }
+
+    // Тимчасовий файл записів є - стискання не дійшло до підміни; є лише рядків - записи вже підмінено
+    private void recoverCompaction() throws IOException {
+        Path recordsTemp = tempPath(recordsPath);
+        Path stringsTemp = tempPath(stringsPath);
+        if (Files.exists(recordsTemp)) {
+            Files.delete(recordsTemp);
+            Files.deleteIfExists(stringsTemp);
+        } else if (Files.exists(stringsTemp)) {
+            Files.move(stringsTemp, stringsPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    private static Path tempPath(Path path) {
+        return Paths.get(path + ".compact");
+    }
+
+    /**
+     * Індекс "bookingId -> номер слота" у прямому буфері поза кучею: відкрита адресація
+     * з лінійним пробуванням. Комірка - 8 байт: хеш id і номер слота + 1 (0 - порожня).
+     * Сам id не зберігається - при збігу хешу він читається із запису архіву.
+     */
+    private class SlotIndex {
+        private static final int CELL = 8;
+
+        private ByteBuffer table;
+        private int mask;
+        private int size;
+
+        SlotIndex(int expected) {
+            allocate(Math.max(16, Integer.highestOneBit(Math.max(1, expected) * 2 - 1) << 1));
+        }
+
+        // -1 - id в індексі немає
+        int get(String id) {
+            int hash = hash(id);
+            for (int cell = hash & mask; ; cell = (cell + 1) & mask) {
+                int slot = table.getInt(cell * CELL + 4) - 1;
+                if (slot < 0) {
+                    return -1;
+                }
+                if (table.getInt(cell * CELL) == hash && id.equals(slotId(slot))) {
+                    return slot;
+                }
+            }
+        }
+
+        // Лише для id, якого ще немає в індексі
+        void put(String id, int slot) {
+            if ((size + 1) * 2 > mask + 1) {
+                resize();
+            }
+            insert(hash(id), slot);
+            size++;
+        }
+
+        // Повертає звільнений слот або -1; комірки за видаленою зсуваються назад
+        int remove(String id) {
+            int hash = hash(id);
+            int cell = hash & mask;
+            int slot;
+            while (true) {
+                slot = table.getInt(cell * CELL + 4) - 1;
+                if (slot < 0) {
+                    return -1;
+                }
+                if (table.getInt(cell * CELL) == hash && id.equals(slotId(slot))) {
+                    break;
+                }
+                cell = (cell + 1) & mask;
+            }
+
+            int hole = cell;
+            for (int next = (hole + 1) & mask; table.getInt(next * CELL + 4) != 0; next = (next + 1) & mask) {
+                int home = table.getInt(next * CELL) & mask;
+                // Комірку можна перенести в дірку, якщо її домашня позиція не між діркою і нею
+                boolean movable = hole <= next ? (home <= hole || home > next) : (home <= hole && home > next);
+                if (movable) {
+                    table.putLong(hole * CELL, table.getLong(next * CELL));
+                    hole = next;
+                }
+            }
+            table.putLong(hole * CELL, 0);
+            size--;
+            return slot;
+        }
+
+        private void insert(int hash, int slot) {
+            int cell = hash & mask;
+            while (table.getInt(cell * CELL + 4) != 0) {
+                cell = (cell + 1) & mask;
+            }
+            table.putInt(cell * CELL, hash);
+            table.putInt(cell * CELL + 4, slot + 1);
+        }
+
+        private void resize() {
+            ByteBuffer old = table;
+            int oldCells = mask + 1;
+            allocate(oldCells * 2);
+            for (int cell = 0; cell < oldCells; cell++) {
+                int slot = old.getInt(cell * CELL + 4) - 1;
+                if (slot >= 0) {
+                    insert(old.getInt(cell * CELL), slot);
+                }
+            }
+        }
+
+        private void allocate(int cells) {
+            table = ByteBuffer.allocateDirect(cells * CELL);
+            mask = cells - 1;
+        }
+
+        private String slotId(int slot) {
+            return readString(records.getLong(slotOffset(slot) + ID));
+        }
+
+        private int hash(String id) {
+            int hash = id.hashCode();
+            return hash ^ (hash >>> 16);
+        }
+    }
+
+    /**
+     * Файл, відображений у пам'ять сегментами по 4 МБ. Логічний розмір
+     * зберігається в перших 8 байтах, бо відображення подовжує файл до меж сегментів;
+     * при закритті файл обрізається до логічного розміру.
+     */
+    private static class MappedFile {
+        private static final long SEGMENT_SIZE = 4L * 1024 * 1024;
+
+        private final FileChannel channel;
+        private final List<MappedByteBuffer> segments = new ArrayList<>();
+        private final Set<Integer> dirtySegments = new HashSet<>();
+        private long size;
+
+        MappedFile(Path path, int headerSize) throws IOException {
+            boolean created = !Files.exists(path) || Files.size(path) < 8;
+            channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            if (created) {
+                size = headerSize;
+                putLong(0, size);
+            } else {
+                size = segment(0).getLong(0);
+            }
+        }
+
+        long size() {
+            return size;
+        }
+
+        // Виділення місця в кінці файлу так, щоб блок не перетинав межу сегмента
+        long allocate(int length) throws IOException {
+            if (length > SEGMENT_SIZE) {
+                throw new IOException("Запис завеликий для архіву: " + length + " байт");
+            }
+            long offset = size;
+            if (offset / SEGMENT_SIZE != (offset + length - 1) / SEGMENT_SIZE) {
+                offset = (offset / SEGMENT_SIZE + 1) * SEGMENT_SIZE;
+            }
+            ensureSize(offset + length);
+            return offset;
+        }
+
+        void ensureSize(long newSize) {
+            if (newSize > size) {
+                size = newSize;
+                putLong(0, size);
+            }
+        }
+
+        byte get(long offset) {
+            return segment(offset).get(position(offset));
+        }
+
+        int getInt(long offset) {
+            return segment(offset).getInt(position(offset));
+        }
+
+        long getLong(long offset) {
+            return segment(offset).getLong(position(offset));
+        }
+
+        double getDouble(long offset) {
+            return segment(offset).getDouble(position(offset));
+        }
+
+        void getBytes(long offset, byte[] target) {
+            segment(offset).get(position(offset), target);
+        }
+
+        void put(long offset, byte value) {
+            writable(offset).put(position(offset), value);
+        }
+
+        void putInt(long offset, int value) {
+            writable(offset).putInt(position(offset), value);
+        }
+
+        void putLong(long offset, long value) {
+            writable(offset).putLong(position(offset), value);
+        }
+
+        void putDouble(long offset, double value) {
+            writable(offset).putDouble(position(offset), value);
+        }
+
+        void putBytes(long offset, byte[] value) {
+            writable(offset).put(position(offset), value);
+        }
+
+        void force() {
+            for (int index : dirtySegments) {
+                segments.get(index).force();
+            }
+            dirtySegments.clear();
+        }
+
+        void close() {
+            force();
+            segments.clear();
+            try {
+                channel.truncate(size);
+                channel.force(true);
+                channel.close();
+            } catch (IOException e) {
+                System.err.println("[ARCHIVE ERROR] Помилка закриття архіву: " + e.getMessage());
+            }
+        }
+
+        private static int position(long offset) {
+            return (int) (offset % SEGMENT_SIZE);
+        }
+
+        private ByteBuffer writable(long offset) {
+            int index = (int) (offset / SEGMENT_SIZE);
+            dirtySegments.add(index);
+            return segment(offset);
+        }
+
+        private MappedByteBuffer segment(long offset) {
+            int index = (int) (offset / SEGMENT_SIZE);
+            try {
+                while (segments.size() <= index) {
+                    segments.add(channel.map(FileChannel.MapMode.READ_WRITE,
+                            segments.size() * SEGMENT_SIZE, SEGMENT_SIZE));
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Не вдалося відобразити архів у пам'ять: " + e.getMessage(), e);
+            }
+            return segments.get(index);
+        }
+    }
+}
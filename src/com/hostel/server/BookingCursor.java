@@ -0,0 +1,65 @@
+package com.hostel.server;
+
+import com.hostel.model.Booking;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Лінивий обхід бронювань кількох хостелів: ідентифікатори з кешу беруться з індексу,
+ * архівні бронювання - перебором архіву; об'єкти матеріалізуються по одному під час next().
+ * Пам'ять не залежить від кількості бронювань.
+ */
+class BookingCursor implements Iterator<Booking> {
+    private final Iterator<String> hostelIds;
+    private final Function<String, Set<String>> bookingIdsByHostel;
+    private final Function<String, Booking> lookup;
+    private final Function<String, Iterator<Booking>> archivedByHostel;
+
+    private String hostelId;
+    private Iterator<String> bookingIds = Collections.emptyIterator();
+    private Iterator<Booking> archived = Collections.emptyIterator();
+    private Booking next;
+
+    BookingCursor(Iterator<String> hostelIds, Function<String, Set<String>> bookingIdsByHostel,
+                  Function<String, Booking> lookup, Function<String, Iterator<Booking>> archivedByHostel) {
+        this.hostelIds = hostelIds;
+        this.bookingIdsByHostel = bookingIdsByHostel;
+        this.lookup = lookup;
+        this.archivedByHostel = archivedByHostel;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (next == null) {
+            if (bookingIds.hasNext()) {
+                Booking booking = lookup.apply(bookingIds.next());
+                // Бронювання могли перенести або видалити після читання індексу
+                if (booking != null && hostelId.equals(booking.getHostelId())) {
+                    next = booking;
+                }
+            } else if (archived.hasNext()) {
+                next = archived.next();
+            } else if (hostelIds.hasNext()) {
+                hostelId = hostelIds.next();
+                bookingIds = bookingIdsByHostel.apply(hostelId).iterator();
+                archived = archivedByHostel.apply(hostelId);
+            } else {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Booking next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Booking result = next;
+        next = null;
+        return result;
+    }
+}
@@ -0,0 +1,51 @@
+package com.hostel.server;
+
+import com.hostel.model.Booking;
+import com.hostel.model.Room;
+import java.util.*;
+
+/**
+ * Набір змін для FileServer.applyBatch: у журнал змін іде один запис на весь
+ * пакет (при програванні він застосовується повністю або не застосовується
+ * зовсім), а слухачі бронювань отримують одну подію зі списком змінених.
+ * Повторна зміна того ж об'єкта в пакеті замінює попередню. Хостели й бронювання
+ * задаються зміною поля, а не об'єктом: кешований об'єкт змінює лише applyBatch
+ * після успішного запису в журнал.
+ */
+public class ChangeBatch {
+    private final Map<String, Boolean> hostelActivity = new LinkedHashMap<>();
+    private final Map<String, Room> rooms = new LinkedHashMap<>();
+    private final Map<String, Booking.BookingStatus> bookingStatuses = new LinkedHashMap<>();
+
+    public void setHostelActive(String hostelId, boolean active) {
+        hostelActivity.put(hostelId, active);
+    }
+
+    public void saveRoom(Room room) {
+        rooms.put(room.getId(), room);
+    }
+
+    public void setBookingStatus(String bookingId, Booking.BookingStatus status) {
+        bookingStatuses.put(bookingId, status);
+    }
+
+    public boolean isEmpty() {
+        return hostelActivity.isEmpty() && rooms.isEmpty() && bookingStatuses.isEmpty();
+    }
+
+    public int size() {
+        return hostelActivity.size() + rooms.size() + bookingStatuses.size();
+    }
+
+    Map<String, Boolean> getHostelActivity() {
+        return hostelActivity;
+    }
+
+    Collection<Room> getRooms() {
+        return rooms.values();
+    }
+
+    Map<String, Booking.BookingStatus> getBookingStatuses() {
+        return bookingStatuses;
+    }
+}
@@ -1,37 +1,162 @@
 package com.hostel.server;
 
 import com.hostel.model.*;
+import com.hostel.utils.InputValidator;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import com.google.gson.reflect.TypeToken;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import java.io.*;
-import java.lang.reflect.Type;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
 
 public class FileServer {
-    private static final String DATA_DIR = "hostel_data/";
-    private static final Gson gson = new GsonBuilder()
-            .setPrettyPrinting()
+    /**
+     * Слухач змін бронювань: створення, зміна статусу, оплати чи дат, видалення.
+     * Викликається під час індексації у потоці, що змінює бронювання,
+     * тому має працювати швидко і не звертатися назад до FileServer.
+     */
+    @FunctionalInterface
+    public interface BookingListener {
+        void bookingChanged(Booking booking);
+
+        // Пакет змін (applyBatch) приходить однією подією після застосування
+        default void bookingsChanged(List<Booking> bookings) {
+            for (Booking booking : bookings) {
+                bookingChanged(booking);
+            }
+        }
+
+        // Бронювання прибрано разом з даними видаленого хостела
+        default void bookingRemoved(String bookingId) {
+        }
+    }
+
+    // Директорія даних: -Dhostel.dataDir=hostel_data (тести працюють у тимчасовій)
+    private static final String DATA_DIR = System.getProperty("hostel.dataDir", "hostel_data")
+            .replaceAll("/+$", "") + "/";
+    // Позначка виконаної міграції старих закритих кімнат (reopenLegacyRooms)
+    private static final String LEGACY_ROOMS_MARKER = DATA_DIR + "legacy_rooms_reopened";
+    private static final String ARCHIVE_RECORDS_FILE = DATA_DIR + "bookings_archive.dat";
+    private static final String ARCHIVE_STRINGS_FILE = DATA_DIR + "bookings_archive.str";
+    private static final String SERVER_LOG_FILE = DATA_DIR + "server.log";
+    // Формат знімків: -Dhostel.storage.format=json|binary
+    private static final StorageCodec storageCodec = StorageCodec.forName(
+            System.getProperty("hostel.storage.format", "json"));
+    private static final List<StorageCodec> allCodecs = List.of(
+            new JsonStorageCodec(), new BinaryStorageCodec());
+    // Компактний формат для журналу змін (один запис - один рядок)
+    private static final Gson logGson = new GsonBuilder()
             .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
             .create();
 
+    // Налаштування журналу змін: -Dhostel.wal.fsync=always|interval|never
+    private static final MutationLog.FsyncPolicy WAL_FSYNC_POLICY = MutationLog.FsyncPolicy.valueOf(
+            System.getProperty("hostel.wal.fsync", "always").toUpperCase());
+    private static final long WAL_SYNC_INTERVAL_MS =
+            Long.getLong("hostel.wal.syncIntervalMs", 1000);
+    private static final MutationLog mutationLog = new MutationLog(
+            Paths.get(DATA_DIR + "mutations.log"), WAL_FSYNC_POLICY, WAL_SYNC_INTERVAL_MS);
+
+    // Груповий коміт: -Dhostel.wal.queueCapacity, -Dhostel.wal.maxBatch, -Dhostel.wal.maxWaitMicros
+    private static final GroupCommitWriter logWriter = new GroupCommitWriter(mutationLog,
+            Integer.getInteger("hostel.wal.queueCapacity", 4096),
+            Integer.getInteger("hostel.wal.maxBatch", 256),
+            Long.getLong("hostel.wal.maxWaitMicros", 0));
+
+    // Компактизація: -Dhostel.compaction.maxLogBytes, -Dhostel.compaction.maxLogRecords
+    private static final long COMPACTION_MAX_LOG_BYTES =
+            Long.getLong("hostel.compaction.maxLogBytes", 8L * 1024 * 1024);
+    private static final long COMPACTION_MAX_LOG_RECORDS =
+            Long.getLong("hostel.compaction.maxLogRecords", 10_000);
+    private static final long COMPACTION_CHECK_INTERVAL_SECONDS =
+            Long.getLong("hostel.compaction.checkIntervalSeconds", 10);
+    private static final SnapshotCompactor compactor = new SnapshotCompactor(
+            mutationLog, FileServer::compactLog, COMPACTION_MAX_LOG_BYTES, COMPACTION_MAX_LOG_RECORDS);
+
+    // Прибирання даних видалених хостелів: -Dhostel.tombstones.chunkSize=512
+    private static final TombstoneCollector tombstoneCollector = new TombstoneCollector(
+            FileServer::sweepHostel, Integer.getInteger("hostel.tombstones.chunkSize", 512));
+    // Надгробки видалених хостелів, дані яких ще не прибрано
+    private static final Set<String> hostelTombstones = ConcurrentHashMap.newKeySet();
+
+    // Зміни беруть спільне блокування, знімок - виключне (на час копіювання кешів)
+    private static final ReentrantReadWriteLock snapshotLock = new ReentrantReadWriteLock();
+
+    // Смугасті блокування кімнат: перевірка зайнятості і вставка бронювання атомарні,
+    // а зміни однієї кімнати чи її бронювань потрапляють у журнал і в кеш в одному порядку
+    private static final int ROOM_LOCK_STRIPES = 64;
+    private static final ReentrantLock[] roomLocks = new ReentrantLock[ROOM_LOCK_STRIPES];
+    // Те саме для хостелів і відгуків (за id); беруться раніше за блокування кімнат
+    private static final ReentrantLock[] entityLocks = new ReentrantLock[ROOM_LOCK_STRIPES];
+    static {
+        for (int i = 0; i < ROOM_LOCK_STRIPES; i++) {
+            roomLocks[i] = new ReentrantLock();
+            entityLocks[i] = new ReentrantLock();
+        }
+    }
+
     // Кеші даних
-    private static Map<String, User> usersCache = new ConcurrentHashMap<>();
-    private static Map<String, Hostel> hostelsCache = new ConcurrentHashMap<>();
-    private static Map<String, Room> roomsCache = new ConcurrentHashMap<>();
-    private static Map<String, Booking> bookingsCache = new ConcurrentHashMap<>();
-    private static Map<String, Review> reviewsCache = new ConcurrentHashMap<>();
+    private static final Map<String, User> usersCache = new ConcurrentHashMap<>();
+    private static final Map<String, Hostel> hostelsCache = new ConcurrentHashMap<>();
+    private static final Map<String, Room> roomsCache = new ConcurrentHashMap<>();
+    private static final Map<String, Booking> bookingsCache = new ConcurrentHashMap<>();
+    private static final Map<String, Review> reviewsCache = new ConcurrentHashMap<>();
+
+    // Архів завершених і скасованих бронювань поза кучею: -Dhostel.archive.enabled=true
+    private static final boolean ARCHIVE_ENABLED = Boolean.getBoolean("hostel.archive.enabled");
+    // Купа рядків архіву стискається, коли половина її - сміття: -Dhostel.archive.compactMinBytes
+    private static final long ARCHIVE_COMPACT_MIN_BYTES = Long.getLong("hostel.archive.compactMinBytes", 1 << 20);
+    private static BookingArchive bookingArchive; // null - архіву немає
+
+    // Вторинні індекси: оновлюються разом з основними кешами в compute()
+    private static final SecondaryIndex bookingsByHostel = new SecondaryIndex();
+    private static final SecondaryIndex bookingsByClient = new SecondaryIndex();
+    private static final SecondaryIndex activeBookingsByHostel = new SecondaryIndex();
+    private static final SecondaryIndex roomsByHostel = new SecondaryIndex();
+    private static final SecondaryIndex hostelsByManager = new SecondaryIndex();
+    private static final SecondaryIndex reviewsByHostel = new SecondaryIndex();
+    // Зайнятість кімнат у часі (інтервали активних бронювань)
+    private static final RoomAvailabilityIndex roomAvailability = new RoomAvailabilityIndex();
+    // Лічильники бронювань і доходу по хостелах
+    private static final HostelStatsAggregator hostelStats = new HostelStatsAggregator();
+    private static final RatingAggregator hostelRatings = new RatingAggregator();
+    private static final RevenueRollup revenueRollup = new RevenueRollup();
+    private static final HostelSearchIndex hostelSearch = new HostelSearchIndex();
+
+    // Підписники на зміни бронювань (нагадування тощо)
+    private static final List<BookingListener> bookingListeners = new CopyOnWriteArrayList<>();
+
+    // Унікальні індекси для входу: нормалізований email/телефон -> userId
+    private static final Map<String, String> usersByEmail = new ConcurrentHashMap<>();
+    private static final Map<String, String> usersByPhone = new ConcurrentHashMap<>();
+    private static final Map<String, String[]> userKeysById = new ConcurrentHashMap<>();
 
     // Статистика
+    private static final Map<String, Long> loadStats = new ConcurrentHashMap<>();
     private static int totalOperations = 0;
     private static LocalDateTime lastSyncTime = LocalDateTime.now();
+    private static boolean compactOnStart = false;
 
     static {
         initializeDataDirectory();
         loadAllData();
+
+        // Незавершена компактизація з попереднього запуску або перехід на інший формат знімків
+        if (mutationLog.hasSealedSegment() || compactOnStart) {
+            compactor.compactNow();
+        }
+        compactor.start(COMPACTION_CHECK_INTERVAL_SECONDS);
+        hostelTombstones.forEach(tombstoneCollector::schedule);
     }
 
     private static void initializeDataDirectory() {
@@ -52,76 +177,557 @@ public class FileServer {
 
     private static void loadAllData() {
         System.out.println("[SERVER] Завантаження даних з файлів...");
+        long startTime = System.currentTimeMillis();
 
-        // Завантажуємо Client та Manager окремо
-        Map<String, Client> clients = loadFromFile(DATA_DIR + "clients.json",
-                new TypeToken<Map<String, Client>>(){}.getType());
+        // Кожен файл розбирається у своєму потоці прямо в кеш
+        List<StorageCodec> fallbackCodecs = new ArrayList<>(allCodecs);
+        fallbackCodecs.removeIf(codec -> codec.getName().equals(storageCodec.getName()));
+        SnapshotLoader loader = new SnapshotLoader(storageCodec, fallbackCodecs, DATA_DIR, 6);
+        loader.submit("clients", Client.class, usersCache);
+        loader.submit("managers", Manager.class, usersCache);
+        loader.submit("hostels", Hostel.class, hostelsCache);
+        loader.submit("rooms", Room.class, roomsCache);
+        loader.submit("bookings", Booking.class, bookingsCache);
+        loader.submit("reviews", Review.class, reviewsCache);
+        loadStats.putAll(loader.awaitAll());
+        if (loader.isFallbackUsed()) {
+            compactOnStart = true;
+            System.out.println("[SERVER] Знімки буде перезаписано у форматі " + storageCodec.getName());
+        }
 
-        Map<String, Manager> managers = loadFromFile(DATA_DIR + "managers.json",
-                new TypeToken<Map<String, Manager>>(){}.getType());
+        openArchive();
 
-        // Об'єднуємо в один кеш
-        usersCache = new ConcurrentHashMap<>();
-        if (clients != null) {
-            clients.forEach((id, client) -> usersCache.put(id, client));
+        // Програвання журналу змін поверх останнього знімка
+        try {
+            int replayed = mutationLog.replay(FileServer::applyLogRecord);
+            mutationLog.open();
+            if (replayed > 0) {
+                System.out.println("[SERVER] Програно записів журналу змін: " + replayed);
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Без журналу наступний знімок втратив би зміни з нього - далі не йдемо
+            System.err.println("[SERVER ERROR] Помилка програвання журналу змін: " + e.getMessage());
+            throw new IllegalStateException("Журнал змін не прочитано: " + e.getMessage(), e);
         }
-        if (managers != null) {
-            managers.forEach((id, manager) -> usersCache.put(id, manager));
+
+        archiveHistoricalBookings();
+        rebuildIndexes();
+        reopenLegacyRooms();
+
+        System.out.println(String.format(
+                "[SERVER] Дані завантажено за %dмс: %d користувачів, %d хостелів, %d кімнат, %d бронювань, %d відгуків",
+                System.currentTimeMillis() - startTime,
+                usersCache.size(), hostelsCache.size(), roomsCache.size(),
+                bookingsCache.size() + (bookingArchive == null ? 0 : bookingArchive.size()),
+                reviewsCache.size()
+        ));
+    }
+
+    private static void openArchive() {
+        Path recordsPath = Paths.get(ARCHIVE_RECORDS_FILE);
+        // Вже створений архів читається, навіть якщо архівування вимкнули
+        if (!ARCHIVE_ENABLED && !Files.exists(recordsPath)) {
+            return;
+        }
+        try {
+            bookingArchive = new BookingArchive(recordsPath, Paths.get(ARCHIVE_STRINGS_FILE),
+                    ARCHIVE_COMPACT_MIN_BYTES);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("[SERVER ERROR] Помилка відкриття архіву бронювань: " + e.getMessage());
         }
+    }
 
-        hostelsCache = loadFromFile(DATA_DIR + "hostels.json",
-                new TypeToken<Map<String, Hostel>>(){}.getType());
-        if (hostelsCache == null) hostelsCache = new ConcurrentHashMap<>();
+    /**
+     * Після програвання журналу: бронювання зі знімка/журналу новіше за архівну копію
+     * (збій між записом в архів і в журнал), а історичні бронювання переносяться в архів.
+     */
+    private static void archiveHistoricalBookings() {
+        if (bookingArchive == null) {
+            return;
+        }
 
-        roomsCache = loadFromFile(DATA_DIR + "rooms.json",
-                new TypeToken<Map<String, Room>>(){}.getType());
-        if (roomsCache == null) roomsCache = new ConcurrentHashMap<>();
+        int moved = 0;
+        try {
+            for (String bookingId : bookingsCache.keySet()) {
+                if (bookingArchive.contains(bookingId)) {
+                    bookingArchive.remove(bookingId);
+                }
+            }
+            if (ARCHIVE_ENABLED) {
+                for (Booking booking : new ArrayList<>(bookingsCache.values())) {
+                    if (isHistorical(booking)) {
+                        bookingArchive.put(booking);
+                        bookingsCache.remove(booking.getId());
+                        moved++;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("[SERVER ERROR] Помилка перенесення бронювань в архів: " + e.getMessage());
+        }
 
-        bookingsCache = loadFromFile(DATA_DIR + "bookings.json",
-                new TypeToken<Map<String, Booking>>(){}.getType());
-        if (bookingsCache == null) bookingsCache = new ConcurrentHashMap<>();
+        // Перенесені бронювання прибираються зі знімка
+        if (moved > 0) {
+            compactOnStart = true;
+        }
+        System.out.println("[SERVER] Архів бронювань: " + bookingArchive.size() +
+                " записів, перенесено зараз: " + moved);
+    }
 
-        reviewsCache = loadFromFile(DATA_DIR + "reviews.json",
-                new TypeToken<Map<String, Review>>(){}.getType());
-        if (reviewsCache == null) reviewsCache = new ConcurrentHashMap<>();
+    private static boolean isHistorical(Booking booking) {
+        return booking.getStatus() == Booking.BookingStatus.COMPLETED ||
+                booking.getStatus() == Booking.BookingStatus.CANCELLED;
+    }
 
-        System.out.println(String.format(
-                "[SERVER] Дані завантажено: %d користувачів, %d хостелів, %d кімнат, %d бронювань, %d відгуків",
-                usersCache.size(), hostelsCache.size(), roomsCache.size(),
-                bookingsCache.size(), reviewsCache.size()
-        ));
+    /**
+     * Перенесення історичного бронювання з кешу в архів; true - перенесено.
+     * Викликається поза compute(): архів скидає файли на диск, а порядок блокувань
+     * скрізь один - спершу монітор архіву, потім кеш бронювань.
+     */
+    private static boolean archiveIfHistorical(Booking booking) {
+        if (!ARCHIVE_ENABLED || bookingArchive == null || !isHistorical(booking)) {
+            return false;
+        }
+        synchronized (bookingArchive) {
+            try {
+                bookingArchive.put(booking);
+            } catch (IOException e) {
+                System.err.println("[SERVER ERROR] Помилка запису в архів бронювань: " + e.getMessage());
+                return false;
+            }
+            // Поки писався архів, бронювання могли знову зробити активним
+            boolean[] moved = new boolean[1];
+            bookingsCache.computeIfPresent(booking.getId(), (id, current) -> {
+                moved[0] = current == booking && isHistorical(current);
+                return moved[0] ? null : current;
+            });
+            if (!moved[0]) {
+                removeFromArchive(booking.getId());
+            }
+            return moved[0];
+        }
+    }
+
+    // Пошук спочатку в кеші, потім в архіві (об'єкт створюється з архівного запису)
+    private static Booking findBooking(String bookingId) {
+        Booking booking = bookingsCache.get(bookingId);
+        if (booking == null && bookingArchive != null) {
+            booking = bookingArchive.get(bookingId);
+        }
+        return booking;
+    }
+
+    /**
+     * Нова версія бронювання (вже записана в журнал) - в кеш або архів разом з
+     * індексами; слухачі дізнаються про неї з indexBooking.
+     */
+    private static void publishBooking(Booking booking, boolean notify) {
+        // Внесок архівної версії записаний лише в підсумках - знімається за нею самою
+        Booking archived = archivedVersion(booking.getId());
+        if (archived != null) {
+            unindexArchivedBooking(archived);
+        }
+        bookingsCache.compute(booking.getId(), (id, old) -> {
+            indexBooking(booking, notify);
+            return booking;
+        });
+        if (archiveIfHistorical(booking)) {
+            releaseArchivedBooking(booking.getId());
+        } else {
+            removeFromArchive(booking.getId());
+        }
     }
 
-    private static <T> T loadFromFile(String filePath, Type type) {
+    /**
+     * Компактизація: під виключним блокуванням копіюються кеші і закривається
+     * активний сегмент журналу, далі знімок пишеться без блокування письменників.
+     */
+    private static SnapshotCompactor.Result compactLog() throws IOException {
+        List<SnapshotFile<?>> files;
+        long sealedBytes;
+
+        snapshotLock.writeLock().lock();
         try {
-            File file = new File(filePath);
-            if (!file.exists()) {
-                return null;
+            files = copyCaches();
+            sealedBytes = mutationLog.rotate();
+            // Знімок не зберігає надгробків - недоприбрані переходять у новий сегмент журналу.
+            // Пишемо напряму: інших записів під виключним блокуванням немає, а при
+            // завершенні роботи груповий запис уже зупинено
+            if (!hostelTombstones.isEmpty()) {
+                List<String> tombstones = new ArrayList<>();
+                for (String hostelId : hostelTombstones) {
+                    tombstones.add(logGson.toJson(logRecord("PUT", "TOMBSTONE", hostelId, null)));
+                }
+                mutationLog.appendBatch(tombstones);
+            }
+        } finally {
+            snapshotLock.writeLock().unlock();
+        }
+
+        long bytesBefore = sealedBytes + getSnapshotSize();
+
+        for (SnapshotFile<?> file : files) {
+            writeSnapshot(file);
+        }
+
+        // Знімок на диску - закритий сегмент більше не потрібен
+        mutationLog.deleteSealedSegment();
+        lastSyncTime = LocalDateTime.now();
+        logEvent("Компактизація журналу змін, закритий сегмент: " + sealedBytes + " байт");
+
+        return new SnapshotCompactor.Result(bytesBefore, getSnapshotSize());
+    }
+
+    // Копія кешів, розкладена по файлах знімка
+    private static List<SnapshotFile<?>> copyCaches() {
+        SnapshotFile<Client> clients = new SnapshotFile<>("clients", Client.class);
+        SnapshotFile<Manager> managers = new SnapshotFile<>("managers", Manager.class);
+        SnapshotFile<Hostel> hostels = new SnapshotFile<>("hostels", Hostel.class);
+        SnapshotFile<Room> rooms = new SnapshotFile<>("rooms", Room.class);
+        SnapshotFile<Booking> bookings = new SnapshotFile<>("bookings", Booking.class);
+        SnapshotFile<Review> reviews = new SnapshotFile<>("reviews", Review.class);
+
+        for (User user : usersCache.values()) {
+            if (user instanceof Client) {
+                clients.entities.put(user.getId(), (Client) user);
+            } else if (user instanceof Manager) {
+                managers.entities.put(user.getId(), (Manager) user);
+            }
+        }
+        hostels.entities.putAll(hostelsCache);
+        rooms.entities.putAll(roomsCache);
+        bookings.entities.putAll(bookingsCache);
+        reviews.entities.putAll(reviewsCache);
+        return List.of(clients, managers, hostels, rooms, bookings, reviews);
+    }
+
+    /**
+     * Атомарний запис знімка: тимчасовий файл + fsync + перейменування.
+     * Знімок того ж файлу в іншому форматі видаляється, щоб не прочитати застарілі дані.
+     */
+    private static <T> void writeSnapshot(SnapshotFile<T> file) throws IOException {
+        Path target = Paths.get(DATA_DIR + file.baseName + storageCodec.getExtension());
+        Path temp = Paths.get(target + ".tmp");
+
+        storageCodec.write(temp, file.entities, file.type);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        for (StorageCodec codec : allCodecs) {
+            if (!codec.getName().equals(storageCodec.getName())) {
+                Files.deleteIfExists(Paths.get(DATA_DIR + file.baseName + codec.getExtension()));
             }
+        }
+    }
 
-            try (Reader reader = new FileReader(file)) {
-                return gson.fromJson(reader, type);
+    private static long getSnapshotSize() {
+        long size = 0;
+        for (SnapshotFile<?> file : SnapshotFile.layout()) {
+            for (StorageCodec codec : allCodecs) {
+                File snapshot = new File(DATA_DIR + file.baseName + codec.getExtension());
+                if (snapshot.exists()) {
+                    size += snapshot.length();
+                }
             }
+        }
+        return size;
+    }
+
+    // Порівняння форматів зберігання на поточних даних (прихована команда менеджера)
+    public static void runStorageBenchmark() {
+        try {
+            StorageBenchmark.run(copyCaches(), allCodecs);
         } catch (IOException e) {
-            System.err.println("[SERVER ERROR] Помилка завантаження з " + filePath + ": " + e.getMessage());
-            return null;
+            System.err.println("[SERVER ERROR] Помилка порівняння форматів: " + e.getMessage());
+        }
+    }
+
+    private static boolean appendToLog(String op, String type, String id, Object data) {
+        return submitToLog(logRecord(op, type, id, data));
+    }
+
+    private static JsonObject logRecord(String op, String type, String id, Object data) {
+        JsonObject record = new JsonObject();
+        record.addProperty("op", op);
+        record.addProperty("type", type);
+        record.addProperty("id", id);
+        if (data != null) {
+            record.add("data", logGson.toJsonTree(data));
         }
+        return record;
     }
 
-    private static synchronized void saveToFile(String filePath, Object data) {
+    // Кілька записів одним рядком журналу
+    private static JsonObject batchRecord(JsonArray records) {
+        JsonObject record = new JsonObject();
+        record.addProperty("op", "BATCH");
+        record.add("records", records);
+        return record;
+    }
+
+    private static boolean submitToLog(JsonObject record) {
+        // Виклик чекає на свій пакет, тож після повернення запис вже на диску
+        try {
+            logWriter.submit(logGson.toJson(record)).get();
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            System.err.println("[SERVER ERROR] Помилка запису в журнал змін: " + e.getCause().getMessage());
+            return false;
+        }
+    }
+
+    private static void applyLogRecord(String line) {
+        JsonObject record = JsonParser.parseString(line).getAsJsonObject();
+        if (record.get("op").getAsString().equals("BATCH")) {
+            // Пакет - один рядок журналу, тому він або прочитаний цілком, або відкинутий
+            for (JsonElement entry : record.getAsJsonArray("records")) {
+                applyLogEntry(entry.getAsJsonObject());
+            }
+            return;
+        }
+        applyLogEntry(record);
+    }
+
+    private static void applyLogEntry(JsonObject record) {
+        String op = record.get("op").getAsString();
+        String type = record.get("type").getAsString();
+        String id = record.get("id").getAsString();
+
+        if (op.equals("DELETE")) {
+            switch (type) {
+                case "CLIENT", "MANAGER" -> usersCache.remove(id);
+                case "HOSTEL" -> hostelsCache.remove(id);
+                case "ROOM" -> roomsCache.remove(id);
+                case "BOOKING" -> {
+                    bookingsCache.remove(id);
+                    removeFromArchive(id);
+                }
+                case "REVIEW" -> reviewsCache.remove(id);
+                case "TOMBSTONE" -> hostelTombstones.remove(id);
+                default -> throw new IllegalStateException("Невідомий тип запису: " + type);
+            }
+            return;
+        }
+
+        JsonObject data = record.getAsJsonObject("data");
+        switch (type) {
+            case "CLIENT" -> usersCache.put(id, logGson.fromJson(data, Client.class));
+            case "MANAGER" -> usersCache.put(id, logGson.fromJson(data, Manager.class));
+            case "HOSTEL" -> hostelsCache.put(id, logGson.fromJson(data, Hostel.class));
+            case "ROOM" -> roomsCache.put(id, logGson.fromJson(data, Room.class));
+            case "BOOKING" -> bookingsCache.put(id, logGson.fromJson(data, Booking.class));
+            case "REVIEW" -> reviewsCache.put(id, logGson.fromJson(data, Review.class));
+            case "TOMBSTONE" -> hostelTombstones.add(id);
+            default -> throw new IllegalStateException("Невідомий тип запису: " + type);
+        }
+    }
+
+    private static void removeFromArchive(String bookingId) {
+        if (bookingArchive == null) {
+            return;
+        }
         try {
-            try (Writer writer = new FileWriter(filePath)) {
-                gson.toJson(data, writer);
+            bookingArchive.remove(bookingId);
+        } catch (IOException e) {
+            System.err.println("[SERVER ERROR] Помилка видалення з архіву бронювань: " + e.getMessage());
+        }
+    }
+
+    // ========== ІНДЕКСИ ==========
+
+    private static void rebuildIndexes() {
+        for (User user : usersCache.values()) {
+            if (!claimUserKeys(user)) {
+                System.err.println("[SERVER WARNING] Дублікат email або телефону у користувача " + user.getId());
+            }
+        }
+        hostelsCache.values().forEach(FileServer::indexHostel);
+        roomsCache.values().forEach(FileServer::indexRoom);
+        bookingsCache.values().forEach(FileServer::indexBooking);
+        if (bookingArchive != null) {
+            bookingArchive.forEach(FileServer::indexArchivedBooking);
+        }
+        reviewsCache.values().forEach(FileServer::indexReview);
+    }
+
+    /**
+     * Атомарне закріплення email і телефону за користувачем.
+     * false - якщо хоча б один з них вже належить іншому користувачу.
+     */
+    private static boolean claimUserKeys(User user) {
+        String userId = user.getId();
+        String email = InputValidator.normalizeEmail(user.getEmail());
+        String phone = InputValidator.normalizePhone(user.getPhone());
+
+        boolean emailClaimed = false;
+        if (email != null) {
+            String owner = usersByEmail.putIfAbsent(email, userId);
+            if (owner != null && !owner.equals(userId)) {
+                return false;
+            }
+            emailClaimed = owner == null;
+        }
+        if (phone != null) {
+            String owner = usersByPhone.putIfAbsent(phone, userId);
+            if (owner != null && !owner.equals(userId)) {
+                if (emailClaimed) {
+                    usersByEmail.remove(email, userId);
+                }
+                return false;
+            }
+        }
+
+        // Звільняємо старі ключі, якщо email або телефон змінились
+        String[] oldKeys = userKeysById.put(userId, new String[]{email, phone});
+        if (oldKeys != null) {
+            if (oldKeys[0] != null && !oldKeys[0].equals(email)) {
+                usersByEmail.remove(oldKeys[0], userId);
+            }
+            if (oldKeys[1] != null && !oldKeys[1].equals(phone)) {
+                usersByPhone.remove(oldKeys[1], userId);
+            }
+        }
+        return true;
+    }
+
+    // Відкат claimUserKeys: звільнення щойно закріплених ключів і повернення попередніх
+    private static void restoreUserKeys(String userId, String[] previousKeys) {
+        String[] claimed = previousKeys == null ? userKeysById.remove(userId) :
+                userKeysById.put(userId, previousKeys);
+        String previousEmail = previousKeys == null ? null : previousKeys[0];
+        String previousPhone = previousKeys == null ? null : previousKeys[1];
+        if (claimed != null) {
+            restoreUserKey(usersByEmail, userId, claimed[0], previousEmail);
+            restoreUserKey(usersByPhone, userId, claimed[1], previousPhone);
+        }
+    }
+
+    private static void restoreUserKey(Map<String, String> keys, String userId, String claimed, String previous) {
+        if (claimed != null && !claimed.equals(previous)) {
+            keys.remove(claimed, userId);
+        }
+        if (previous != null) {
+            keys.putIfAbsent(previous, userId);
+        }
+    }
+
+    private static void indexHostel(Hostel hostel) {
+        hostelsByManager.put(hostel.getId(), hostel.getManagerId());
+        hostelSearch.update(hostel);
+    }
+
+    private static void indexRoom(Room room) {
+        roomsByHostel.put(room.getId(), room.getHostelId());
+    }
+
+    private static void indexBooking(Booking booking) {
+        indexBooking(booking, true);
+    }
+
+    private static void indexBooking(Booking booking, boolean notify) {
+        bookingsByHostel.put(booking.getId(), booking.getHostelId());
+        bookingsByClient.put(booking.getId(), booking.getClientId());
+        activeBookingsByHostel.put(booking.getId(),
+                booking.getStatus() == Booking.BookingStatus.ACTIVE ? booking.getHostelId() : null);
+        roomAvailability.update(booking);
+        hostelStats.update(booking);
+        revenueRollup.update(booking);
+        if (notify) {
+            for (BookingListener listener : bookingListeners) {
+                listener.bookingChanged(booking);
+            }
+        }
+    }
+
+    /**
+     * Архівне бронювання входить лише в лічильники й зведення доходу, без записів
+     * на бронювання в кучі; пошук за хостелом і клієнтом перебирає сам архів.
+     */
+    private static void indexArchivedBooking(Booking booking) {
+        hostelStats.add(booking);
+        revenueRollup.add(booking);
+    }
+
+    private static void unindexArchivedBooking(Booking booking) {
+        hostelStats.subtract(booking);
+        revenueRollup.subtract(booking);
+    }
+
+    // Бронювання перенесено в архів: записи на нього знімаються, внесок лишається в підсумках
+    private static void releaseArchivedBooking(String bookingId) {
+        bookingsByHostel.remove(bookingId);
+        bookingsByClient.remove(bookingId);
+        activeBookingsByHostel.remove(bookingId);
+        hostelStats.release(bookingId);
+        revenueRollup.release(bookingId);
+    }
+
+    // Архівна версія бронювання, якого немає в кеші (null - в архіві його немає)
+    private static Booking archivedVersion(String bookingId) {
+        return bookingArchive == null || bookingsCache.containsKey(bookingId) ? null : bookingArchive.get(bookingId);
+    }
+
+    private static Iterator<Booking> archivedBookings(int field, String key) {
+        return bookingArchive == null ? Collections.emptyIterator() : bookingArchive.scan(field, key);
+    }
+
+    /**
+     * Одноразова міграція: раніше бронювання закривало кімнату прапорцем available=false.
+     * Тепер зайнятість визначається інтервалами, тому такі кімнати відкриваються знову.
+     * Після виконання лишається позначка, щоб не відкривати кімнати, які менеджер
+     * закрив свідомо, при кожному старті.
+     */
+    private static void reopenLegacyRooms() {
+        Path marker = Paths.get(LEGACY_ROOMS_MARKER);
+        if (Files.exists(marker)) {
+            return;
+        }
+
+        Set<String> occupiedRooms = new HashSet<>();
+        for (Booking booking : bookingsCache.values()) {
+            if (RoomAvailabilityIndex.occupiesRoom(booking)) {
+                occupiedRooms.add(booking.getRoomId());
+            }
+        }
+
+        int reopened = 0;
+        for (String roomId : occupiedRooms) {
+            Room room = roomsCache.get(roomId);
+            if (room != null && !room.isAvailable()) {
+                Room open = copyOf(room, Room.class);
+                open.setAvailable(true);
+                if (!appendToLog("PUT", "ROOM", roomId, open)) {
+                    // Без позначки міграція повториться при наступному старті
+                    return;
+                }
+                roomsCache.put(roomId, open);
+                reopened++;
             }
+        }
+        try {
+            Files.write(marker, LocalDateTime.now().toString().getBytes(StandardCharsets.UTF_8));
         } catch (IOException e) {
-            System.err.println("[SERVER ERROR] Помилка збереження в " + filePath + ": " + e.getMessage());
+            System.err.println("[SERVER ERROR] Помилка запису позначки міграції кімнат: " + e.getMessage());
+        }
+        if (reopened > 0) {
+            System.out.println("[SERVER] Відкрито кімнат, закритих старими бронюваннями: " + reopened);
         }
     }
 
+    private static void indexReview(Review review) {
+        reviewsByHostel.put(review.getId(), review.getHostelId());
+        hostelRatings.update(review);
+    }
+
     private static void logEvent(String event) {
         String logEntry = LocalDateTime.now() + " - " + event;
         try {
-            Files.write(Paths.get(DATA_DIR + "server.log"),
+            Files.write(Paths.get(SERVER_LOG_FILE),
                     (logEntry + "\n").getBytes(),
                     StandardOpenOption.CREATE, StandardOpenOption.APPEND);
         } catch (IOException e) {
@@ -133,33 +739,36 @@ public class FileServer {
 
     // Користувачі
     public static User findUserByEmailOrPhone(String emailOrPhone) {
-        for (User user : usersCache.values()) {
-            if (user.getEmail().equals(emailOrPhone) || user.getPhone().equals(emailOrPhone)) {
-                return user;
-            }
+        if (emailOrPhone == null) {
+            return null;
         }
-        return null;
-    }
 
-    private static void saveUsers() {
-        Map<String, Client> clients = new HashMap<>();
-        Map<String, Manager> managers = new HashMap<>();
-
-        for (User user : usersCache.values()) {
-            if (user instanceof Client) {
-                clients.put(user.getId(), (Client) user);
-            } else if (user instanceof Manager) {
-                managers.put(user.getId(), (Manager) user);
-            }
+        String userId = usersByEmail.get(InputValidator.normalizeEmail(emailOrPhone));
+        if (userId == null) {
+            userId = usersByPhone.get(InputValidator.normalizePhone(emailOrPhone));
         }
-
-        saveToFile(DATA_DIR + "clients.json", clients);
-        saveToFile(DATA_DIR + "managers.json", managers);
+        return userId == null ? null : usersCache.get(userId);
     }
 
     public static boolean saveUser(User user) {
-        usersCache.put(user.getId(), user);
-        saveUsers(); // Використовуємо новий метод
+        snapshotLock.readLock().lock();
+        try {
+            // Унікальність email і телефону перевіряється атомарно разом із закріпленням
+            String[] previousKeys = userKeysById.get(user.getId());
+            if (!claimUserKeys(user)) {
+                System.out.println("[SERVER] Email або телефон вже зайнято: " + user.getId());
+                return false;
+            }
+            // У кеш - лише після запису в журнал; при помилці ключі повертаються як були
+            String type = user instanceof Manager ? "MANAGER" : "CLIENT";
+            if (!appendToLog("PUT", type, user.getId(), user)) {
+                restoreUserKeys(user.getId(), previousKeys);
+                return false;
+            }
+            usersCache.put(user.getId(), user);
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
         totalOperations++;
         logEvent("Збережено користувача: " + user.getId());
         return true;
@@ -171,8 +780,22 @@ public class FileServer {
 
     // Хостели
     public static boolean saveHostel(Hostel hostel) {
-        hostelsCache.put(hostel.getId(), hostel);
-        saveToFile(DATA_DIR + "hostels.json", hostelsCache);
+        ReentrantLock lock = stripe(entityLocks, hostel.getId());
+        lock.lock();
+        snapshotLock.readLock().lock();
+        try {
+            // Спершу журнал, потім кеш: невдалий запис нічого не змінює
+            if (!appendToLog("PUT", "HOSTEL", hostel.getId(), hostel)) {
+                return false;
+            }
+            hostelsCache.compute(hostel.getId(), (id, old) -> {
+                indexHostel(hostel);
+                return hostel;
+            });
+        } finally {
+            snapshotLock.readLock().unlock();
+            lock.unlock();
+        }
         totalOperations++;
         logEvent("Збережено хостел: " + hostel.getId());
         return true;
@@ -184,66 +807,319 @@ public class FileServer {
 
     public static List<Hostel> getHostelsByManager(String managerId) {
         List<Hostel> result = new ArrayList<>();
-        for (Hostel hostel : hostelsCache.values()) {
-            if (hostel.getManagerId().equals(managerId)) {
+        for (String hostelId : hostelsByManager.get(managerId)) {
+            Hostel hostel = hostelsCache.get(hostelId);
+            if (hostel != null && managerId.equals(hostel.getManagerId())) {
                 result.add(hostel);
             }
         }
         return result;
     }
 
+    // Усі активні хостели міста, що відповідають запиту, у порядку релевантності
     public static List<Hostel> searchHostels(String city, String query) {
-        List<Hostel> result = new ArrayList<>();
-        for (Hostel hostel : hostelsCache.values()) {
-            if (hostel.getCity().equalsIgnoreCase(city) && hostel.isActive()) {
-                if (query.isEmpty() ||
-                        hostel.getName().toLowerCase().contains(query.toLowerCase()) ||
-                        hostel.getAddress().toLowerCase().contains(query.toLowerCase())) {
-                    result.add(hostel);
+        return rankHostels(city, query, 1, Integer.MAX_VALUE).getResults();
+    }
+
+    /**
+     * Пошук через індекс міст і триграм назви та адреси.
+     * Порядок: релевантність, потім середній рейтинг, потім назва.
+     */
+    public static HostelSearchPage<Hostel> searchHostels(String city, String query, int page, int pageSize) {
+        return rankHostels(city, query, Math.max(1, page), Math.max(1, pageSize));
+    }
+
+    // Кандидат пошуку з уже обчисленими ключами сортування
+    private static class RankedHostel {
+        final Hostel hostel;
+        final double score;
+        final double rating;
+        final String name;
+
+        RankedHostel(Hostel hostel, double score, double rating) {
+            this.hostel = hostel;
+            this.score = score;
+            this.rating = rating;
+            this.name = hostel.getName() == null ? "" : hostel.getName().toLowerCase();
+        }
+    }
+
+    private static final Comparator<RankedHostel> SEARCH_ORDER =
+            Comparator.<RankedHostel>comparingDouble(r -> -r.score)
+                    .thenComparingDouble(r -> -r.rating)
+                    .thenComparing(r -> r.name);
+
+    // Сортується лише верхівка до кінця потрібної сторінки (купа розміру page * pageSize)
+    private static HostelSearchPage<Hostel> rankHostels(String city, String query, int page, int pageSize) {
+        int limit = (int) Math.min(Integer.MAX_VALUE, (long) page * pageSize);
+        PriorityQueue<RankedHostel> top = new PriorityQueue<>(SEARCH_ORDER.reversed());
+        int total = 0;
+        for (Map.Entry<String, Double> entry : hostelSearch.search(city, query).entrySet()) {
+            Hostel hostel = hostelsCache.get(entry.getKey());
+            if (hostel == null || !hostel.isActive()) {
+                continue;
+            }
+            total++;
+            top.add(new RankedHostel(hostel, entry.getValue(),
+                    hostelRatings.get(hostel.getId()).getAverage()));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+
+        List<RankedHostel> ranked = new ArrayList<>(top);
+        ranked.sort(SEARCH_ORDER);
+        List<Hostel> hostels = new ArrayList<>(ranked.size());
+        for (RankedHostel candidate : ranked) {
+            hostels.add(candidate.hostel);
+        }
+        return HostelSearchPage.of(hostels, page, pageSize, total);
+    }
+
+    private static final Comparator<AvailableHostel> AVAILABILITY_ORDER =
+            Comparator.<AvailableHostel>comparingDouble(h -> -h.score)
+                    .thenComparingDouble(AvailableHostel::getCheapestPricePerHour)
+                    .thenComparingDouble(h -> -h.rating)
+                    .thenComparing(h -> h.getHostel().getName(),
+                            Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER));
+
+    /**
+     * Хостели з кімнатами, що відповідають умовам і вільні на весь період, за один прохід:
+     * кандидати з пошукового індексу, кімнати з індексу хостела, зайнятість з інтервалів.
+     * Порядок: релевантність, найнижча ціна, рейтинг, назва.
+     */
+    public static HostelSearchPage<AvailableHostel> searchAvailableHostels(HostelSearchCriteria criteria,
+                                                                          int page, int pageSize) {
+        int number = Math.max(1, page);
+        int size = Math.max(1, pageSize);
+        List<AvailableHostel> found = new ArrayList<>();
+        if (!criteria.hasValidPeriod()) {
+            return HostelSearchPage.of(found, number, size, 0);
+        }
+
+        for (Map.Entry<String, Double> entry : hostelSearch.search(criteria.getCity(), criteria.getQuery()).entrySet()) {
+            String hostelId = entry.getKey();
+            Hostel hostel = hostelsCache.get(hostelId);
+            if (hostel == null || !hostel.isActive()) {
+                continue;
+            }
+
+            List<Room> freeRooms = new ArrayList<>();
+            for (String roomId : roomsByHostel.get(hostelId)) {
+                Room room = roomsCache.get(roomId);
+                // Дешеві перевірки атрибутів - до перевірки інтервалів
+                if (room != null && hostelId.equals(room.getHostelId()) && criteria.matches(room) &&
+                        roomAvailability.isFree(roomId, criteria.getCheckIn(), criteria.getCheckOut())) {
+                    freeRooms.add(room);
                 }
             }
+            if (!freeRooms.isEmpty()) {
+                freeRooms.sort(Comparator.comparingDouble(Room::getPricePerHour));
+                found.add(new AvailableHostel(hostel, freeRooms, entry.getValue(),
+                        hostelRatings.get(hostelId).getAverage()));
+            }
         }
-        return result;
+
+        found.sort(AVAILABILITY_ORDER);
+        return HostelSearchPage.of(found, number, size, found.size());
     }
 
     public static boolean updateHostel(Hostel hostel) {
-        if (hostelsCache.containsKey(hostel.getId())) {
-            hostelsCache.put(hostel.getId(), hostel);
-            saveToFile(DATA_DIR + "hostels.json", hostelsCache);
-            logEvent("Оновлено хостел: " + hostel.getId());
-            return true;
+        ReentrantLock lock = stripe(entityLocks, hostel.getId());
+        lock.lock();
+        snapshotLock.readLock().lock();
+        try {
+            // Видалення хостела бере виключне блокування, тож між перевіркою і записом він не зникне
+            if (!hostelsCache.containsKey(hostel.getId()) ||
+                    !appendToLog("PUT", "HOSTEL", hostel.getId(), hostel)) {
+                return false;
+            }
+            hostelsCache.computeIfPresent(hostel.getId(), (id, old) -> {
+                indexHostel(hostel);
+                return hostel;
+            });
+        } finally {
+            snapshotLock.readLock().unlock();
+            lock.unlock();
         }
-        return false;
+        logEvent("Оновлено хостел: " + hostel.getId());
+        return true;
     }
 
+    /**
+     * Видалення хостела: хостел і його надгробок пишуться одним записом журналу,
+     * а кімнати, бронювання й відгуки хостела прибирає у фоні TombstoneCollector.
+     * Надгробок ставиться під виключним блокуванням: збереження кімнат, бронювань
+     * і відгуків перевіряють його під спільним разом із записом, тож після видалення
+     * нові дані хостела не з'являться повз прибирання.
+     */
     public static boolean deleteHostel(String hostelId) {
-        Hostel removed = hostelsCache.remove(hostelId);
-        if (removed != null) {
-            saveToFile(DATA_DIR + "hostels.json", hostelsCache);
-            logEvent("Видалено хостел: " + hostelId);
+        snapshotLock.writeLock().lock();
+        try {
+            if (!hostelsCache.containsKey(hostelId)) {
+                return false;
+            }
+            JsonArray records = new JsonArray();
+            records.add(logRecord("DELETE", "HOSTEL", hostelId, null));
+            records.add(logRecord("PUT", "TOMBSTONE", hostelId, null));
+            if (!submitToLog(batchRecord(records))) {
+                return false;
+            }
+            hostelsCache.remove(hostelId);
+            hostelsByManager.remove(hostelId);
+            hostelSearch.remove(hostelId);
+            hostelTombstones.add(hostelId);
+        } finally {
+            snapshotLock.writeLock().unlock();
+        }
+        tombstoneCollector.schedule(hostelId);
+        logEvent("Видалено хостел: " + hostelId);
+        return true;
+    }
 
-            // Видаляємо всі кімнати цього хостела
-            roomsCache.entrySet().removeIf(entry -> entry.getValue().getHostelId().equals(hostelId));
-            saveToFile(DATA_DIR + "rooms.json", roomsCache);
+    /**
+     * Порція прибирання видаленого хостела: спершу кімнати (нові бронювання
+     * стають неможливими), далі бронювання і відгуки - через індекси хостела.
+     * Порція - один запис BATCH; коли прибирати нічого, знімається надгробок.
+     * Після запису слухачі дізнаються про кожне прибране бронювання.
+     */
+    private static int sweepHostel(String hostelId, int limit) {
+        List<String> roomIds = firstIds(roomsByHostel.get(hostelId), limit);
+        List<String> bookingIds = firstIds(bookingsByHostel.get(hostelId), limit - roomIds.size());
+        for (Iterator<Booking> archived = archivedBookings(BookingArchive.BY_HOSTEL, hostelId);
+             bookingIds.size() < limit - roomIds.size() && archived.hasNext(); ) {
+            bookingIds.add(archived.next().getId());
+        }
+        List<String> reviewIds = firstIds(reviewsByHostel.get(hostelId),
+                limit - roomIds.size() - bookingIds.size());
 
-            return true;
+        // Нових даних у хостел із надгробком не додають, але наявні бронювання ще можна
+        // змінити (updateBooking). Смуги їхніх кімнат тримаємо від запису DELETE до
+        // зняття з кешів, щоб зміна не вклинилась і не повернула бронювання
+        Set<String> lockedRooms = new HashSet<>(roomIds);
+        for (String bookingId : bookingIds) {
+            Booking booking = findBooking(bookingId);
+            if (booking != null) {
+                lockedRooms.add(booking.getRoomId());
+            }
+        }
+        List<ReentrantLock> reviewStripes = lockStripes(entityLocks, reviewIds);
+        List<ReentrantLock> roomStripes = lockStripes(roomLocks, lockedRooms);
+        snapshotLock.readLock().lock();
+        try {
+            // Спершу журнал, як і для інших змін: невдалий запис нічого не прибирає
+            JsonArray records = new JsonArray();
+            for (String roomId : roomIds) {
+                records.add(logRecord("DELETE", "ROOM", roomId, null));
+            }
+            for (String bookingId : bookingIds) {
+                records.add(logRecord("DELETE", "BOOKING", bookingId, null));
+            }
+            for (String reviewId : reviewIds) {
+                records.add(logRecord("DELETE", "REVIEW", reviewId, null));
+            }
+
+            int removed = records.size();
+            if (removed == 0) {
+                records.add(logRecord("DELETE", "TOMBSTONE", hostelId, null));
+            }
+            if (!submitToLog(batchRecord(records))) {
+                return -1;
+            }
+            if (removed == 0) {
+                hostelTombstones.remove(hostelId);
+                logEvent("Прибрано дані видаленого хостела: " + hostelId);
+                return 0;
+            }
+
+            for (String roomId : roomIds) {
+                roomsCache.computeIfPresent(roomId, (id, room) -> {
+                    roomsByHostel.remove(id);
+                    return null;
+                });
+            }
+            for (String bookingId : bookingIds) {
+                removeBooking(bookingId);
+            }
+            for (String reviewId : reviewIds) {
+                reviewsCache.computeIfPresent(reviewId, (id, review) -> {
+                    reviewsByHostel.remove(id);
+                    hostelRatings.remove(id);
+                    return null;
+                });
+            }
+        } finally {
+            snapshotLock.readLock().unlock();
+            unlockAll(roomStripes);
+            unlockAll(reviewStripes);
+        }
+
+        for (String bookingId : bookingIds) {
+            for (BookingListener listener : bookingListeners) {
+                listener.bookingRemoved(bookingId);
+            }
+        }
+        return roomIds.size() + bookingIds.size() + reviewIds.size();
+    }
+
+    private static List<String> firstIds(Set<String> ids, int limit) {
+        List<String> result = new ArrayList<>(Math.min(ids.size(), Math.max(limit, 0)));
+        for (String id : ids) {
+            if (result.size() >= limit) {
+                break;
+            }
+            result.add(id);
+        }
+        return result;
+    }
+
+    // Бронювання знімається з кешу, архіву і всіх індексів
+    private static void removeBooking(String bookingId) {
+        Booking archived = archivedVersion(bookingId);
+        if (archived != null) {
+            unindexArchivedBooking(archived);
         }
-        return false;
+        bookingsCache.remove(bookingId);
+        removeFromArchive(bookingId);
+        bookingsByHostel.remove(bookingId);
+        bookingsByClient.remove(bookingId);
+        activeBookingsByHostel.remove(bookingId);
+        roomAvailability.remove(bookingId);
+        hostelStats.remove(bookingId);
+        revenueRollup.remove(bookingId);
     }
 
     // Кімнати
     public static boolean saveRoom(Room room) {
-        roomsCache.put(room.getId(), room);
-        saveToFile(DATA_DIR + "rooms.json", roomsCache);
+        ReentrantLock lock = roomLock(room.getId());
+        lock.lock();
+        snapshotLock.readLock().lock();
+        try {
+            // Під тим самим блокуванням, що й постановка надгробка (deleteHostel)
+            if (hostelTombstones.contains(room.getHostelId())) {
+                return false;
+            }
+            if (!appendToLog("PUT", "ROOM", room.getId(), room)) {
+                return false;
+            }
+            roomsCache.compute(room.getId(), (id, old) -> {
+                indexRoom(room);
+                return room;
+            });
+        } finally {
+            snapshotLock.readLock().unlock();
+            lock.unlock();
+        }
         totalOperations++;
         logEvent("Збережено кімнату: " + room.getId());
         return true;
     }
 
+    // Кімнати, відкриті менеджером для бронювання (без урахування дат)
     public static List<Room> getRoomsByHostel(String hostelId) {
         List<Room> result = new ArrayList<>();
-        for (Room room : roomsCache.values()) {
-            if (room.getHostelId().equals(hostelId) && room.isAvailable()) {
+        for (Room room : getAllRoomsByHostel(hostelId)) {
+            if (room.isAvailable()) {
                 result.add(room);
             }
         }
@@ -252,8 +1128,9 @@ public class FileServer {
 
     public static List<Room> getAllRoomsByHostel(String hostelId) {
         List<Room> result = new ArrayList<>();
-        for (Room room : roomsCache.values()) {
-            if (room.getHostelId().equals(hostelId)) {
+        for (String roomId : roomsByHostel.get(hostelId)) {
+            Room room = roomsCache.get(roomId);
+            if (room != null && hostelId.equals(room.getHostelId())) {
                 result.add(room);
             }
         }
@@ -264,38 +1141,191 @@ public class FileServer {
         return roomsCache.get(roomId);
     }
 
+    // Чи вільна кімната на період [checkIn, checkOut)
+    public static boolean isRoomFree(String roomId, LocalDateTime checkIn, LocalDateTime checkOut) {
+        Room room = roomsCache.get(roomId);
+        return room != null && room.isAvailable() && checkOut.isAfter(checkIn) &&
+                roomAvailability.isFree(roomId, checkIn, checkOut);
+    }
+
+    // Кімнати хостела, вільні на період [checkIn, checkOut)
+    public static List<Room> getFreeRooms(String hostelId, LocalDateTime checkIn, LocalDateTime checkOut) {
+        List<Room> result = new ArrayList<>();
+        if (!checkOut.isAfter(checkIn)) {
+            return result;
+        }
+        for (Room room : getRoomsByHostel(hostelId)) {
+            if (roomAvailability.isFree(room.getId(), checkIn, checkOut)) {
+                result.add(room);
+            }
+        }
+        return result;
+    }
+
     // Бронювання
-    public static boolean saveBooking(Booking booking) {
-        bookingsCache.put(booking.getId(), booking);
-        saveToFile(DATA_DIR + "bookings.json", bookingsCache);
-        totalOperations++;
+    private static ReentrantLock roomLock(String roomId) {
+        return stripe(roomLocks, roomId);
+    }
+
+    private static int stripeIndex(String key) {
+        int hash = key == null ? 0 : key.hashCode();
+        return (hash ^ (hash >>> 16)) & (ROOM_LOCK_STRIPES - 1);
+    }
+
+    private static ReentrantLock stripe(ReentrantLock[] stripes, String key) {
+        return stripes[stripeIndex(key)];
+    }
+
+    // Кілька смуг одразу - у порядку номерів, щоб пакети не блокували один одного
+    private static List<ReentrantLock> lockStripes(ReentrantLock[] stripes, Collection<String> keys) {
+        TreeSet<Integer> indexes = new TreeSet<>();
+        for (String key : keys) {
+            indexes.add(stripeIndex(key));
+        }
+        List<ReentrantLock> locked = new ArrayList<>(indexes.size());
+        for (int index : indexes) {
+            stripes[index].lock();
+            locked.add(stripes[index]);
+        }
+        return locked;
+    }
+
+    private static void unlockAll(List<ReentrantLock> locks) {
+        for (int i = locks.size() - 1; i >= 0; i--) {
+            locks.get(i).unlock();
+        }
+    }
+
+    /**
+     * Атомарне резервування: під блокуванням кімнати перевіряється, що період
+     * вільний, і бронювання вставляється разом з індексами.
+     */
+    public static ReservationResult reserveBooking(Booking booking) {
+        if (booking.getCheckInTime() == null || booking.getCheckOutTime() == null ||
+                !booking.getCheckOutTime().isAfter(booking.getCheckInTime())) {
+            return ReservationResult.INVALID_PERIOD;
+        }
 
-        // Оновлення доступності кімнати
-        Room room = roomsCache.get(booking.getRoomId());
-        if (room != null && booking.getStatus() == Booking.BookingStatus.ACTIVE) {
-            room.setAvailable(false);
-            saveRoom(room);
+        ReentrantLock lock = roomLock(booking.getRoomId());
+        lock.lock();
+        // Надгробок перевіряється разом із записом (див. deleteHostel)
+        snapshotLock.readLock().lock();
+        try {
+            Room room = roomsCache.get(booking.getRoomId());
+            if (room == null || !room.getHostelId().equals(booking.getHostelId()) ||
+                    hostelTombstones.contains(room.getHostelId())) {
+                return ReservationResult.ROOM_NOT_FOUND;
+            }
+            if (!room.isAvailable()) {
+                return ReservationResult.ROOM_CLOSED;
+            }
+            if (!roomAvailability.isFree(room.getId(), booking.getCheckInTime(), booking.getCheckOutTime())) {
+                return ReservationResult.CONFLICT;
+            }
+            if (!saveBooking(booking)) {
+                return ReservationResult.STORAGE_ERROR;
+            }
+        } finally {
+            snapshotLock.readLock().unlock();
+            lock.unlock();
         }
+        return ReservationResult.RESERVED;
+    }
 
+    public static boolean saveBooking(Booking booking) {
+        ReentrantLock lock = roomLock(booking.getRoomId());
+        lock.lock();
+        snapshotLock.readLock().lock();
+        try {
+            // Дані видаленого хостела прибираються - нових записів у нього не додаємо.
+            // Перевірка під спільним блокуванням: надгробок ставиться під виключним
+            if (hostelTombstones.contains(booking.getHostelId())) {
+                return false;
+            }
+            // Спершу журнал: якщо запис не вдався, бронювання не з'являється в кеші
+            // й індексах і не займає кімнату
+            if (!appendToLog("PUT", "BOOKING", booking.getId(), booking)) {
+                return false;
+            }
+            publishBooking(booking, true);
+        } finally {
+            snapshotLock.readLock().unlock();
+            lock.unlock();
+        }
+        totalOperations++;
         logEvent("Збережено бронювання: " + booking.getId());
         return true;
     }
 
     public static List<Booking> getUserBookings(String userId) {
         List<Booking> result = new ArrayList<>();
-        for (Booking booking : bookingsCache.values()) {
-            if (booking.getClientId().equals(userId)) {
+        for (String bookingId : bookingsByClient.get(userId)) {
+            Booking booking = bookingsCache.get(bookingId);
+            if (booking != null && userId.equals(booking.getClientId())) {
                 result.add(booking);
             }
         }
+        archivedBookings(BookingArchive.BY_CLIENT, userId).forEachRemaining(result::add);
         result.sort((b1, b2) -> b2.getCreatedAt().compareTo(b1.getCreatedAt()));
         return result;
     }
 
     public static List<Booking> getHostelBookings(String hostelId) {
+        List<Booking> result = new ArrayList<>();
+        for (String bookingId : bookingsByHostel.get(hostelId)) {
+            Booking booking = bookingsCache.get(bookingId);
+            if (booking != null && hostelId.equals(booking.getHostelId())) {
+                result.add(booking);
+            }
+        }
+        archivedBookings(BookingArchive.BY_HOSTEL, hostelId).forEachRemaining(result::add);
+        return result;
+    }
+
+    /**
+     * Потоковий обхід бронювань хостелів (разом з архівними) без побудови списку.
+     * Використовується для експорту великих обсягів.
+     */
+    public static Iterator<Booking> openBookingCursor(Collection<String> hostelIds) {
+        return new BookingCursor(new ArrayList<>(hostelIds).iterator(), bookingsByHostel::get,
+                bookingsCache::get, hostelId -> archivedBookings(BookingArchive.BY_HOSTEL, hostelId));
+    }
+
+    // Бронювання всіх хостелів менеджера
+    public static Iterator<Booking> openManagerBookingCursor(String managerId) {
+        return openBookingCursor(hostelsByManager.get(managerId));
+    }
+
+    public static String getDataDirectory() {
+        return DATA_DIR;
+    }
+
+    // Усі файли даних сервера (для резервної копії): знімки в усіх форматах,
+    // архів, обидва сегменти журналу змін, лог і позначки міграцій
+    public static List<Path> getDataFiles() {
+        List<Path> files = new ArrayList<>();
+        for (SnapshotFile<?> file : SnapshotFile.layout()) {
+            for (StorageCodec codec : allCodecs) {
+                files.add(Paths.get(DATA_DIR + file.baseName + codec.getExtension()));
+            }
+        }
+        files.add(Paths.get(ARCHIVE_RECORDS_FILE));
+        files.add(Paths.get(ARCHIVE_STRINGS_FILE));
+        files.addAll(mutationLog.getFiles());
+        files.add(Paths.get(SERVER_LOG_FILE));
+        files.add(Paths.get(LEGACY_ROOMS_MARKER));
+        return files;
+    }
+
+    public static void addBookingListener(BookingListener listener) {
+        bookingListeners.add(listener);
+    }
+
+    // Усі активні бронювання (активні ніколи не потрапляють в архів)
+    public static List<Booking> getActiveBookings() {
         List<Booking> result = new ArrayList<>();
         for (Booking booking : bookingsCache.values()) {
-            if (booking.getHostelId().equals(hostelId)) {
+            if (booking.getStatus() == Booking.BookingStatus.ACTIVE) {
                 result.add(booking);
             }
         }
@@ -304,8 +1334,9 @@ public class FileServer {
 
     public static List<Booking> getActiveHostelBookings(String hostelId) {
         List<Booking> result = new ArrayList<>();
-        for (Booking booking : bookingsCache.values()) {
-            if (booking.getHostelId().equals(hostelId) &&
+        for (String bookingId : activeBookingsByHostel.get(hostelId)) {
+            Booking booking = bookingsCache.get(bookingId);
+            if (booking != null && hostelId.equals(booking.getHostelId()) &&
                     booking.getStatus() == Booking.BookingStatus.ACTIVE) {
                 result.add(booking);
             }
@@ -313,56 +1344,222 @@ public class FileServer {
         return result;
     }
 
+    // Лічильники хостела без перебору бронювань
+    public static HostelStats getHostelStats(String hostelId) {
+        return hostelStats.get(hostelId);
+    }
+
+    // Сума лічильників усіх хостелів менеджера
+    public static HostelStats getManagerStats(String managerId) {
+        HostelStats result = HostelStats.empty();
+        for (String hostelId : hostelsByManager.get(managerId)) {
+            result = result.plus(hostelStats.get(hostelId));
+        }
+        return result;
+    }
+
+    /**
+     * Облікові показники хостела за період [from, to) із зведень година/день/місяць,
+     * без перебору бронювань.
+     */
+    public static RevenueReport getRevenueReport(String hostelId, LocalDateTime from, LocalDateTime to) {
+        return revenueRollup.query(hostelId, from, to);
+    }
+
     public static Booking getBookingById(String bookingId) {
-        return bookingsCache.get(bookingId);
+        return findBooking(bookingId);
     }
 
     public static boolean updateBookingStatus(String bookingId, Booking.BookingStatus status) {
-        Booking booking = bookingsCache.get(bookingId);
-        if (booking != null) {
-            booking.setStatus(status);
-
-            // Якщо бронювання скасовано або завершено - звільняємо кімнату
-            if (status == Booking.BookingStatus.CANCELLED ||
-                    status == Booking.BookingStatus.COMPLETED) {
-                Room room = roomsCache.get(booking.getRoomId());
-                if (room != null) {
-                    room.setAvailable(true);
-                    saveRoom(room);
+        // Інтервал скасованого або завершеного бронювання звільняється в indexBooking
+        if (updateBooking(bookingId, booking -> booking.setStatus(status)) == null) {
+            return false;
+        }
+        logEvent("Оновлено статус бронювання " + bookingId + " на " + status);
+        return true;
+    }
+
+    /**
+     * Зміна бронювання: нова версія будується на копії, пишеться в журнал і лише
+     * потім публікується в кеш чи архів, індекси і слухачам. Усе під блокуванням
+     * кімнати, тож зміни одного бронювання потрапляють у журнал у тому ж порядку,
+     * що й у кеш. null - бронювання не знайдено або запис у журнал не вдався.
+     */
+    private static Booking updateBooking(String bookingId, Consumer<Booking> change) {
+        while (true) {
+            Booking found = findBooking(bookingId);
+            if (found == null) {
+                return null;
+            }
+            ReentrantLock lock = roomLock(found.getRoomId());
+            lock.lock();
+            snapshotLock.readLock().lock();
+            try {
+                Booking current = findBooking(bookingId);
+                if (current == null) {
+                    return null;
                 }
+                if (!Objects.equals(current.getRoomId(), found.getRoomId())) {
+                    continue; // бронювання перенесли в іншу кімнату - беремо її блокування
+                }
+                Booking updated = copyOf(current, Booking.class);
+                change.accept(updated);
+                if (!appendToLog("PUT", "BOOKING", bookingId, updated)) {
+                    return null;
+                }
+                publishBooking(updated, true);
+                return updated;
+            } finally {
+                snapshotLock.readLock().unlock();
+                lock.unlock();
             }
+        }
+    }
 
-            saveToFile(DATA_DIR + "bookings.json", bookingsCache);
-            logEvent("Оновлено статус бронювання " + bookingId + " на " + status);
+    /**
+     * Пакет змін одним кроком: кеші й індекси оновлюються як при окремих викликах,
+     * але в журнал іде один запис BATCH (одне очікування на диск замість запису
+     * на кожне бронювання), а слухачі отримують один список змінених бронювань.
+     * Записи журналу будуються з копій, а кеші змінюються лише після успішного
+     * запису - невдалий пакет нічого не змінює. Об'єкти, яких уже немає, пропускаються.
+     */
+    public static boolean applyBatch(ChangeBatch batch) {
+        if (batch.isEmpty()) {
             return true;
         }
-        return false;
+        // Смуги кімнат визначаються до блокування; бронювання, яке тим часом
+        // перенесли в кімнату поза ними, пропускається
+        Set<String> roomIds = new HashSet<>();
+        for (Room room : batch.getRooms()) {
+            roomIds.add(room.getId());
+        }
+        for (String bookingId : batch.getBookingStatuses().keySet()) {
+            Booking booking = findBooking(bookingId);
+            if (booking != null) {
+                roomIds.add(booking.getRoomId());
+            }
+        }
+        JsonArray records = new JsonArray();
+        List<Hostel> changedHostels = new ArrayList<>();
+        List<Booking> changedBookings = new ArrayList<>();
+
+        List<ReentrantLock> locks = lockStripes(entityLocks, batch.getHostelActivity().keySet());
+        locks.addAll(lockStripes(roomLocks, roomIds));
+        snapshotLock.readLock().lock();
+        try {
+            for (Map.Entry<String, Boolean> change : batch.getHostelActivity().entrySet()) {
+                Hostel hostel = hostelsCache.get(change.getKey());
+                if (hostel != null) {
+                    Hostel staged = copyOf(hostel, Hostel.class);
+                    staged.setActive(change.getValue());
+                    changedHostels.add(staged);
+                    records.add(logRecord("PUT", "HOSTEL", staged.getId(), staged));
+                }
+            }
+            for (Room room : batch.getRooms()) {
+                records.add(logRecord("PUT", "ROOM", room.getId(), room));
+            }
+            for (Map.Entry<String, Booking.BookingStatus> change : batch.getBookingStatuses().entrySet()) {
+                Booking booking = findBooking(change.getKey());
+                if (booking != null && roomIds.contains(booking.getRoomId())) {
+                    Booking staged = copyOf(booking, Booking.class);
+                    staged.setStatus(change.getValue());
+                    changedBookings.add(staged);
+                    records.add(logRecord("PUT", "BOOKING", staged.getId(), staged));
+                }
+            }
+
+            if (!submitToLog(batchRecord(records))) {
+                return false;
+            }
+
+            for (Hostel hostel : changedHostels) {
+                hostelsCache.compute(hostel.getId(), (id, old) -> {
+                    indexHostel(hostel);
+                    return hostel;
+                });
+            }
+            for (Room room : batch.getRooms()) {
+                roomsCache.compute(room.getId(), (id, old) -> {
+                    indexRoom(room);
+                    return room;
+                });
+            }
+            for (Booking booking : changedBookings) {
+                publishBooking(booking, false);
+            }
+        } finally {
+            snapshotLock.readLock().unlock();
+            unlockAll(locks);
+        }
+
+        if (!changedBookings.isEmpty()) {
+            for (BookingListener listener : bookingListeners) {
+                listener.bookingsChanged(changedBookings);
+            }
+        }
+        totalOperations += records.size();
+        logEvent("Пакет змін: " + records.size() + " записів, бронювань: " + changedBookings.size());
+        return true;
+    }
+
+    // Незалежна копія кешованого об'єкта (через той самий формат, що й журнал)
+    private static <T> T copyOf(T entity, Class<T> type) {
+        return logGson.fromJson(logGson.toJsonTree(entity), type);
     }
 
     public static boolean updateBookingPaymentStatus(String bookingId, Booking.PaymentStatus status) {
-        Booking booking = bookingsCache.get(bookingId);
-        if (booking != null) {
-            booking.setPaymentStatus(status);
-            saveToFile(DATA_DIR + "bookings.json", bookingsCache);
-            logEvent("Оновлено статус оплати бронювання " + bookingId + " на " + status);
-            return true;
+        if (updateBooking(bookingId, booking -> booking.setPaymentStatus(status)) == null) {
+            return false;
         }
-        return false;
+        logEvent("Оновлено статус оплати бронювання " + bookingId + " на " + status);
+        return true;
     }
 
     // Відгуки
     public static boolean saveReview(Review review) {
-        reviewsCache.put(review.getId(), review);
-        saveToFile(DATA_DIR + "reviews.json", reviewsCache);
-        totalOperations++;
+        ReentrantLock reviewLock = stripe(entityLocks, review.getId());
+        reviewLock.lock();
+        try {
+            // Відгук і оцінка в бронюванні - один запис журналу; бронювання змінюється
+            // під блокуванням своєї кімнати, як і в updateBooking
+            Booking found = findBooking(review.getBookingId());
+            ReentrantLock roomLock = roomLock(found == null ? null : found.getRoomId());
+            roomLock.lock();
+            snapshotLock.readLock().lock();
+            try {
+                if (hostelTombstones.contains(review.getHostelId())) {
+                    return false;
+                }
+                JsonArray records = new JsonArray();
+                records.add(logRecord("PUT", "REVIEW", review.getId(), review));
+                Booking booking = findBooking(review.getBookingId());
+                Booking rated = null;
+                if (booking != null && found != null && Objects.equals(booking.getRoomId(), found.getRoomId())) {
+                    rated = copyOf(booking, Booking.class);
+                    rated.setRating(review.getRating());
+                    rated.setReview(review.getComment());
+                    records.add(logRecord("PUT", "BOOKING", rated.getId(), rated));
+                }
+                if (!submitToLog(batchRecord(records))) {
+                    return false;
+                }
 
-        // Оновлення рейтингу в бронюванні
-        Booking booking = bookingsCache.get(review.getBookingId());
-        if (booking != null) {
-            booking.setRating(review.getRating());
-            booking.setReview(review.getComment());
-            saveToFile(DATA_DIR + "bookings.json", bookingsCache);
+                reviewsCache.compute(review.getId(), (id, old) -> {
+                    indexReview(review);
+                    return review;
+                });
+                if (rated != null) {
+                    publishBooking(rated, true);
+                }
+            } finally {
+                snapshotLock.readLock().unlock();
+                roomLock.unlock();
+            }
+        } finally {
+            reviewLock.unlock();
         }
+        totalOperations++;
 
         logEvent("Збережено відгук: " + review.getId());
         return true;
@@ -370,8 +1567,9 @@ public class FileServer {
 
     public static List<Review> getReviewsForHostel(String hostelId) {
         List<Review> result = new ArrayList<>();
-        for (Review review : reviewsCache.values()) {
-            if (review.getHostelId().equals(hostelId)) {
+        for (String reviewId : reviewsByHostel.get(hostelId)) {
+            Review review = reviewsCache.get(reviewId);
+            if (review != null && hostelId.equals(review.getHostelId())) {
                 result.add(review);
             }
         }
@@ -379,17 +1577,13 @@ public class FileServer {
         return result;
     }
 
-    public static double getAverageRatingForHostel(String hostelId) {
-        List<Review> reviews = getReviewsForHostel(hostelId);
-        if (reviews.isEmpty()) {
-            return 0.0;
-        }
+    // Рейтинг хостела з розподілом за зірками, без перебору відгуків
+    public static RatingStats getRatingStats(String hostelId) {
+        return hostelRatings.get(hostelId);
+    }
 
-        double sum = 0;
-        for (Review review : reviews) {
-            sum += review.getRating();
-        }
-        return sum / reviews.size();
+    public static double getAverageRatingForHostel(String hostelId) {
+        return hostelRatings.get(hostelId).getAverage();
     }
 
     // Статистика
@@ -398,9 +1592,23 @@ public class FileServer {
         stats.put("totalUsers", usersCache.size());
         stats.put("totalHostels", hostelsCache.size());
         stats.put("totalRooms", roomsCache.size());
-        stats.put("totalBookings", bookingsCache.size());
+        stats.put("totalBookings", bookingsCache.size() +
+                (bookingArchive == null ? 0 : bookingArchive.size()));
+        if (bookingArchive != null) {
+            stats.put("archivedBookings", bookingArchive.size());
+            stats.put("archiveBytes", bookingArchive.getFileBytes());
+            stats.put("archiveCompactions", bookingArchive.getCompactions());
+        }
         stats.put("totalReviews", reviewsCache.size());
         stats.put("totalOperations", totalOperations);
+        stats.put("storageFormat", storageCodec.getName());
+        stats.put("walSizeBytes", mutationLog.size());
+        stats.put("walFsyncPolicy", mutationLog.getFsyncPolicy());
+        stats.put("walActiveRecords", mutationLog.getActiveRecords());
+        logWriter.getStats().forEach((key, value) -> stats.put("walCommit." + key, value));
+        compactor.getStats().forEach((key, value) -> stats.put("compactor." + key, value));
+        tombstoneCollector.getStats().forEach((key, value) -> stats.put("tombstones." + key, value));
+        loadStats.forEach((file, ms) -> stats.put("loadMs." + file, ms));
         stats.put("lastSyncTime", lastSyncTime);
         stats.put("currentTime", LocalDateTime.now());
         return stats;
@@ -414,4 +1622,19 @@ public class FileServer {
         }
         System.out.println("=========================\n");
     }
+
+    // Завершення роботи: фінальний знімок і закриття журналу
+    public static void shutdown() {
+        tombstoneCollector.shutdown();
+        compactor.shutdown();
+        logWriter.shutdown();
+        if (mutationLog.getActiveRecords() > 0) {
+            compactor.compactNow();
+        }
+        mutationLog.close();
+        if (bookingArchive != null) {
+            bookingArchive.close();
+        }
+        System.out.println("[SERVER] Дані збережено, журнал змін закрито");
+    }
 }
@@ -0,0 +1,206 @@
+package com.hostel.server;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Груповий коміт журналу змін: записи від усіх потоків стають в обмежену чергу,
+ * один потік-письменник забирає їх пакетами і пише кожен пакет одним записом
+ * і одним fsync, після чого завершує ф'ючерси викликачів.
+ */
+public class GroupCommitWriter {
+
+    // Гістограма зі степенями двійки як межами кошиків
+    static class Histogram {
+        private final long[] bounds;
+        private final AtomicLongArray counts;
+
+        Histogram(long maxBound) {
+            List<Long> list = new ArrayList<>();
+            for (long bound = 1; bound < maxBound; bound *= 2) {
+                list.add(bound);
+            }
+            list.add(maxBound);
+            bounds = list.stream().mapToLong(Long::longValue).toArray();
+            counts = new AtomicLongArray(bounds.length + 1);
+        }
+
+        void record(long value) {
+            int bucket = 0;
+            while (bucket < bounds.length && value > bounds[bucket]) {
+                bucket++;
+            }
+            counts.incrementAndGet(bucket);
+        }
+
+        // "<=N" -> кількість, останній кошик ">N"
+        Map<String, Long> snapshot() {
+            Map<String, Long> result = new LinkedHashMap<>();
+            for (int i = 0; i < bounds.length; i++) {
+                if (counts.get(i) > 0) {
+                    result.put("<=" + bounds[i], counts.get(i));
+                }
+            }
+            if (counts.get(bounds.length) > 0) {
+                result.put(">" + bounds[bounds.length - 1], counts.get(bounds.length));
+            }
+            return result;
+        }
+    }
+
+    // Запис, що очікує на коміт
+    private static class PendingRecord {
+        final String record;
+        final long enqueuedNanos = System.nanoTime();
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        PendingRecord(String record) {
+            this.record = record;
+        }
+    }
+
+    private final MutationLog mutationLog;
+    private final BlockingQueue<PendingRecord> queue;
+    private final int maxBatch;
+    private final long maxWaitNanos;
+    private final Thread writerThread;
+    private volatile boolean running = true;
+
+    // Метрики
+    private final Histogram batchSizes;
+    private final Histogram commitLatencyMicros = new Histogram(1_000_000);
+    private long batches = 0;
+    private long records = 0;
+    private long failedBatches = 0;
+
+    /**
+     * maxWaitMicros - скільки письменник чекає на добір пакета після першого запису
+     * (0 - пакет складається з того, що встигло накопичитись за попередній fsync).
+     */
+    public GroupCommitWriter(MutationLog mutationLog, int queueCapacity, int maxBatch, long maxWaitMicros) {
+        this.mutationLog = mutationLog;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatch = maxBatch;
+        this.maxWaitNanos = TimeUnit.MICROSECONDS.toNanos(maxWaitMicros);
+        this.batchSizes = new Histogram(maxBatch);
+        this.writerThread = new Thread(this::runWriter, "wal-group-commit");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    // Постановка запису в чергу; блокується, якщо черга заповнена
+    public CompletableFuture<Void> submit(String record) {
+        PendingRecord pending = new PendingRecord(record);
+        if (!running) {
+            pending.future.completeExceptionally(new IllegalStateException("Журнал змін закрито"));
+            return pending.future;
+        }
+        try {
+            queue.put(pending);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pending.future.completeExceptionally(e);
+        }
+        return pending.future;
+    }
+
+    private void runWriter() {
+        List<PendingRecord> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingRecord first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatch - batch.size());
+
+                // Вікно очікування для добору пакета
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (batch.size() < maxBatch && maxWaitNanos > 0) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    PendingRecord next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, maxBatch - batch.size());
+                }
+
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<PendingRecord> batch) {
+        List<String> lines = new ArrayList<>(batch.size());
+        for (PendingRecord pending : batch) {
+            lines.add(pending.record);
+        }
+
+        IOException error = null;
+        try {
+            mutationLog.appendBatch(lines);
+        } catch (IOException e) {
+            error = e;
+        }
+
+        long now = System.nanoTime();
+        synchronized (this) {
+            batches++;
+            records += batch.size();
+            if (error != null) {
+                failedBatches++;
+            }
+        }
+        batchSizes.record(batch.size());
+
+        for (PendingRecord pending : batch) {
+            commitLatencyMicros.record((now - pending.enqueuedNanos) / 1000);
+            if (error == null) {
+                pending.future.complete(null);
+            } else {
+                pending.future.completeExceptionally(error);
+            }
+        }
+    }
+
+    // Зупинка після запису всього, що вже в черзі
+    public void shutdown() {
+        running = false;
+        try {
+            writerThread.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Записи, що потрапили в чергу після зупинки письменника
+        PendingRecord pending;
+        while ((pending = queue.poll()) != null) {
+            pending.future.completeExceptionally(new IllegalStateException("Журнал змін закрито"));
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        synchronized (this) {
+            stats.put("batches", batches);
+            stats.put("records", records);
+            stats.put("failedBatches", failedBatches);
+            stats.put("avgBatchSize", batches == 0 ? 0.0 : (double) records / batches);
+        }
+        stats.put("queueDepth", queue.size());
+        stats.put("batchSize", batchSizes.snapshot());
+        stats.put("commitLatencyMicros", commitLatencyMicros.snapshot());
+        return stats;
+    }
+}
@@ -0,0 +1,57 @@
+package com.hostel.server;
+
+import com.hostel.model.Room;
+import java.time.LocalDateTime;
+
+/**
+ * Умови пошуку хостелів з вільними кімнатами. Місто і запит - як у звичайному
+ * пошуку, період обов'язковий, решта фільтрів кімнат необов'язкові.
+ */
+public class HostelSearchCriteria {
+    private final String city;
+    private final String query;
+    private final LocalDateTime checkIn;
+    private final LocalDateTime checkOut;
+    private Room.RoomType roomType;
+    private int minCapacity;
+    private double maxPricePerHour;
+
+    public HostelSearchCriteria(String city, String query, LocalDateTime checkIn, LocalDateTime checkOut) {
+        this.city = city;
+        this.query = query;
+        this.checkIn = checkIn;
+        this.checkOut = checkOut;
+    }
+
+    public String getCity() { return city; }
+
+    public String getQuery() { return query; }
+
+    public LocalDateTime getCheckIn() { return checkIn; }
+
+    public LocalDateTime getCheckOut() { return checkOut; }
+
+    // null - будь-який тип
+    public Room.RoomType getRoomType() { return roomType; }
+    public void setRoomType(Room.RoomType roomType) { this.roomType = roomType; }
+
+    // 0 - без обмеження
+    public int getMinCapacity() { return minCapacity; }
+    public void setMinCapacity(int minCapacity) { this.minCapacity = minCapacity; }
+
+    // 0 - без обмеження
+    public double getMaxPricePerHour() { return maxPricePerHour; }
+    public void setMaxPricePerHour(double maxPricePerHour) { this.maxPricePerHour = maxPricePerHour; }
+
+    boolean hasValidPeriod() {
+        return checkIn != null && checkOut != null && checkOut.isAfter(checkIn);
+    }
+
+    // Фільтри за атрибутами кімнати (без перевірки зайнятості)
+    boolean matches(Room room) {
+        return room.isAvailable() &&
+                (roomType == null || room.getType() == roomType) &&
+                room.getCapacity() >= minCapacity &&
+                (maxPricePerHour <= 0 || room.getPricePerHour() <= maxPricePerHour);
+    }
+}
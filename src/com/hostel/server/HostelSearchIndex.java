@@ -0,0 +1,183 @@
+package com.hostel.server;
+
+import com.hostel.model.Hostel;
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Пошуковий індекс хостелів: місто -> хостели та інвертований індекс триграм
+ * назви й адреси. Текст нормалізується однаково для документів і запитів:
+ * регістр, діакритика (й/ї/ё), ґ -> г, апострофи всіх видів.
+ */
+class HostelSearchIndex {
+    // Частка триграм запиту, яку має містити документ, щоб потрапити в результати
+    private static final double MIN_SCORE = 0.6;
+    // Бонус за точний збіг запиту як підрядка назви чи адреси
+    private static final double SUBSTRING_BONUS = 1.0;
+
+    private static class Document {
+        final String city;
+        final String text;
+        final Set<String> grams;
+
+        Document(Hostel hostel) {
+            this.city = normalize(hostel.getCity());
+            this.text = normalize(hostel.getName()) + " " + normalize(hostel.getAddress());
+            this.grams = trigrams(text);
+        }
+    }
+
+    private final Map<String, Document> documents = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> idsByCity = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> idsByGram = new ConcurrentHashMap<>();
+
+    void update(Hostel hostel) {
+        Document next = new Document(hostel);
+        documents.compute(hostel.getId(), (id, previous) -> {
+            if (previous != null) {
+                detach(id, previous);
+            }
+            attach(id, next);
+            return next;
+        });
+    }
+
+    void remove(String hostelId) {
+        documents.computeIfPresent(hostelId, (id, previous) -> {
+            detach(id, previous);
+            return null;
+        });
+    }
+
+    void clear() {
+        documents.clear();
+        idsByCity.clear();
+        idsByGram.clear();
+    }
+
+    /**
+     * Хостели міста (порожнє місто - усі), що відповідають запиту, з оцінкою релевантності.
+     * Порожній запит повертає всі хостели міста з оцінкою 0.
+     */
+    Map<String, Double> search(String city, String query) {
+        String normalizedCity = normalize(city);
+        Set<String> inCity = normalizedCity.isEmpty() ? documents.keySet() :
+                idsByCity.getOrDefault(normalizedCity, Collections.emptySet());
+        String normalizedQuery = normalize(query);
+
+        Map<String, Double> scores = new HashMap<>();
+        if (normalizedQuery.isEmpty()) {
+            for (String id : inCity) {
+                scores.put(id, 0.0);
+            }
+            return scores;
+        }
+
+        // Надто короткий запит не дає триграм - перевіряємо підрядок у хостелах міста
+        if (normalizedQuery.length() < 3) {
+            for (String id : inCity) {
+                Document document = documents.get(id);
+                if (document != null && document.text.contains(normalizedQuery)) {
+                    scores.put(id, SUBSTRING_BONUS);
+                }
+            }
+            return scores;
+        }
+
+        Set<String> queryGrams = trigrams(normalizedQuery);
+        Map<String, Integer> hits = new HashMap<>();
+        for (String gram : queryGrams) {
+            for (String id : idsByGram.getOrDefault(gram, Collections.emptySet())) {
+                if (inCity.contains(id)) {
+                    hits.merge(id, 1, Integer::sum);
+                }
+            }
+        }
+
+        // Підрядок усередині слова не має крайових триграм запиту ("ste" у "hostel"),
+        // тому точний збіг перевіряємо до порогу і приймаємо завжди
+        for (Map.Entry<String, Integer> entry : hits.entrySet()) {
+            double score = (double) entry.getValue() / queryGrams.size();
+            Document document = documents.get(entry.getKey());
+            if (document != null && document.text.contains(normalizedQuery)) {
+                score += SUBSTRING_BONUS;
+            } else if (score < MIN_SCORE) {
+                continue;
+            }
+            scores.put(entry.getKey(), score);
+        }
+        return scores;
+    }
+
+    private void attach(String id, Document document) {
+        idsByCity.computeIfAbsent(document.city, k -> ConcurrentHashMap.newKeySet()).add(id);
+        for (String gram : document.grams) {
+            idsByGram.computeIfAbsent(gram, k -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+    }
+
+    private void detach(String id, Document document) {
+        detach(idsByCity, document.city, id);
+        for (String gram : document.grams) {
+            detach(idsByGram, gram, id);
+        }
+    }
+
+    private static void detach(Map<String, Set<String>> postings, String key, String id) {
+        postings.computeIfPresent(key, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    /**
+     * Нормалізація для пошуку: нижній регістр, без діакритики й апострофів,
+     * ґ -> г, усе, крім літер і цифр, стає одним пробілом.
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        StringBuilder result = new StringBuilder(decomposed.length());
+        boolean space = true;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (c == '\'' || c == '’' || c == 'ʼ' || c == '`') {
+                continue;
+            }
+            if (c == 'ґ') {
+                c = 'г';
+            }
+            if (Character.isLetterOrDigit(c)) {
+                result.append(c);
+                space = false;
+            } else if (!space) {
+                result.append(' ');
+                space = true;
+            }
+        }
+        int length = result.length();
+        return length > 0 && result.charAt(length - 1) == ' ' ?
+                result.substring(0, length - 1) : result.toString();
+    }
+
+    // Триграми кожного слова з пробілом на краях, щоб початки й кінці слів важили більше
+    private static Set<String> trigrams(String normalized) {
+        Set<String> grams = new HashSet<>();
+        for (String token : normalized.split(" ")) {
+            if (token.isEmpty()) {
+                continue;
+            }
+            String padded = " " + token + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                grams.add(padded.substring(i, i + 3));
+            }
+        }
+        return grams;
+    }
+}
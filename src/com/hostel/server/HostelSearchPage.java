@@ -0,0 +1,52 @@
+package com.hostel.server;
+
+import java.util.List;
+
+/**
+ * Сторінка результатів пошуку хостелів (самі хостели або хостели з вільними
+ * кімнатами). Сторінки нумеруються з 1.
+ */
+public class HostelSearchPage<T> {
+    private final List<T> results;
+    private final int page;
+    private final int pageSize;
+    private final int totalCount;
+
+    HostelSearchPage(List<T> results, int page, int pageSize, int totalCount) {
+        this.results = results;
+        this.page = page;
+        this.pageSize = pageSize;
+        this.totalCount = totalCount;
+    }
+
+    // ranked - відсортовані результати щонайменше до кінця сторінки page
+    static <T> HostelSearchPage<T> of(List<T> ranked, int page, int pageSize, int totalCount) {
+        int from = (int) Math.min(ranked.size(), (long) (page - 1) * pageSize);
+        int to = (int) Math.min(ranked.size(), (long) from + pageSize);
+        return new HostelSearchPage<>(List.copyOf(ranked.subList(from, to)), page, pageSize, totalCount);
+    }
+
+    public List<T> getResults() {
+        return results;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public int getTotalCount() {
+        return totalCount;
+    }
+
+    public int getTotalPages() {
+        return (int) (((long) totalCount + pageSize - 1) / pageSize);
+    }
+
+    public boolean hasNextPage() {
+        return page < getTotalPages();
+    }
+}
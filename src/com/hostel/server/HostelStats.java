@@ -0,0 +1,66 @@
+package com.hostel.server;
+
+import com.hostel.model.Booking;
+
+/**
+ * Знімок лічильників бронювань хостела (або всіх хостелів менеджера).
+ * Суми зберігаються в копійках, щоб додавання і віднімання не накопичували похибку.
+ */
+public class HostelStats {
+    private final long[] countByStatus;
+    private final long paidRevenueCents;
+    private final long pendingRevenueCents;
+
+    HostelStats(long[] countByStatus, long paidRevenueCents, long pendingRevenueCents) {
+        this.countByStatus = countByStatus;
+        this.paidRevenueCents = paidRevenueCents;
+        this.pendingRevenueCents = pendingRevenueCents;
+    }
+
+    static HostelStats empty() {
+        return new HostelStats(new long[Booking.BookingStatus.values().length], 0, 0);
+    }
+
+    HostelStats plus(HostelStats other) {
+        long[] counts = countByStatus.clone();
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.countByStatus[i];
+        }
+        return new HostelStats(counts, paidRevenueCents + other.paidRevenueCents,
+                pendingRevenueCents + other.pendingRevenueCents);
+    }
+
+    public long getCount(Booking.BookingStatus status) {
+        return countByStatus[status.ordinal()];
+    }
+
+    public long getTotalBookings() {
+        long total = 0;
+        for (long count : countByStatus) {
+            total += count;
+        }
+        return total;
+    }
+
+    public long getActiveBookings() {
+        return getCount(Booking.BookingStatus.ACTIVE);
+    }
+
+    public long getCompletedBookings() {
+        return getCount(Booking.BookingStatus.COMPLETED);
+    }
+
+    public long getCancelledBookings() {
+        return getCount(Booking.BookingStatus.CANCELLED);
+    }
+
+    // Дохід від завершених і оплачених бронювань
+    public double getPaidRevenue() {
+        return paidRevenueCents / 100.0;
+    }
+
+    // Очікуваний дохід від активних неоплачених бронювань
+    public double getPendingRevenue() {
+        return pendingRevenueCents / 100.0;
+    }
+}
@@ -0,0 +1,104 @@
+package com.hostel.server;
+
+import com.hostel.model.Booking;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Поточні лічильники бронювань і доходу по хостелах. Для кожного бронювання
+ * запам'ятовується його попередній внесок, тому перехід статусу чи оплати
+ * коректно переносить суми, навіть якщо об'єкт змінили на місці до збереження.
+ * Архівні бронювання входять лише в лічильники хостелів, без запису на кожне:
+ * їхній внесок додається і знімається за самим архівним записом.
+ */
+class HostelStatsAggregator {
+
+    // Внесок одного бронювання в лічильники хостела
+    private static class Contribution {
+        final String hostelId;
+        final Booking.BookingStatus status;
+        final long paidCents;
+        final long pendingCents;
+
+        Contribution(Booking booking) {
+            long cents = Math.round(booking.getTotalPrice() * 100);
+            this.hostelId = booking.getHostelId();
+            this.status = booking.getStatus();
+            this.paidCents = status == Booking.BookingStatus.COMPLETED &&
+                    booking.getPaymentStatus() == Booking.PaymentStatus.PAID ? cents : 0;
+            this.pendingCents = status == Booking.BookingStatus.ACTIVE &&
+                    booking.getPaymentStatus() == Booking.PaymentStatus.UNPAID ? cents : 0;
+        }
+    }
+
+    private static class Counters {
+        private final long[] countByStatus = new long[Booking.BookingStatus.values().length];
+        private long paidCents;
+        private long pendingCents;
+
+        synchronized void apply(Contribution contribution, int sign) {
+            if (contribution.status != null) {
+                countByStatus[contribution.status.ordinal()] += sign;
+            }
+            paidCents += sign * contribution.paidCents;
+            pendingCents += sign * contribution.pendingCents;
+        }
+
+        synchronized HostelStats snapshot() {
+            return new HostelStats(countByStatus.clone(), paidCents, pendingCents);
+        }
+    }
+
+    private final Map<String, Contribution> contributionById = new ConcurrentHashMap<>();
+    private final Map<String, Counters> countersByHostel = new ConcurrentHashMap<>();
+
+    void update(Booking booking) {
+        if (booking.getHostelId() == null) {
+            remove(booking.getId());
+            return;
+        }
+        Contribution next = new Contribution(booking);
+        contributionById.compute(booking.getId(), (id, previous) -> {
+            if (previous != null) {
+                counters(previous.hostelId).apply(previous, -1);
+            }
+            counters(next.hostelId).apply(next, 1);
+            return next;
+        });
+    }
+
+    void remove(String bookingId) {
+        contributionById.computeIfPresent(bookingId, (id, previous) -> {
+            counters(previous.hostelId).apply(previous, -1);
+            return null;
+        });
+    }
+
+    // Внесок архівного бронювання - без запису на бронювання
+    void add(Booking booking) {
+        if (booking.getHostelId() != null) {
+            counters(booking.getHostelId()).apply(new Contribution(booking), 1);
+        }
+    }
+
+    // Зняття внеску, доданого add() (за тією самою версією бронювання)
+    void subtract(Booking booking) {
+        if (booking.getHostelId() != null) {
+            counters(booking.getHostelId()).apply(new Contribution(booking), -1);
+        }
+    }
+
+    // Бронювання перенесено в архів: внесок лишається в лічильниках, запис забувається
+    void release(String bookingId) {
+        contributionById.remove(bookingId);
+    }
+
+    HostelStats get(String hostelId) {
+        Counters counters = countersByHostel.get(hostelId);
+        return counters == null ? HostelStats.empty() : counters.snapshot();
+    }
+
+    private Counters counters(String hostelId) {
+        return countersByHostel.computeIfAbsent(hostelId, k -> new Counters());
+    }
+}
@@ -0,0 +1,161 @@
+package com.hostel.server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Генератор ідентифікаторів у стилі Snowflake: 64-бітне число з мілісекунд від
+ * EPOCH (41 біт), номера вузла (10 біт) і лічильника в межах мілісекунди (12 біт).
+ * Ідентифікатори одного вузла строго зростають, тому сортування за ними -
+ * це сортування за часом створення.
+ *
+ * Межа виданого часу зберігається в id_generator.state директорії даних із запасом
+ * LEASE_MS, тож після перезапуску (навіть з годинником, що відстав) нові
+ * ідентифікатори не перетнуться зі старими. Файл переписується раз на LEASE_MS
+ * і скидається на диск разом з директорією; ідентифікатор за межею видається
+ * лише після того, як нову межу збережено.
+ */
+public final class IdGenerator {
+    private static final long EPOCH = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE = (1L << NODE_BITS) - 1;
+    private static final long LEASE_MS = 1000;
+    // Фіксована довжина в base36, щоб рядкові ідентифікатори сортувались як числа
+    private static final int ENCODED_LENGTH = Long.toString(Long.MAX_VALUE, Character.MAX_RADIX).length();
+
+    private static final Path STATE_FILE = Paths.get(FileServer.getDataDirectory(), "id_generator.state");
+
+    // Номер вузла: -Dhostel.nodeId=0..1023 (різний для кожного екземпляра з тими самими даними)
+    private static final long NODE_ID = Long.getLong("hostel.nodeId", 1);
+
+    // Останній виданий (час << SEQUENCE_BITS | лічильник); переповнення лічильника переходить у час
+    private static final AtomicLong state = new AtomicLong();
+    private static volatile long leaseUntil;
+
+    static {
+        if (NODE_ID < 0 || NODE_ID > MAX_NODE) {
+            throw new IllegalArgumentException("Невірний номер вузла hostel.nodeId: " + NODE_ID);
+        }
+        long restored = readLease();
+        state.set(Math.max(restored, currentTime()) << SEQUENCE_BITS);
+        leaseUntil = restored;
+    }
+
+    private IdGenerator() {
+    }
+
+    // IllegalStateException - межу не вдалося зберегти, ідентифікатор не видано
+    public static long nextLong() {
+        long now = currentTime();
+        long next;
+        while (true) {
+            long last = state.get();
+            next = now > (last >>> SEQUENCE_BITS) ? now << SEQUENCE_BITS : last + 1;
+            // Межа подовжується до видачі: жоден ідентифікатор не виходить за збережену
+            if ((next >>> SEQUENCE_BITS) >= leaseUntil) {
+                extendLease(next >>> SEQUENCE_BITS);
+                continue;
+            }
+            if (state.compareAndSet(last, next)) {
+                break;
+            }
+        }
+        long time = next >>> SEQUENCE_BITS;
+        return time << (NODE_BITS + SEQUENCE_BITS) | NODE_ID << SEQUENCE_BITS | (next & ((1L << SEQUENCE_BITS) - 1));
+    }
+
+    // Наприклад nextId("BOOK") -> "BOOK_00b2kx9q3fz0g"
+    public static String nextId(String prefix) {
+        return prefix + "_" + encode(nextLong());
+    }
+
+    public static String encode(long id) {
+        String digits = Long.toString(id, Character.MAX_RADIX);
+        return "0".repeat(ENCODED_LENGTH - digits.length()) + digits;
+    }
+
+    // Числова частина рядкового ідентифікатора; -1 - ідентифікатор старого формату
+    public static long decode(String id) {
+        int separator = id.lastIndexOf('_');
+        String digits = id.substring(separator + 1);
+        if (digits.length() != ENCODED_LENGTH) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(digits, Character.MAX_RADIX);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    public static LocalDateTime getCreatedAt(long id) {
+        long millis = (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH;
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    // Найменший ідентифікатор, створений не раніше за time (межа для вибірки за діапазоном)
+    public static long lowerBound(LocalDateTime time) {
+        long millis = time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() - EPOCH;
+        return Math.max(0, millis) << (NODE_BITS + SEQUENCE_BITS);
+    }
+
+    // Файл стану генератора (для резервної копії)
+    public static Path getStateFile() {
+        return STATE_FILE;
+    }
+
+    private static long currentTime() {
+        return System.currentTimeMillis() - EPOCH;
+    }
+
+    private static synchronized void extendLease(long time) {
+        if (time < leaseUntil) {
+            return;
+        }
+        long lease = time + LEASE_MS;
+        try {
+            Files.createDirectories(STATE_FILE.getParent());
+            Path temp = Paths.get(STATE_FILE + ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                channel.write(ByteBuffer.wrap(Long.toString(lease).getBytes(StandardCharsets.UTF_8)));
+                channel.force(true);
+            }
+            Files.move(temp, STATE_FILE, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            forceDirectory(STATE_FILE.getParent());
+        } catch (IOException e) {
+            System.err.println("[SERVER ERROR] Помилка збереження стану генератора ідентифікаторів: " + e.getMessage());
+            throw new IllegalStateException("Не вдалося зберегти стан генератора ідентифікаторів", e);
+        }
+        leaseUntil = lease;
+    }
+
+    // Перейменування надійне лише після скидання директорії. Windows не відкриває
+    // директорію як файл - там запис метаданих лишається на ОС
+    private static void forceDirectory(Path directory) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (AccessDeniedException e) {
+            // Windows
+        }
+    }
+
+    private static long readLease() {
+        try {
+            if (Files.exists(STATE_FILE)) {
+                return Long.parseLong(Files.readString(STATE_FILE, StandardCharsets.UTF_8).trim());
+            }
+        } catch (IOException | NumberFormatException e) {
+            System.err.println("[SERVER ERROR] Помилка читання стану генератора ідентифікаторів: " + e.getMessage());
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,58 @@
+package com.hostel.server;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonReader;
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+// Знімок у форматі JSON: {"id": {...}, ...} з відступами
+public class JsonStorageCodec implements StorageCodec {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Gson gson = new GsonBuilder()
+            .setPrettyPrinting()
+            .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
+            .create();
+
+    @Override
+    public String getName() {
+        return "json";
+    }
+
+    @Override
+    public String getExtension() {
+        return ".json";
+    }
+
+    @Override
+    public <T> void write(Path path, Map<String, T> entities, Class<T> type) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            gson.toJson(entities, writer);
+        }
+    }
+
+    // Потоковий розбір без проміжної Map
+    @Override
+    public <T> int read(Path path, Class<T> type, Map<String, ? super T> target) throws IOException {
+        int count = 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+             JsonReader reader = new JsonReader(new BufferedReader(
+                     Channels.newReader(channel, StandardCharsets.UTF_8), BUFFER_SIZE))) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String id = reader.nextName();
+                T entity = gson.fromJson(reader, type);
+                target.put(id, entity);
+                count++;
+            }
+            reader.endObject();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,233 @@
+package com.hostel.server;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Журнал змін (write-ahead log): кожна зміна даних дописується в кінець
+ * файлу одним компактним рядком, а при старті журнал програється поверх знімка.
+ */
+public class MutationLog {
+
+    // Політика скидання журналу на диск
+    public enum FsyncPolicy {
+        ALWAYS,   // fsync після кожного запису
+        INTERVAL, // fsync не частіше ніж раз на syncIntervalMs
+        NEVER     // скидання на розсуд ОС
+    }
+
+    private final Path path;
+    // Закритий сегмент, який очікує на запис знімка компактором
+    private final Path sealedPath;
+    private final FsyncPolicy fsyncPolicy;
+    private final long syncIntervalMs;
+    private FileChannel channel;
+    private long lastSyncTime;
+    private long appendedRecords;
+    private long activeRecords;
+    // Недописаний запис не вдалося відрізати - нових записів у цей файл не робимо
+    private boolean broken;
+
+    public MutationLog(Path path, FsyncPolicy fsyncPolicy, long syncIntervalMs) {
+        this.path = path;
+        this.sealedPath = Paths.get(path + ".sealed");
+        this.fsyncPolicy = fsyncPolicy;
+        this.syncIntervalMs = syncIntervalMs;
+    }
+
+    // Активний і закритий сегменти (для резервної копії)
+    public List<Path> getFiles() {
+        return List.of(path, sealedPath);
+    }
+
+    /**
+     * Програвання журналу: спочатку закритий сегмент (якщо компактор не встиг
+     * його видалити), потім активний.
+     */
+    public synchronized int replay(Consumer<String> handler) throws IOException {
+        int sealedRecords = replaySegment(sealedPath, handler);
+        activeRecords = replaySegment(path, handler);
+        return sealedRecords + (int) activeRecords;
+    }
+
+    /**
+     * Програвання одного сегмента. Обірваним вважається лише хвіст без символу
+     * кінця рядка (запис, перерваний збоєм) - його відрізаємо. Цілий рядок, який
+     * не вдалося розібрати, - це зіпсований журнал, навіть якщо рядок останній:
+     * старт зупиняється, файл не змінюється.
+     */
+    private int replaySegment(Path segment, Consumer<String> handler) throws IOException {
+        if (!Files.exists(segment)) {
+            return 0;
+        }
+
+        int records = 0;
+        long validLength = 0;
+
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(segment))) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+            long position = 0;
+            int b;
+            while ((b = in.read()) != -1) {
+                position++;
+                if (b != '\n') {
+                    line.write(b);
+                    continue;
+                }
+                String record = line.toString(StandardCharsets.UTF_8);
+                line.reset();
+                if (!record.isBlank()) {
+                    try {
+                        handler.accept(record);
+                    } catch (RuntimeException e) {
+                        System.err.println("[WAL ERROR] Пошкоджений запис журналу " + segment.getFileName() +
+                                " на позиції " + validLength + ": " + e.getMessage());
+                        throw new IllegalStateException("Журнал змін " + segment + " пошкоджено на позиції " +
+                                validLength + ". Журнал не змінено - відновіть його з резервної копії", e);
+                    }
+                    records++;
+                }
+                validLength = position;
+            }
+        }
+
+        if (validLength < Files.size(segment)) {
+            System.err.println("[WAL WARNING] Недописаний останній запис журналу " + segment.getFileName() +
+                    " відрізано, журнал обрізано до " + validLength + " байт");
+            try (FileChannel truncate = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+                truncate.truncate(validLength);
+            }
+        }
+
+        return records;
+    }
+
+    public synchronized void open() throws IOException {
+        if (channel == null) {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            lastSyncTime = System.currentTimeMillis();
+        }
+    }
+
+    public synchronized void append(String record) throws IOException {
+        appendBatch(Collections.singletonList(record));
+    }
+
+    // Пакет записів - один запис у файл і не більше одного fsync
+    public synchronized void appendBatch(List<String> records) throws IOException {
+        if (broken) {
+            throw new IOException("Журнал змін не вдалося відновити після невдалого запису - потрібен перезапуск");
+        }
+        open();
+
+        StringBuilder batch = new StringBuilder();
+        for (String record : records) {
+            batch.append(record).append('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(batch.toString().getBytes(StandardCharsets.UTF_8));
+        long start = channel.size();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            long now = System.currentTimeMillis();
+            if (fsyncPolicy == FsyncPolicy.ALWAYS ||
+                    (fsyncPolicy == FsyncPolicy.INTERVAL && now - lastSyncTime >= syncIntervalMs)) {
+                channel.force(false);
+                lastSyncTime = now;
+            }
+        } catch (IOException e) {
+            discardFrom(start);
+            throw e;
+        }
+        appendedRecords += records.size();
+        activeRecords += records.size();
+    }
+
+    // Невдалий пакет відрізається: інакше наступний запис опинився б за зламаним
+    // рядком, а відхилені зміни ожили б при програванні
+    private void discardFrom(long length) {
+        try {
+            channel.truncate(length);
+        } catch (IOException e) {
+            broken = true;
+            System.err.println("[WAL ERROR] Не вдалося відрізати недописаний запис журналу: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Закриття активного сегмента і початок нового. Якщо попередній закритий
+     * сегмент ще не видалено (знімок не вдалося записати), активний дописується до нього.
+     * Повертає розмір закритого сегмента в байтах.
+     */
+    public synchronized long rotate() throws IOException {
+        close();
+
+        if (Files.exists(path)) {
+            if (Files.exists(sealedPath)) {
+                try (OutputStream out = Files.newOutputStream(sealedPath, StandardOpenOption.APPEND)) {
+                    Files.copy(path, out);
+                }
+                Files.delete(path);
+            } else {
+                Files.move(path, sealedPath, StandardCopyOption.ATOMIC_MOVE);
+            }
+        }
+
+        activeRecords = 0;
+        open();
+        return Files.exists(sealedPath) ? Files.size(sealedPath) : 0;
+    }
+
+    public synchronized void deleteSealedSegment() throws IOException {
+        Files.deleteIfExists(sealedPath);
+    }
+
+    public synchronized boolean hasSealedSegment() {
+        return Files.exists(sealedPath);
+    }
+
+    public synchronized void close() {
+        if (channel != null) {
+            try {
+                channel.force(false);
+                channel.close();
+            } catch (IOException e) {
+                System.err.println("[WAL ERROR] Помилка закриття журналу: " + e.getMessage());
+            }
+            channel = null;
+        }
+    }
+
+    public synchronized long size() {
+        try {
+            return Files.exists(path) ? Files.size(path) : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    public synchronized long getAppendedRecords() {
+        return appendedRecords;
+    }
+
+    // Кількість записів в активному сегменті (з моменту останньої компактизації)
+    public synchronized long getActiveRecords() {
+        return activeRecords;
+    }
+
+    public FsyncPolicy getFsyncPolicy() {
+        return fsyncPolicy;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+}
@@ -0,0 +1,78 @@
+package com.hostel.server;
+
+import com.hostel.model.Review;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Поточні рейтинги хостелів. Як і в HostelStatsAggregator, для кожного відгуку
+ * запам'ятовується попередній внесок, тому повторне збереження відгуку
+ * (зміна оцінки чи хостела) не рахується двічі.
+ */
+class RatingAggregator {
+
+    // Внесок одного відгуку: хостел і оцінка (0 - оцінка поза діапазоном 1..5)
+    private static class Contribution {
+        final String hostelId;
+        final int stars;
+
+        Contribution(Review review) {
+            this.hostelId = review.getHostelId();
+            int rating = review.getRating();
+            this.stars = rating >= 1 && rating <= RatingStats.MAX_STARS ? rating : 0;
+        }
+    }
+
+    private static class Counters {
+        private final long[] countByStars = new long[RatingStats.MAX_STARS + 1];
+        private long count;
+        private long sum;
+
+        synchronized void apply(Contribution contribution, int sign) {
+            if (contribution.stars == 0) {
+                return;
+            }
+            countByStars[contribution.stars] += sign;
+            count += sign;
+            sum += sign * contribution.stars;
+        }
+
+        synchronized RatingStats snapshot() {
+            return new RatingStats(countByStars.clone(), count, sum);
+        }
+    }
+
+    private final Map<String, Contribution> contributionById = new ConcurrentHashMap<>();
+    private final Map<String, Counters> countersByHostel = new ConcurrentHashMap<>();
+
+    void update(Review review) {
+        if (review.getHostelId() == null) {
+            remove(review.getId());
+            return;
+        }
+        Contribution next = new Contribution(review);
+        contributionById.compute(review.getId(), (id, previous) -> {
+            if (previous != null) {
+                counters(previous.hostelId).apply(previous, -1);
+            }
+            counters(next.hostelId).apply(next, 1);
+            return next;
+        });
+    }
+
+    void remove(String reviewId) {
+        contributionById.computeIfPresent(reviewId, (id, previous) -> {
+            counters(previous.hostelId).apply(previous, -1);
+            return null;
+        });
+    }
+
+    RatingStats get(String hostelId) {
+        Counters counters = countersByHostel.get(hostelId);
+        return counters == null ? RatingStats.empty() : counters.snapshot();
+    }
+
+    private Counters counters(String hostelId) {
+        return countersByHostel.computeIfAbsent(hostelId, k -> new Counters());
+    }
+}
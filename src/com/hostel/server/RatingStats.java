@@ -0,0 +1,40 @@
+package com.hostel.server;
+
+/**
+ * Знімок рейтингу хостела: кількість відгуків, сума оцінок і розподіл за зірками.
+ */
+public class RatingStats {
+    public static final int MAX_STARS = 5;
+
+    private final long[] countByStars;
+    private final long count;
+    private final long sum;
+
+    RatingStats(long[] countByStars, long count, long sum) {
+        this.countByStars = countByStars;
+        this.count = count;
+        this.sum = sum;
+    }
+
+    static RatingStats empty() {
+        return new RatingStats(new long[MAX_STARS + 1], 0, 0);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    // Кількість відгуків з оцінкою stars (1..5)
+    public long getCount(int stars) {
+        return stars >= 1 && stars <= MAX_STARS ? countByStars[stars] : 0;
+    }
+
+    public double getAverage() {
+        return count == 0 ? 0.0 : (double) sum / count;
+    }
+
+    // Частка відгуків з оцінкою stars у відсотках
+    public double getPercentage(int stars) {
+        return count == 0 ? 0.0 : (double) getCount(stars) / count * 100;
+    }
+}
@@ -0,0 +1,23 @@
+package com.hostel.server;
+
+// Результат атомарного резервування кімнати
+public enum ReservationResult {
+    RESERVED,        // бронювання збережено
+    CONFLICT,        // кімната вже зайнята на цей період
+    ROOM_NOT_FOUND,  // кімнати немає або вона не належить хостелу
+    ROOM_CLOSED,     // кімнату закрито менеджером
+    INVALID_PERIOD,  // виїзд не пізніше заїзду
+    STORAGE_ERROR;   // не вдалося записати в журнал змін
+
+    public String getDescription() {
+        switch (this) {
+            case RESERVED: return "Бронювання збережено";
+            case CONFLICT: return "Кімната вже зайнята на обраний період";
+            case ROOM_NOT_FOUND: return "Кімната не знайдена";
+            case ROOM_CLOSED: return "Кімната закрита для бронювання";
+            case INVALID_PERIOD: return "Невірний період бронювання";
+            case STORAGE_ERROR: return "Помилка збереження на сервері";
+            default: return "Невідомо";
+        }
+    }
+}
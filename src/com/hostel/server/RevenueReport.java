@@ -0,0 +1,73 @@
+package com.hostel.server;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Облікові показники хостела за період [from, to): кількість завершених оплачених
+ * бронювань, дохід і розподіл за днями тижня та годинами доби.
+ * Межі періоду вирівнюються до години - найдрібнішого кошика зведень.
+ */
+public class RevenueReport {
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+    private final long bookings;
+    private final long revenueCents;
+    private final long[] bookingsByDayOfWeek;
+    private final long[] revenueCentsByDayOfWeek;
+    private final long[] bookingsByHour;
+    private final long[] revenueCentsByHour;
+
+    RevenueReport(LocalDateTime from, LocalDateTime to, long bookings, long revenueCents,
+                  long[] bookingsByDayOfWeek, long[] revenueCentsByDayOfWeek,
+                  long[] bookingsByHour, long[] revenueCentsByHour) {
+        this.from = from;
+        this.to = to;
+        this.bookings = bookings;
+        this.revenueCents = revenueCents;
+        this.bookingsByDayOfWeek = bookingsByDayOfWeek;
+        this.revenueCentsByDayOfWeek = revenueCentsByDayOfWeek;
+        this.bookingsByHour = bookingsByHour;
+        this.revenueCentsByHour = revenueCentsByHour;
+    }
+
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    public long getBookings() {
+        return bookings;
+    }
+
+    public double getRevenue() {
+        return revenueCents / 100.0;
+    }
+
+    // Середній дохід на день періоду (неповний день рахується як частка дня)
+    public double getAverageDailyRevenue() {
+        double days = Duration.between(from, to).toHours() / 24.0;
+        return days <= 0 ? 0.0 : getRevenue() / days;
+    }
+
+    public long getBookings(DayOfWeek day) {
+        return bookingsByDayOfWeek[day.getValue() - 1];
+    }
+
+    public double getRevenue(DayOfWeek day) {
+        return revenueCentsByDayOfWeek[day.getValue() - 1] / 100.0;
+    }
+
+    // hour - година доби 0..23
+    public long getBookingsByHour(int hour) {
+        return bookingsByHour[hour];
+    }
+
+    public double getRevenueByHour(int hour) {
+        return revenueCentsByHour[hour] / 100.0;
+    }
+}
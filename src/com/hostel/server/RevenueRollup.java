@@ -0,0 +1,203 @@
+package com.hostel.server;
+
+import com.hostel.model.Booking;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Зведення доходу завершених оплачених бронювань у кошиках година/день/місяць
+ * по кожному хостелу. Бронювання потрапляє в кошики за часом створення, як і
+ * у звіті обліку. Запит за період складається з повних місяців, повних днів
+ * і крайових годин, тому рік обходиться за кілька десятків кошиків.
+ * Архівні бронювання входять лише в кошики, без запису на кожне бронювання.
+ */
+class RevenueRollup {
+
+    // Внесок одного бронювання: хостел, година створення і сума (null - не враховується)
+    private static class Contribution {
+        final String hostelId;
+        final LocalDateTime hour;
+        final long cents;
+
+        private Contribution(String hostelId, LocalDateTime hour, long cents) {
+            this.hostelId = hostelId;
+            this.hour = hour;
+            this.cents = cents;
+        }
+
+        static Contribution of(Booking booking) {
+            if (booking.getStatus() != Booking.BookingStatus.COMPLETED ||
+                    booking.getPaymentStatus() != Booking.PaymentStatus.PAID ||
+                    booking.getCreatedAt() == null) {
+                return null;
+            }
+            return new Contribution(booking.getHostelId(),
+                    booking.getCreatedAt().truncatedTo(ChronoUnit.HOURS),
+                    Math.round(booking.getTotalPrice() * 100));
+        }
+    }
+
+    // Кількість бронювань і сума в копійках
+    private static class Bucket {
+        long count;
+        long cents;
+    }
+
+    private static class HostelBuckets {
+        private final NavigableMap<LocalDateTime, Bucket> hours = new TreeMap<>();
+        private final NavigableMap<LocalDate, Bucket> days = new TreeMap<>();
+        private final NavigableMap<YearMonth, Bucket> months = new TreeMap<>();
+
+        synchronized void apply(Contribution contribution, int sign) {
+            LocalDateTime hour = contribution.hour;
+            add(hours, hour, contribution.cents, sign);
+            add(days, hour.toLocalDate(), contribution.cents, sign);
+            add(months, YearMonth.from(hour), contribution.cents, sign);
+        }
+
+        private static <K> void add(NavigableMap<K, Bucket> buckets, K key, long cents, int sign) {
+            Bucket bucket = buckets.computeIfAbsent(key, k -> new Bucket());
+            bucket.count += sign;
+            bucket.cents += sign * cents;
+            if (bucket.count == 0) {
+                buckets.remove(key);
+            }
+        }
+
+        synchronized RevenueReport query(LocalDateTime from, LocalDateTime to) {
+            long[] total = new long[2];
+
+            // Підсумок: повні місяці, потім повні дні, решта - години
+            LocalDateTime cursor = from;
+            while (cursor.isBefore(to)) {
+                boolean dayStart = cursor.toLocalTime().equals(LocalTime.MIDNIGHT);
+                if (dayStart && cursor.getDayOfMonth() == 1 && !cursor.plusMonths(1).isAfter(to)) {
+                    addTo(total, months.get(YearMonth.from(cursor)));
+                    cursor = cursor.plusMonths(1);
+                } else if (dayStart && !cursor.plusDays(1).isAfter(to)) {
+                    addTo(total, days.get(cursor.toLocalDate()));
+                    cursor = cursor.plusDays(1);
+                } else {
+                    addTo(total, hours.get(cursor));
+                    cursor = cursor.plusHours(1);
+                }
+            }
+
+            // Дні тижня: денні кошики для повних днів, годинні - для неповних країв
+            long[] countByDay = new long[7];
+            long[] centsByDay = new long[7];
+            LocalDate firstFullDay = from.toLocalTime().equals(LocalTime.MIDNIGHT) ?
+                    from.toLocalDate() : from.toLocalDate().plusDays(1);
+            LocalDate endFullDays = to.toLocalDate();
+            if (firstFullDay.isBefore(endFullDays)) {
+                for (Map.Entry<LocalDate, Bucket> entry : days.subMap(firstFullDay, endFullDays).entrySet()) {
+                    addTo(countByDay, centsByDay, entry.getKey().getDayOfWeek().getValue() - 1, entry.getValue());
+                }
+                addHoursByDay(countByDay, centsByDay, from, firstFullDay.atStartOfDay());
+                addHoursByDay(countByDay, centsByDay, endFullDays.atStartOfDay(), to);
+            } else {
+                addHoursByDay(countByDay, centsByDay, from, to);
+            }
+
+            // Години доби: лише непорожні годинні кошики періоду
+            long[] countByHour = new long[24];
+            long[] centsByHour = new long[24];
+            for (Map.Entry<LocalDateTime, Bucket> entry : hours.subMap(from, to).entrySet()) {
+                addTo(countByHour, centsByHour, entry.getKey().getHour(), entry.getValue());
+            }
+
+            return new RevenueReport(from, to, total[0], total[1],
+                    countByDay, centsByDay, countByHour, centsByHour);
+        }
+
+        private void addHoursByDay(long[] counts, long[] cents, LocalDateTime from, LocalDateTime to) {
+            if (!from.isBefore(to)) {
+                return;
+            }
+            for (Map.Entry<LocalDateTime, Bucket> entry : hours.subMap(from, to).entrySet()) {
+                addTo(counts, cents, entry.getKey().getDayOfWeek().getValue() - 1, entry.getValue());
+            }
+        }
+
+        private static void addTo(long[] total, Bucket bucket) {
+            if (bucket != null) {
+                total[0] += bucket.count;
+                total[1] += bucket.cents;
+            }
+        }
+
+        private static void addTo(long[] counts, long[] cents, int index, Bucket bucket) {
+            counts[index] += bucket.count;
+            cents[index] += bucket.cents;
+        }
+    }
+
+    private final Map<String, Contribution> contributionById = new ConcurrentHashMap<>();
+    private final Map<String, HostelBuckets> bucketsByHostel = new ConcurrentHashMap<>();
+
+    void update(Booking booking) {
+        Contribution next = booking.getHostelId() == null ? null : Contribution.of(booking);
+        contributionById.compute(booking.getId(), (id, previous) -> {
+            if (previous != null) {
+                buckets(previous.hostelId).apply(previous, -1);
+            }
+            if (next != null) {
+                buckets(next.hostelId).apply(next, 1);
+            }
+            return next;
+        });
+    }
+
+    void remove(String bookingId) {
+        contributionById.computeIfPresent(bookingId, (id, previous) -> {
+            buckets(previous.hostelId).apply(previous, -1);
+            return null;
+        });
+    }
+
+    // Внесок архівного бронювання - без запису на бронювання
+    void add(Booking booking) {
+        Contribution contribution = booking.getHostelId() == null ? null : Contribution.of(booking);
+        if (contribution != null) {
+            buckets(contribution.hostelId).apply(contribution, 1);
+        }
+    }
+
+    // Зняття внеску, доданого add() (за тією самою версією бронювання)
+    void subtract(Booking booking) {
+        Contribution contribution = booking.getHostelId() == null ? null : Contribution.of(booking);
+        if (contribution != null) {
+            buckets(contribution.hostelId).apply(contribution, -1);
+        }
+    }
+
+    // Бронювання перенесено в архів: внесок лишається в кошиках, запис забувається
+    void release(String bookingId) {
+        contributionById.remove(bookingId);
+    }
+
+    RevenueReport query(String hostelId, LocalDateTime from, LocalDateTime to) {
+        // Межі вирівнюються до години: from вниз, to вгору
+        LocalDateTime start = from.truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime end = to.truncatedTo(ChronoUnit.HOURS);
+        if (end.isBefore(to)) {
+            end = end.plusHours(1);
+        }
+        if (!start.isBefore(end)) {
+            end = start;
+        }
+        HostelBuckets buckets = bucketsByHostel.get(hostelId);
+        return (buckets == null ? new HostelBuckets() : buckets).query(start, end);
+    }
+
+    private HostelBuckets buckets(String hostelId) {
+        return bucketsByHostel.computeIfAbsent(hostelId, k -> new HostelBuckets());
+    }
+}
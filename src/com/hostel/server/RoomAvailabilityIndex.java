@@ -0,0 +1,142 @@
+package com.hostel.server;
+
+import com.hostel.model.Booking;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Індекс зайнятості кімнат у часі: для кожної кімнати інтервали [заїзд, виїзд)
+ * бронювань, що займають кімнату, відсортовані за часом заїзду.
+ * Інтервали однієї кімнати не перетинаються (резервування перевіряє зайнятість
+ * під блокуванням кімнати), тому перевірка "чи вільна кімната на [a, b)" - один
+ * пошук у TreeMap за O(log n): достатньо останнього інтервалу, що почався до b.
+ */
+class RoomAvailabilityIndex {
+
+    // Розклад однієї кімнати
+    private static class RoomSchedule {
+        // час заїзду -> (bookingId -> час виїзду)
+        private final TreeMap<LocalDateTime, Map<String, LocalDateTime>> byStart = new TreeMap<>();
+        private final Map<String, LocalDateTime> startById = new HashMap<>();
+        // Найдовше бронювання кімнати - межа пошуку зліва для кімнат з перетинами
+        private Duration maxLength = Duration.ZERO;
+        // Перетин інтервалів (старі дані до перевірки зайнятості); не скидається
+        private boolean overlapping = false;
+
+        synchronized void add(String bookingId, LocalDateTime start, LocalDateTime end) {
+            remove(bookingId);
+            if (!overlapping && !isFree(start, end)) {
+                overlapping = true;
+            }
+            byStart.computeIfAbsent(start, k -> new HashMap<>()).put(bookingId, end);
+            startById.put(bookingId, start);
+            Duration length = Duration.between(start, end);
+            if (length.compareTo(maxLength) > 0) {
+                maxLength = length;
+            }
+        }
+
+        synchronized void remove(String bookingId) {
+            LocalDateTime start = startById.remove(bookingId);
+            if (start == null) {
+                return;
+            }
+            Map<String, LocalDateTime> sameStart = byStart.get(start);
+            sameStart.remove(bookingId);
+            if (sameStart.isEmpty()) {
+                byStart.remove(start);
+            }
+        }
+
+        synchronized boolean isFree(LocalDateTime from, LocalDateTime to) {
+            if (!overlapping) {
+                // Без перетинів останній інтервал, що почався до to, закінчується найпізніше
+                Map.Entry<LocalDateTime, Map<String, LocalDateTime>> last = byStart.lowerEntry(to);
+                return last == null || !latestEnd(last.getValue()).isAfter(from);
+            }
+            // Інтервал перетинає [from, to), якщо start < to і end > from
+            for (Map<String, LocalDateTime> sameStart :
+                    byStart.subMap(from.minus(maxLength), false, to, false).values()) {
+                for (LocalDateTime end : sameStart.values()) {
+                    if (end.isAfter(from)) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        private static LocalDateTime latestEnd(Map<String, LocalDateTime> sameStart) {
+            LocalDateTime latest = null;
+            for (LocalDateTime end : sameStart.values()) {
+                if (latest == null || end.isAfter(latest)) {
+                    latest = end;
+                }
+            }
+            return latest;
+        }
+
+        synchronized boolean isEmpty() {
+            return startById.isEmpty();
+        }
+    }
+
+    private final Map<String, RoomSchedule> schedules = new ConcurrentHashMap<>();
+    // bookingId -> roomId, щоб прибрати бронювання зі старої кімнати
+    private final Map<String, String> roomById = new ConcurrentHashMap<>();
+
+    // Кімнату займають лише активні та обслуговувані бронювання
+    static boolean occupiesRoom(Booking booking) {
+        return (booking.getStatus() == Booking.BookingStatus.ACTIVE ||
+                booking.getStatus() == Booking.BookingStatus.IN_SERVICE) &&
+                booking.getCheckInTime() != null && booking.getCheckOutTime() != null &&
+                booking.getCheckOutTime().isAfter(booking.getCheckInTime());
+    }
+
+    void update(Booking booking) {
+        String bookingId = booking.getId();
+        if (!occupiesRoom(booking) || booking.getRoomId() == null) {
+            remove(bookingId);
+            return;
+        }
+
+        String oldRoomId = roomById.put(bookingId, booking.getRoomId());
+        if (oldRoomId != null && !oldRoomId.equals(booking.getRoomId())) {
+            detach(oldRoomId, bookingId);
+        }
+        // Додавання всередині compute, щоб не потрапити в розклад, який саме видаляється
+        schedules.compute(booking.getRoomId(), (k, schedule) -> {
+            if (schedule == null) {
+                schedule = new RoomSchedule();
+            }
+            schedule.add(bookingId, booking.getCheckInTime(), booking.getCheckOutTime());
+            return schedule;
+        });
+    }
+
+    void remove(String bookingId) {
+        String roomId = roomById.remove(bookingId);
+        if (roomId != null) {
+            detach(roomId, bookingId);
+        }
+    }
+
+    boolean isFree(String roomId, LocalDateTime from, LocalDateTime to) {
+        RoomSchedule schedule = schedules.get(roomId);
+        return schedule == null || schedule.isFree(from, to);
+    }
+
+    void clear() {
+        schedules.clear();
+        roomById.clear();
+    }
+
+    private void detach(String roomId, String bookingId) {
+        schedules.computeIfPresent(roomId, (k, schedule) -> {
+            schedule.remove(bookingId);
+            return schedule.isEmpty() ? null : schedule;
+        });
+    }
+}
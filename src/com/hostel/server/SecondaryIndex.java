@@ -0,0 +1,62 @@
+package com.hostel.server;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Вторинний індекс "ключ -> ідентифікатори" (наприклад hostelId -> бронювання).
+ * Запам'ятовує ключ кожного запису, тому коректно переносить запис,
+ * навіть якщо об'єкт змінили на місці до збереження.
+ */
+class SecondaryIndex {
+    private final Map<String, String> keyById = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> idsByKey = new ConcurrentHashMap<>();
+
+    // key == null - запис виключається з індексу
+    void put(String id, String key) {
+        if (key == null) {
+            remove(id);
+            return;
+        }
+
+        keyById.compute(id, (k, oldKey) -> {
+            if (oldKey != null && !oldKey.equals(key)) {
+                detach(oldKey, id);
+            }
+            idsByKey.compute(key, (kk, ids) -> {
+                if (ids == null) {
+                    ids = ConcurrentHashMap.newKeySet();
+                }
+                ids.add(id);
+                return ids;
+            });
+            return key;
+        });
+    }
+
+    void remove(String id) {
+        keyById.computeIfPresent(id, (k, oldKey) -> {
+            detach(oldKey, id);
+            return null;
+        });
+    }
+
+    Set<String> get(String key) {
+        Set<String> ids = idsByKey.get(key);
+        return ids == null ? Collections.emptySet() : Collections.unmodifiableSet(ids);
+    }
+
+    void clear() {
+        keyById.clear();
+        idsByKey.clear();
+    }
+
+    private void detach(String key, String id) {
+        idsByKey.computeIfPresent(key, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+}
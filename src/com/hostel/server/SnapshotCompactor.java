@@ -0,0 +1,111 @@
+package com.hostel.server;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * Фонова компактизація журналу змін: коли журнал переростає ліміт за розміром
+ * або кількістю записів, пишеться новий знімок даних, а журнал обрізається.
+ */
+public class SnapshotCompactor {
+
+    // Сама компактизація (знімок + обрізання журналу), повертає розміри даних до і після
+    public interface Compaction {
+        Result compact() throws Exception;
+    }
+
+    // Розмір знімка з журналом до компактизації і розмір нового знімка
+    public static final class Result {
+        final long bytesBefore;
+        final long bytesAfter;
+
+        public Result(long bytesBefore, long bytesAfter) {
+            this.bytesBefore = bytesBefore;
+            this.bytesAfter = bytesAfter;
+        }
+    }
+
+    private final MutationLog mutationLog;
+    private final Compaction compaction;
+    private final long maxLogBytes;
+    private final long maxLogRecords;
+    private final ScheduledExecutorService executor;
+
+    // Метрики
+    private long compactionsCount = 0;
+    private long lastCompactionMs = 0;
+    private long totalCompactionMs = 0;
+    private long lastReclaimedBytes = 0;
+    private long totalReclaimedBytes = 0;
+    private long lastSnapshotBytes = 0;
+    private long failedCompactions = 0;
+
+    public SnapshotCompactor(MutationLog mutationLog, Compaction compaction,
+                             long maxLogBytes, long maxLogRecords) {
+        this.mutationLog = mutationLog;
+        this.compaction = compaction;
+        this.maxLogBytes = maxLogBytes;
+        this.maxLogRecords = maxLogRecords;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "snapshot-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start(long checkIntervalSeconds) {
+        executor.scheduleWithFixedDelay(() -> {
+            if (isCompactionNeeded()) {
+                compactNow();
+            }
+        }, checkIntervalSeconds, checkIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    public boolean isCompactionNeeded() {
+        return mutationLog.hasSealedSegment() ||
+                mutationLog.size() >= maxLogBytes ||
+                mutationLog.getActiveRecords() >= maxLogRecords;
+    }
+
+    public synchronized boolean compactNow() {
+        long startTime = System.currentTimeMillis();
+        try {
+            Result result = compaction.compact();
+            long elapsed = System.currentTimeMillis() - startTime;
+            // Знімок може вирости (нові дані з журналу) - тоді нічого не звільнено
+            long reclaimed = Math.max(0, result.bytesBefore - result.bytesAfter);
+
+            compactionsCount++;
+            lastCompactionMs = elapsed;
+            totalCompactionMs += elapsed;
+            lastReclaimedBytes = reclaimed;
+            totalReclaimedBytes += reclaimed;
+            lastSnapshotBytes = result.bytesAfter;
+
+            System.out.println("[COMPACTOR] Компактизацію виконано за " + elapsed + "мс, розмір даних: " +
+                    result.bytesBefore + " -> " + result.bytesAfter + " байт, звільнено " + reclaimed + " байт");
+            return true;
+        } catch (Exception e) {
+            failedCompactions++;
+            System.err.println("[COMPACTOR ERROR] Помилка компактизації: " + e.getMessage());
+            return false;
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("compactions", compactionsCount);
+        stats.put("failedCompactions", failedCompactions);
+        stats.put("lastCompactionMs", lastCompactionMs);
+        stats.put("avgCompactionMs", compactionsCount == 0 ? 0 : totalCompactionMs / compactionsCount);
+        stats.put("lastReclaimedBytes", lastReclaimedBytes);
+        stats.put("totalReclaimedBytes", totalReclaimedBytes);
+        stats.put("lastSnapshotBytes", lastSnapshotBytes);
+        return stats;
+    }
+}
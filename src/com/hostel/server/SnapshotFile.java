@@ -0,0 +1,30 @@
+package com.hostel.server;
+
+import com.hostel.model.*;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Один файл знімка: назва без розширення, тип сутностей і самі дані
+class SnapshotFile<T> {
+    final String baseName;
+    final Class<T> type;
+    final Map<String, T> entities = new HashMap<>();
+
+    SnapshotFile(String baseName, Class<T> type) {
+        this.baseName = baseName;
+        this.type = type;
+    }
+
+    // Порожній набір усіх файлів знімка
+    static List<SnapshotFile<?>> layout() {
+        return Arrays.asList(
+                new SnapshotFile<>("clients", Client.class),
+                new SnapshotFile<>("managers", Manager.class),
+                new SnapshotFile<>("hostels", Hostel.class),
+                new SnapshotFile<>("rooms", Room.class),
+                new SnapshotFile<>("bookings", Booking.class),
+                new SnapshotFile<>("reviews", Review.class));
+    }
+}
@@ -0,0 +1,97 @@
+package com.hostel.server;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Паралельне завантаження знімків: кожен файл розбирається потоково
+ * у своєму потоці і записи кладуться прямо в кеш без проміжної Map.
+ * Окремий клас, бо потоки не можуть звертатись до FileServer під час його ініціалізації.
+ */
+class SnapshotLoader {
+    private final StorageCodec codec;
+    private final List<StorageCodec> fallbackCodecs;
+    private final String dataDir;
+    private final ExecutorService executor;
+    private final List<Future<?>> tasks = new ArrayList<>();
+    private final Map<String, Long> loadTimes = new ConcurrentHashMap<>();
+    private volatile boolean fallbackUsed = false;
+
+    /**
+     * fallbackCodecs - формати, з яких читається знімок, якщо файлу в основному
+     * форматі ще немає (формат зберігання змінили в налаштуваннях).
+     */
+    SnapshotLoader(StorageCodec codec, List<StorageCodec> fallbackCodecs, String dataDir, int threads) {
+        this.codec = codec;
+        this.fallbackCodecs = fallbackCodecs;
+        this.dataDir = dataDir;
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "snapshot-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // baseName - назва знімка без розширення, наприклад "bookings"
+    <T> void submit(String baseName, Class<T> type, Map<String, ? super T> cache) {
+        tasks.add(executor.submit(() -> load(baseName, type, cache)));
+    }
+
+    // Очікування завершення всіх файлів, повертає час завантаження кожного
+    Map<String, Long> awaitAll() {
+        try {
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.err.println("[LOADER ERROR] Помилка завантаження: " + e.getCause().getMessage());
+        } finally {
+            executor.shutdown();
+        }
+        return loadTimes;
+    }
+
+    // Чи був хоча б один знімок прочитаний не в основному форматі
+    boolean isFallbackUsed() {
+        return fallbackUsed;
+    }
+
+    private <T> void load(String baseName, Class<T> type, Map<String, ? super T> cache) {
+        StorageCodec source = codec;
+        Path path = Paths.get(dataDir + baseName + codec.getExtension());
+        if (!Files.exists(path)) {
+            source = null;
+            for (StorageCodec fallback : fallbackCodecs) {
+                Path fallbackPath = Paths.get(dataDir + baseName + fallback.getExtension());
+                if (Files.exists(fallbackPath)) {
+                    source = fallback;
+                    path = fallbackPath;
+                    fallbackUsed = true;
+                    break;
+                }
+            }
+            if (source == null) {
+                return;
+            }
+        }
+
+        long startTime = System.nanoTime();
+        int count = 0;
+
+        try {
+            count = source.read(path, type, cache);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("[LOADER ERROR] Помилка завантаження з " + path + ": " + e.getMessage());
+        }
+
+        String fileName = path.getFileName().toString();
+        long elapsedMs = Math.max(1, (System.nanoTime() - startTime) / 1_000_000);
+        loadTimes.put(fileName, elapsedMs);
+        System.out.println(String.format("[LOADER] %s: %d записів за %dмс (%d записів/с)",
+                fileName, count, elapsedMs, count * 1000L / elapsedMs));
+    }
+}
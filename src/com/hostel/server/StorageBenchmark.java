@@ -0,0 +1,75 @@
+package com.hostel.server;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Порівняння форматів зберігання на поточних даних: час запису,
+ * час читання і розмір файлів. Працює у тимчасовій директорії.
+ */
+class StorageBenchmark {
+    private static final int ROUNDS = 3;
+
+    static void run(List<SnapshotFile<?>> files, List<StorageCodec> codecs) throws IOException {
+        Path dir = Files.createTempDirectory("hostel-storage-bench");
+        try {
+            System.out.println("\n=== ПОРІВНЯННЯ ФОРМАТІВ ЗБЕРІГАННЯ ===");
+            System.out.printf("%-8s %12s %12s %14s%n", "Формат", "Запис, мс", "Читання, мс", "Розмір, байт");
+
+            for (StorageCodec codec : codecs) {
+                // Перший прохід - прогрів, далі середнє за ROUNDS проходів
+                measure(dir, files, codec);
+                long saveNanos = 0;
+                long loadNanos = 0;
+                long bytes = 0;
+                for (int i = 0; i < ROUNDS; i++) {
+                    long[] result = measure(dir, files, codec);
+                    saveNanos += result[0];
+                    loadNanos += result[1];
+                    bytes = result[2];
+                }
+                System.out.printf("%-8s %12.1f %12.1f %14d%n", codec.getName(),
+                        saveNanos / ROUNDS / 1e6, loadNanos / ROUNDS / 1e6, bytes);
+            }
+            System.out.println("======================================\n");
+        } finally {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+                for (Path file : stream) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    // {час запису, час читання, розмір} для всіх файлів знімка
+    private static long[] measure(Path dir, List<SnapshotFile<?>> files, StorageCodec codec) throws IOException {
+        long[] result = new long[3];
+        for (SnapshotFile<?> file : files) {
+            long[] fileResult = measureFile(dir, file, codec);
+            for (int i = 0; i < result.length; i++) {
+                result[i] += fileResult[i];
+            }
+        }
+        return result;
+    }
+
+    private static <T> long[] measureFile(Path dir, SnapshotFile<T> file, StorageCodec codec) throws IOException {
+        Path path = dir.resolve(file.baseName + codec.getExtension());
+
+        long start = System.nanoTime();
+        codec.write(path, file.entities, file.type);
+        long saveNanos = System.nanoTime() - start;
+
+        Map<String, T> loaded = new HashMap<>();
+        start = System.nanoTime();
+        codec.read(path, file.type, loaded);
+        long loadNanos = System.nanoTime() - start;
+
+        if (loaded.size() != file.entities.size()) {
+            throw new IOException("Формат " + codec.getName() + " втратив записи у " + file.baseName);
+        }
+        return new long[]{saveNanos, loadNanos, Files.size(path)};
+    }
+}
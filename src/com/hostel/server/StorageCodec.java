@@ -0,0 +1,29 @@
+package com.hostel.server;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Формат файлів знімків. Вибирається через -Dhostel.storage.format=json|binary.
+ */
+public interface StorageCodec {
+
+    String getName();
+
+    // Розширення файлів знімка, наприклад ".json"
+    String getExtension();
+
+    <T> void write(Path path, Map<String, T> entities, Class<T> type) throws IOException;
+
+    // Читання знімка прямо в кеш, повертає кількість записів
+    <T> int read(Path path, Class<T> type, Map<String, ? super T> target) throws IOException;
+
+    static StorageCodec forName(String name) {
+        switch (name.toLowerCase()) {
+            case "json": return new JsonStorageCodec();
+            case "binary": return new BinaryStorageCodec();
+            default: throw new IllegalArgumentException("Невідомий формат зберігання: " + name);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.hostel.server;
+
+import java.io.IOException;
+import java.nio.file.*;
+
+/**
+ * Перетворення знімків між форматами зберігання.
+ * Запуск: java com.hostel.server.StorageConverter json binary [hostel_data/]
+ * Сервер при зміні hostel.storage.format перетворює знімки сам під час старту.
+ */
+public class StorageConverter {
+
+    public static int convert(Path dataDir, StorageCodec from, StorageCodec to) throws IOException {
+        int converted = 0;
+        for (SnapshotFile<?> file : SnapshotFile.layout()) {
+            if (convertFile(dataDir, file, from, to)) {
+                converted++;
+            }
+        }
+        return converted;
+    }
+
+    private static <T> boolean convertFile(Path dataDir, SnapshotFile<T> file,
+                                           StorageCodec from, StorageCodec to) throws IOException {
+        Path source = dataDir.resolve(file.baseName + from.getExtension());
+        if (!Files.exists(source)) {
+            return false;
+        }
+
+        int count = from.read(source, file.type, file.entities);
+        Path target = dataDir.resolve(file.baseName + to.getExtension());
+        Path temp = dataDir.resolve(file.baseName + to.getExtension() + ".tmp");
+        to.write(temp, file.entities, file.type);
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        System.out.println(String.format("[CONVERTER] %s -> %s: %d записів, %d -> %d байт",
+                source.getFileName(), target.getFileName(), count, Files.size(source), Files.size(target)));
+        return true;
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.out.println("Використання: StorageConverter <json|binary> <json|binary> [директорія]");
+            return;
+        }
+
+        try {
+            Path dataDir = Paths.get(args.length > 2 ? args[2] : "hostel_data/");
+            int converted = convert(dataDir, StorageCodec.forName(args[0]), StorageCodec.forName(args[1]));
+            System.out.println("[CONVERTER] Перетворено файлів: " + converted);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("[CONVERTER ERROR] " + e.getMessage());
+        }
+    }
+}
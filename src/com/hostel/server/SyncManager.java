@@ -1,88 +1,723 @@
 package com.hostel.server;
 
+import java.io.IOException;
+import java.nio.file.*;
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.hostel.model.Booking;
+import com.hostel.model.Room;
 import com.hostel.service.NetworkMonitor;
 
+/**
+ * Офлайн-черга синхронізації. Операції записуються в журнал черги (ENQ) до
+ * того, як потрапляють у пам'ять, і підтверджуються записом ACK після виконання,
+ * тому незавершені операції переживають збій і програються при старті.
+ * Гарантія "хоча б один раз": якщо ACK не встиг записатися, операція повториться.
+ *
+ * Черга розбирається пакетами на пулі виконавців. Операції з однаковим ключем
+ * смуги (кімнатою) потрапляють в одну смугу і виконуються по черзі; невдала
+ * операція повторюється з експоненційною затримкою, а після maxAttempts спроб
+ * переноситься в чергу недоставлених (DLQ).
+ *
+ * Нова операція зливається з останньою незавершеною операцією над тією ж
+ * сутністю: поля оновлення накладаються поверх (виграє пізніший запис), а
+ * скасування ще не синхронізованого офлайн-бронювання прибирає обидві операції.
+ */
 public class SyncManager {
-    private static Queue<Runnable> syncQueue = new ConcurrentLinkedQueue<>();
-    private static ScheduledExecutorService executor = Executors.newScheduledThreadPool(1);
-    private static boolean isSyncing = false;
+    private static final String DATA_DIR = FileServer.getDataDirectory();
+    // Журнал переписується, коли підтверджених записів стає значно більше, ніж незавершених
+    private static final int COMPACT_MIN_RECORDS = 1000;
+
+    // Налаштування розбору черги: -Dhostel.sync.workers=4 тощо
+    private static final int WORKERS = Math.max(1, Integer.getInteger("hostel.sync.workers", 4));
+    private static final int BATCH_SIZE = Math.max(1, Integer.getInteger("hostel.sync.batchSize", 64));
+    private static final int MAX_ATTEMPTS = Math.max(1, Integer.getInteger("hostel.sync.maxAttempts", 8));
+    private static final long BASE_BACKOFF_MS = Long.getLong("hostel.sync.baseBackoffMs", 1000);
+    private static final long MAX_BACKOFF_MS = Long.getLong("hostel.sync.maxBackoffMs", 5 * 60 * 1000);
+    private static final long INTERVAL_SECONDS = Long.getLong("hostel.sync.intervalSeconds", 30);
+
+    private static final Gson gson = new GsonBuilder()
+            .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
+            .create();
+
+    // Обробник операцій одного типу; виняток - операція повторюється пізніше
+    @FunctionalInterface
+    public interface SyncHandler {
+        void execute(SyncOperation operation) throws Exception;
+    }
+
+    // Виняток обробника, коли повтор нічого не змінить (наприклад, кімнату вже зайнято):
+    // операція одразу переходить до недоставлених
+    public static class TerminalSyncException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        public TerminalSyncException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Обробник, який отримує всі готові операції свого типу з пакета одним викликом
+     * (наприклад, звірка офлайн-бронювань). Повертає помилки за номерами операцій;
+     * операції без помилки вважаються виконаними.
+     */
+    @FunctionalInterface
+    public interface SyncBatchHandler {
+        Map<Long, Exception> execute(List<SyncOperation> operations);
+    }
+
+    private static final MutationLog queueLog = new MutationLog(
+            Paths.get(DATA_DIR + "sync_queue.log"), MutationLog.FsyncPolicy.ALWAYS, 0);
+    private static final NavigableMap<Long, SyncOperation> pending = new ConcurrentSkipListMap<>();
+    private static final NavigableMap<Long, SyncOperation> deadLetters = new ConcurrentSkipListMap<>();
+    // Остання незавершена операція над кожною сутністю - кандидат для злиття
+    private static final Map<String, Long> latestByEntity = new ConcurrentHashMap<>();
+    // Операції поточного пакета; їх payload вже читається виконавцями і не зливається
+    private static final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    private static final Map<SyncOperation.Type, SyncHandler> handlers = new ConcurrentHashMap<>();
+    private static final Map<SyncOperation.Type, SyncBatchHandler> batchHandlers = new ConcurrentHashMap<>();
+    private static final AtomicLong nextSeq = new AtomicLong(1);
+
+    // Метрики
+    private static final AtomicLong enqueued = new AtomicLong();
+    private static final AtomicLong acknowledged = new AtomicLong();
+    private static final AtomicLong failures = new AtomicLong();
+    private static final AtomicLong deadLettered = new AtomicLong();
+    private static final AtomicLong coalesced = new AtomicLong();
+    private static int replayedRecords;
+    private static long replayMillis;
+    private static volatile double lastDrainOpsPerSecond;
+
+    private static final AtomicBoolean syncing = new AtomicBoolean(false);
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "sync-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final ExecutorService workers = Executors.newFixedThreadPool(WORKERS, new ThreadFactory() {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "sync-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
 
     static {
-        // Запускаємо синхронізацію кожні 30 секунд
-        executor.scheduleAtFixedRate(() -> {
-            if (NetworkMonitor.isNetworkAvailable() && !syncQueue.isEmpty() && !isSyncing) {
+        loadQueue();
+
+        // Запускаємо синхронізацію кожні INTERVAL_SECONDS секунд
+        scheduler.scheduleAtFixedRate(() -> {
+            if (NetworkMonitor.isNetworkAvailable() && !pending.isEmpty()) {
                 processSyncQueue();
             }
-        }, 0, 30, TimeUnit.SECONDS);
+        }, 0, INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private static void loadQueue() {
+        long start = System.nanoTime();
+        try {
+            Files.createDirectories(Paths.get(DATA_DIR));
+            replayedRecords = queueLog.replay(SyncManager::applyRecord);
+            queueLog.open();
+        } catch (IOException e) {
+            System.err.println("[SYNC ERROR] Помилка читання журналу черги: " + e.getMessage());
+        }
+        replayMillis = (System.nanoTime() - start) / 1_000_000;
+
+        if (!pending.isEmpty() || !deadLetters.isEmpty()) {
+            System.out.println(String.format(
+                    "[SYNC] Відновлено незавершених операцій: %d, недоставлених: %d (записів журналу: %d за %dмс)",
+                    pending.size(), deadLetters.size(), replayedRecords, replayMillis));
+        }
+    }
+
+    private static void applyRecord(String line) {
+        JsonObject record = gson.fromJson(line, JsonObject.class);
+        String op = record.get("op").getAsString();
+        switch (op) {
+            case "ENQ" -> {
+                SyncOperation operation = gson.fromJson(record.get("operation"), SyncOperation.class);
+                addPending(operation);
+                nextSeq.accumulateAndGet(operation.getSeq() + 1, Math::max);
+            }
+            case "ACK" -> removePending(record.get("seq").getAsLong());
+            case "RETRY" -> {
+                SyncOperation operation = pending.get(record.get("seq").getAsLong());
+                if (operation != null) {
+                    operation.recordFailure(record.get("attempts").getAsInt(),
+                            record.get("nextAttemptAt").getAsLong(), record.get("error").getAsString());
+                }
+            }
+            case "DLQ" -> {
+                SyncOperation operation = record.has("operation") ?
+                        gson.fromJson(record.get("operation"), SyncOperation.class) :
+                        pending.get(record.get("seq").getAsLong());
+                if (operation != null) {
+                    removePending(operation.getSeq());
+                    deadLetters.put(operation.getSeq(), operation);
+                    nextSeq.accumulateAndGet(operation.getSeq() + 1, Math::max);
+                }
+            }
+            case "CLEAR" -> {
+                pending.clear();
+                latestByEntity.clear();
+            }
+            case "REQUEUE" -> {
+                SyncOperation operation = deadLetters.remove(record.get("seq").getAsLong());
+                if (operation != null) {
+                    operation.recordFailure(0, 0, null);
+                    addPending(operation);
+                }
+            }
+            default -> throw new IllegalStateException("Невідомий запис черги: " + op);
+        }
+    }
+
+    public static void registerHandler(SyncOperation.Type type, SyncHandler handler) {
+        handlers.put(type, handler);
+    }
+
+    public static void registerBatchHandler(SyncOperation.Type type, SyncBatchHandler handler) {
+        batchHandlers.put(type, handler);
+    }
+
+    /**
+     * Постановка операції в чергу: спершу запис у журнал, потім у пам'ять.
+     * false - операцію не вдалося зберегти.
+     */
+    public static boolean enqueue(SyncOperation.Type type, String entityKey, String laneKey,
+                                  String description, Object payload) {
+        JsonElement data = gson.toJsonTree(payload);
+
+        // Журнал і пам'ять змінюються під монітором журналу, щоб компактизація не загубила запис
+        synchronized (queueLog) {
+            Long latestSeq = latestByEntity.get(entityKey);
+            SyncOperation latest = latestSeq == null ? null : pending.get(latestSeq);
+            if (latest != null && !inFlight.contains(latestSeq) && canCoalesce(latest, type)) {
+                return coalesce(latest, type, data);
+            }
+
+            SyncOperation operation = new SyncOperation(nextSeq.getAndIncrement(), type, entityKey, laneKey,
+                    description, data);
+            try {
+                queueLog.append(operationRecord("ENQ", operation));
+            } catch (IOException e) {
+                System.err.println("[SYNC ERROR] Не вдалося зберегти операцію в черзі: " + e.getMessage());
+                return false;
+            }
+            addPending(operation);
+        }
+        enqueued.incrementAndGet();
+        System.out.println("[SYNC] Додано: " + description + ". Розмір черги: " + pending.size());
+        return true;
+    }
+
+    // Оновлення полів зливається з будь-якою операцією над бронюванням, знімки - лише з таким самим типом
+    private static boolean canCoalesce(SyncOperation latest, SyncOperation.Type type) {
+        if (type == SyncOperation.Type.UPDATE_BOOKING) {
+            return latest.getType() != SyncOperation.Type.SAVE_ROOM;
+        }
+        // Два створення з одним ключем - різні бронювання, їх не можна замінювати одне одним
+        return latest.getType() == type && type != SyncOperation.Type.CREATE_BOOKING;
+    }
+
+    /**
+     * Злиття нової операції з останньою операцією над сутністю (викликається під
+     * монітором журналу). Злита операція зберігає свій номер, тому повторний запис
+     * ENQ при програванні просто замінює попередню версію.
+     */
+    private static boolean coalesce(SyncOperation latest, SyncOperation.Type type, JsonElement data) {
+        JsonObject merged;
+        if (type == latest.getType() && type != SyncOperation.Type.UPDATE_BOOKING) {
+            // Повний знімок сутності: достатньо останнього
+            merged = data.getAsJsonObject();
+        } else {
+            merged = latest.getPayload().getAsJsonObject().deepCopy();
+            for (Map.Entry<String, JsonElement> field : data.getAsJsonObject().entrySet()) {
+                merged.add(field.getKey(), field.getValue());
+            }
+        }
+
+        // Бронювання, створене і скасоване офлайн, серверу взагалі не потрібне
+        boolean cancelled = merged.has("status") &&
+                Booking.BookingStatus.CANCELLED.name().equals(merged.get("status").getAsString());
+        try {
+            if (latest.getType() == SyncOperation.Type.CREATE_BOOKING && cancelled) {
+                JsonObject record = new JsonObject();
+                record.addProperty("op", "ACK");
+                record.addProperty("seq", latest.getSeq());
+                queueLog.append(gson.toJson(record));
+                removePending(latest.getSeq());
+                System.out.println("[SYNC] Офлайн-бронювання скасовано до синхронізації, операцію прибрано з черги");
+            } else {
+                JsonElement previous = latest.getPayload();
+                latest.setPayload(merged);
+                try {
+                    queueLog.append(operationRecord("ENQ", latest));
+                } catch (IOException e) {
+                    latest.setPayload(previous);
+                    throw e;
+                }
+                System.out.println("[SYNC] Зміну об'єднано з операцією в черзі: " + latest.getDescription());
+            }
+        } catch (IOException e) {
+            System.err.println("[SYNC ERROR] Не вдалося зберегти операцію в черзі: " + e.getMessage());
+            return false;
+        }
+        coalesced.incrementAndGet();
+        return true;
+    }
+
+    private static void addPending(SyncOperation operation) {
+        pending.put(operation.getSeq(), operation);
+        latestByEntity.merge(operation.getEntityKey(), operation.getSeq(), Math::max);
+    }
+
+    private static void removePending(long seq) {
+        SyncOperation operation = pending.remove(seq);
+        if (operation != null) {
+            latestByEntity.remove(operation.getEntityKey(), seq);
+        }
+    }
+
+    // Чи чекає операція такого типу над сутністю в черзі (серед незавершених або недоставлених)
+    public static boolean hasQueuedOperation(SyncOperation.Type type, String entityKey) {
+        synchronized (queueLog) {
+            for (SyncOperation operation : pending.values()) {
+                if (operation.getType() == type && operation.getEntityKey().equals(entityKey)) {
+                    return true;
+                }
+            }
+            for (SyncOperation operation : deadLetters.values()) {
+                if (operation.getType() == type && operation.getEntityKey().equals(entityKey)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Офлайн-бронювання, яке треба створити на сервері
+    public static boolean enqueueCreateBooking(Booking booking) {
+        return enqueue(SyncOperation.Type.CREATE_BOOKING, "BOOKING:" + booking.getId(),
+                "ROOM:" + booking.getRoomId(), "Створення бронювання", booking);
+    }
+
+    // Повторне збереження бронювання після помилки сховища
+    public static boolean enqueueSaveBooking(Booking booking) {
+        return enqueue(SyncOperation.Type.SAVE_BOOKING, "BOOKING:" + booking.getId(),
+                "ROOM:" + booking.getRoomId(), "Повторна спроба збереження бронювання", booking);
+    }
+
+    // Зміна статусу та/або оплати бронювання (null - поле не змінюється)
+    public static boolean enqueueBookingUpdate(Booking booking, Booking.BookingStatus status,
+                                               Booking.PaymentStatus paymentStatus) {
+        JsonObject update = new JsonObject();
+        update.addProperty("id", booking.getId());
+        if (status != null) {
+            update.addProperty("status", status.name());
+        }
+        if (paymentStatus != null) {
+            update.addProperty("paymentStatus", paymentStatus.name());
+        }
+        return enqueue(SyncOperation.Type.UPDATE_BOOKING, "BOOKING:" + booking.getId(),
+                "ROOM:" + booking.getRoomId(), "Оновлення бронювання " + booking.getId(), update);
+    }
+
+    public static boolean enqueueSaveRoom(Room room) {
+        return enqueue(SyncOperation.Type.SAVE_ROOM, "ROOM:" + room.getId(), "ROOM:" + room.getId(),
+                "Збереження кімнати " + room.getId(), room);
     }
 
-    public static void addToSyncQueue(Runnable task) {
-        syncQueue.add(task);
-        System.out.println("[SYNC] Додано завдання до черги синхронізації. Розмір черги: " + syncQueue.size());
+    private static String operationRecord(String op, SyncOperation operation) {
+        JsonObject record = new JsonObject();
+        record.addProperty("op", op);
+        record.add("operation", gson.toJsonTree(operation));
+        return gson.toJson(record);
     }
 
-    public static void addToSyncQueue(String description, Runnable task) {
-        syncQueue.add(() -> {
-            System.out.println("[SYNC] Виконується: " + description);
-            task.run();
-        });
-        System.out.println("[SYNC] Додано: " + description + ". Розмір черги: " + syncQueue.size());
+    static <T> T decode(JsonElement payload, Class<T> type) {
+        return gson.fromJson(payload, type);
     }
 
+    // ========== РОЗБІР ЧЕРГИ ==========
+
     private static void processSyncQueue() {
-        isSyncing = true;
-        System.out.println("[SYNC] Початок синхронізації. Завдань в черзі: " + syncQueue.size());
+        // Одночасно працює лише один розбір; паралельність - всередині, по смугах
+        if (!syncing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            drain();
+        } finally {
+            syncing.set(false);
+        }
+    }
+
+    private static void drain() {
+        System.out.println("[SYNC] Початок синхронізації. Завдань в черзі: " + pending.size());
 
+        long start = System.nanoTime();
         int processed = 0;
         int failed = 0;
 
-        while (!syncQueue.isEmpty() && NetworkMonitor.isNetworkAvailable()) {
-            Runnable task = syncQueue.poll();
-            try {
-                task.run();
-                processed++;
+        while (NetworkMonitor.isNetworkAvailable()) {
+            List<SyncOperation> batch = nextBatch(System.currentTimeMillis());
+            if (batch.isEmpty()) {
+                break;
+            }
 
-                // Невелика пауза між завданнями для імітації мережі
+            // Смуга визначається ключем, тому операції над однією кімнатою не перегонять одна одну
+            Map<Integer, List<SyncOperation>> lanes = new HashMap<>();
+            Map<SyncOperation.Type, List<SyncOperation>> bulk = new EnumMap<>(SyncOperation.Type.class);
+            for (SyncOperation operation : batch) {
+                if (batchHandlers.containsKey(operation.getType())) {
+                    bulk.computeIfAbsent(operation.getType(), k -> new ArrayList<>()).add(operation);
+                    continue;
+                }
+                int lane = Math.floorMod(operation.getLaneKey().hashCode(), WORKERS);
+                lanes.computeIfAbsent(lane, k -> new ArrayList<>()).add(operation);
+            }
+
+            List<Future<int[]>> results = new ArrayList<>();
+            for (Map.Entry<SyncOperation.Type, List<SyncOperation>> group : bulk.entrySet()) {
+                results.add(workers.submit(() -> runBulk(batchHandlers.get(group.getKey()), group.getValue())));
+            }
+            for (List<SyncOperation> lane : lanes.values()) {
+                results.add(workers.submit(() -> runLane(lane)));
+            }
+            for (Future<int[]> result : results) {
                 try {
-                    Thread.sleep(500);
+                    int[] counts = result.get();
+                    processed += counts[0];
+                    failed += counts[1];
                 } catch (InterruptedException e) {
                     Thread.currentThread().interrupt();
+                    return;
+                } catch (ExecutionException e) {
+                    System.err.println("[SYNC ERROR] Помилка смуги синхронізації: " + e.getCause());
+                }
+            }
+        }
+
+        long elapsed = System.nanoTime() - start;
+        if (processed > 0) {
+            lastDrainOpsPerSecond = processed * 1e9 / elapsed;
+        }
+        compactIfNeeded();
+
+        System.out.println(String.format(
+                "[SYNC] Синхронізація завершена. Оброблено: %d, Не вдалося: %d, Залишилось: %d, Недоставлених: %d",
+                processed, failed, pending.size(), deadLetters.size()
+        ));
+
+        if (!pending.isEmpty() && !NetworkMonitor.isNetworkAvailable()) {
+            System.out.println("[SYNC] Зупинено через відсутність мережі. Очікування відновлення...");
+        }
+    }
+
+    /**
+     * Наступний пакет готових операцій у порядку черги. Якщо операція чекає
+     * повтору або для неї немає обробника, її ключ блокується до кінця пакета,
+     * щоб пізніші операції з тим самим ключем не виконались раніше. Групові й
+     * звичайні операції з одним ключем не потрапляють в один пакет: вони
+     * виконуються паралельно і могли б порушити порядок.
+     */
+    private static List<SyncOperation> nextBatch(long now) {
+        List<SyncOperation> batch = new ArrayList<>();
+        Set<String> blocked = new HashSet<>();
+        Map<String, Boolean> bulkByKey = new HashMap<>();
+        // Під монітором журналу, щоб злиття не змінило операцію, яку вже взято в пакет
+        synchronized (queueLog) {
+            for (SyncOperation operation : pending.values()) {
+                String key = operation.getLaneKey();
+                if (blocked.contains(key)) {
+                    continue;
+                }
+                boolean isBulk = batchHandlers.containsKey(operation.getType());
+                if (operation.getNextAttemptAt() > now || !(isBulk || handlers.containsKey(operation.getType()))) {
+                    blocked.add(key);
+                    continue;
                 }
+                Boolean keyBulk = bulkByKey.putIfAbsent(key, isBulk);
+                if (keyBulk != null && keyBulk != isBulk) {
+                    blocked.add(key);
+                    continue;
+                }
+                batch.add(operation);
+                inFlight.add(operation.getSeq());
+                if (batch.size() >= BATCH_SIZE) {
+                    break;
+                }
+            }
+        }
+        return batch;
+    }
 
+    // {виконано, не вдалося} для операцій, переданих груповому обробнику
+    private static int[] runBulk(SyncBatchHandler handler, List<SyncOperation> operations) {
+        int processed = 0;
+        int failed = 0;
+        Map<Long, Exception> errors;
+        try {
+            errors = handler.execute(operations);
+        } catch (RuntimeException e) {
+            errors = new HashMap<>();
+            for (SyncOperation operation : operations) {
+                errors.put(operation.getSeq(), e);
+            }
+        }
+        for (SyncOperation operation : operations) {
+            Exception error = errors.get(operation.getSeq());
+            if (error == null) {
+                acknowledge(operation);
+                processed++;
+            } else {
+                scheduleRetry(operation, error);
+                failed++;
+            }
+            inFlight.remove(operation.getSeq());
+        }
+        return new int[]{processed, failed};
+    }
+
+    // {виконано, не вдалося} для операцій однієї смуги
+    private static int[] runLane(List<SyncOperation> lane) {
+        int processed = 0;
+        int failed = 0;
+        Set<String> blocked = new HashSet<>();
+        for (SyncOperation operation : lane) {
+            try {
+                if (blocked.contains(operation.getLaneKey())) {
+                    continue;
+                }
+                handlers.get(operation.getType()).execute(operation);
+                acknowledge(operation);
+                processed++;
             } catch (Exception e) {
-                System.err.println("[SYNC ERROR] Помилка виконання завдання: " + e.getMessage());
+                // Пізніші операції з цим ключем чекають на повтор цієї
+                blocked.add(operation.getLaneKey());
+                scheduleRetry(operation, e);
                 failed++;
-                // Повертаємо завдання назад в чергу
-                syncQueue.add(task);
+            } finally {
+                inFlight.remove(operation.getSeq());
             }
         }
+        return new int[]{processed, failed};
+    }
 
-        System.out.println(String.format(
-                "[SYNC] Синхронізація завершена. Оброблено: %d, Не вдалося: %d, Залишилось: %d",
-                processed, failed, syncQueue.size()
-        ));
+    private static void acknowledge(SyncOperation operation) {
+        JsonObject record = new JsonObject();
+        record.addProperty("op", "ACK");
+        record.addProperty("seq", operation.getSeq());
+        synchronized (queueLog) {
+            try {
+                queueLog.append(gson.toJson(record));
+            } catch (IOException e) {
+                // Операція вже виконана; після перезапуску вона повториться
+                System.err.println("[SYNC ERROR] Не вдалося підтвердити операцію " + operation.getSeq() +
+                        ": " + e.getMessage());
+            }
+            removePending(operation.getSeq());
+        }
+        acknowledged.incrementAndGet();
+    }
 
-        isSyncing = false;
+    /**
+     * Експоненційна затримка з розкидом: base * 2^(спроба-1), обмежена MAX_BACKOFF_MS,
+     * випадково від половини до повного значення, щоб повтори не йшли хвилею.
+     */
+    private static void scheduleRetry(SyncOperation operation, Exception error) {
+        failures.incrementAndGet();
+        int attempts = operation.getAttempts() + 1;
+        String message = String.valueOf(error.getMessage());
 
-        if (!syncQueue.isEmpty() && !NetworkMonitor.isNetworkAvailable()) {
-            System.out.println("[SYNC] Зупинено через відсутність мережі. Очікування відновлення...");
+        if (attempts >= MAX_ATTEMPTS || error instanceof TerminalSyncException) {
+            moveToDeadLetters(operation, attempts, message);
+            return;
+        }
+
+        long backoff = Math.min(MAX_BACKOFF_MS, BASE_BACKOFF_MS << Math.min(attempts - 1, 30));
+        long delay = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+        long nextAttemptAt = System.currentTimeMillis() + delay;
+
+        JsonObject record = new JsonObject();
+        record.addProperty("op", "RETRY");
+        record.addProperty("seq", operation.getSeq());
+        record.addProperty("attempts", attempts);
+        record.addProperty("nextAttemptAt", nextAttemptAt);
+        record.addProperty("error", message);
+        synchronized (queueLog) {
+            try {
+                queueLog.append(gson.toJson(record));
+            } catch (IOException e) {
+                System.err.println("[SYNC ERROR] Не вдалося зберегти стан повтору: " + e.getMessage());
+            }
+            operation.recordFailure(attempts, nextAttemptAt, message);
+        }
+        System.err.println(String.format("[SYNC ERROR] %s: %s. Спроба %d з %d, повтор через %dмс",
+                operation.getDescription(), message, attempts, MAX_ATTEMPTS, delay));
+    }
+
+    private static void moveToDeadLetters(SyncOperation operation, int attempts, String message) {
+        synchronized (queueLog) {
+            operation.recordFailure(attempts, 0, message);
+            try {
+                queueLog.append(operationRecord("DLQ", operation));
+            } catch (IOException e) {
+                System.err.println("[SYNC ERROR] Не вдалося зберегти недоставлену операцію: " + e.getMessage());
+            }
+            removePending(operation.getSeq());
+            deadLetters.put(operation.getSeq(), operation);
         }
+        deadLettered.incrementAndGet();
+        System.err.println("[SYNC ERROR] Операцію перенесено до недоставлених після " + attempts +
+                " спроб: " + operation.getDescription() + " (" + message + ")");
+    }
+
+    /**
+     * Переписування журналу черги: у новий сегмент записуються лише незавершені
+     * й недоставлені операції (порожня черга - журнал просто скидається).
+     * Збій посередині безпечний: закритий сегмент програється разом з новим.
+     */
+    private static void compactIfNeeded() {
+        synchronized (queueLog) {
+            long records = queueLog.getActiveRecords();
+            long live = pending.size() + deadLetters.size();
+            if (records == 0 || (live > 0 && records < Math.max(COMPACT_MIN_RECORDS, 2L * live))) {
+                return;
+            }
+            try {
+                queueLog.rotate();
+                List<String> liveRecords = new ArrayList<>();
+                for (SyncOperation operation : pending.values()) {
+                    liveRecords.add(operationRecord("ENQ", operation));
+                }
+                for (SyncOperation operation : deadLetters.values()) {
+                    liveRecords.add(operationRecord("DLQ", operation));
+                }
+                if (!liveRecords.isEmpty()) {
+                    queueLog.appendBatch(liveRecords);
+                }
+                queueLog.deleteSealedSegment();
+            } catch (IOException e) {
+                System.err.println("[SYNC ERROR] Помилка компактизації журналу черги: " + e.getMessage());
+            }
+        }
+    }
+
+    // ========== НЕДОСТАВЛЕНІ ОПЕРАЦІЇ ==========
+
+    public static List<SyncOperation> getDeadLetters() {
+        return new ArrayList<>(deadLetters.values());
+    }
+
+    // Повернення недоставленої операції в чергу з нуля спроб
+    public static boolean requeueDeadLetter(long seq) {
+        synchronized (queueLog) {
+            SyncOperation operation = deadLetters.get(seq);
+            if (operation == null) {
+                return false;
+            }
+            JsonObject record = new JsonObject();
+            record.addProperty("op", "REQUEUE");
+            record.addProperty("seq", seq);
+            try {
+                queueLog.append(gson.toJson(record));
+            } catch (IOException e) {
+                System.err.println("[SYNC ERROR] Не вдалося повернути операцію в чергу: " + e.getMessage());
+                return false;
+            }
+            deadLetters.remove(seq);
+            operation.recordFailure(0, 0, null);
+            addPending(operation);
+        }
+        return true;
+    }
+
+    // ========== МЕТРИКИ ==========
+
+    // Файли журналу черги (для резервної копії)
+    public static List<Path> getDataFiles() {
+        return queueLog.getFiles();
     }
 
     public static int getQueueSize() {
-        return syncQueue.size();
+        return pending.size();
     }
 
-    public static void clearQueue() {
-        syncQueue.clear();
+    // Вік найстарішої незавершеної операції, мс (0 - черга порожня)
+    public static long getOldestAgeMillis() {
+        Map.Entry<Long, SyncOperation> oldest = pending.firstEntry();
+        return oldest == null ? 0 : System.currentTimeMillis() - oldest.getValue().getCreatedAt();
+    }
+
+    public static Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queueDepth", pending.size());
+        stats.put("oldestAgeMs", getOldestAgeMillis());
+        stats.put("deadLetters", deadLetters.size());
+        stats.put("enqueued", enqueued.get());
+        stats.put("acknowledged", acknowledged.get());
+        stats.put("failures", failures.get());
+        stats.put("deadLettered", deadLettered.get());
+        stats.put("coalesced", coalesced.get());
+        stats.put("workers", WORKERS);
+        stats.put("batchSize", BATCH_SIZE);
+        stats.put("replayedRecords", replayedRecords);
+        stats.put("replayMs", replayMillis);
+        stats.put("replayRecordsPerSec", replayMillis == 0 ? replayedRecords : replayedRecords * 1000L / replayMillis);
+        stats.put("lastDrainOpsPerSec", String.format("%.1f", lastDrainOpsPerSecond));
+        stats.put("logSizeBytes", queueLog.size());
+        return stats;
+    }
+
+    /**
+     * Очищення незавершених операцій: спершу запис CLEAR у журнал, щоб після
+     * перезапуску очищені операції не повернулися. false - запис не вдався.
+     */
+    public static boolean clearQueue() {
+        synchronized (queueLog) {
+            JsonObject record = new JsonObject();
+            record.addProperty("op", "CLEAR");
+            try {
+                queueLog.append(gson.toJson(record));
+            } catch (IOException e) {
+                System.err.println("[SYNC ERROR] Не вдалося очистити чергу: " + e.getMessage());
+                return false;
+            }
+            pending.clear();
+            latestByEntity.clear();
+            compactIfNeeded();
+        }
         System.out.println("[SYNC] Черга синхронізації очищена");
+        return true;
+    }
+
+    public static boolean isSyncing() {
+        return syncing.get();
     }
 
     public static void forceSync() {
-        if (!isSyncing && NetworkMonitor.isNetworkAvailable()) {
+        if (NetworkMonitor.isNetworkAvailable()) {
             processSyncQueue();
         }
     }
+
+    public static void shutdown() {
+        scheduler.shutdown();
+        workers.shutdown();
+        queueLog.close();
+    }
 }
@@ -0,0 +1,85 @@
+package com.hostel.server;
+
+import com.google.gson.JsonElement;
+import com.hostel.model.Booking;
+import com.hostel.model.Room;
+
+/**
+ * Операція офлайн-черги синхронізації. На відміну від Runnable, операція
+ * серіалізується в журнал черги і переживає перезапуск: тип визначає
+ * обробника, ключ сутності - що саме змінюється, payload - дані операції.
+ */
+public class SyncOperation {
+
+    public enum Type {
+        CREATE_BOOKING, // офлайн-бронювання, створюється на сервері з перевіркою зайнятості
+        SAVE_BOOKING,   // повторне збереження бронювання після помилки сховища
+        UPDATE_BOOKING, // зміна статусу або оплати; payload містить лише змінені поля
+        SAVE_ROOM       // збереження відредагованої кімнати
+    }
+
+    private long seq;
+    private Type type;
+    private String entityKey;
+    private String laneKey;
+    private String description;
+    private long createdAt;
+    private JsonElement payload;
+    // Стан повторних спроб (зберігається записами RETRY)
+    private int attempts;
+    private long nextAttemptAt;
+    private String lastError;
+
+    SyncOperation(long seq, Type type, String entityKey, String laneKey, String description, JsonElement payload) {
+        this.seq = seq;
+        this.type = type;
+        this.entityKey = entityKey;
+        this.laneKey = laneKey;
+        this.description = description;
+        this.createdAt = System.currentTimeMillis();
+        this.payload = payload;
+    }
+
+    public long getSeq() { return seq; }
+
+    public Type getType() { return type; }
+
+    // Наприклад "BOOKING:OFFLINE_BOOK_..." - за ним операції групуються і впорядковуються
+    public String getEntityKey() { return entityKey; }
+
+    // Операції з однаковим ключем виконуються строго по черзі (наприклад "ROOM:R1")
+    public String getLaneKey() { return laneKey != null ? laneKey : entityKey; }
+
+    public String getDescription() { return description; }
+
+    // Час постановки в чергу, мс від епохи
+    public long getCreatedAt() { return createdAt; }
+
+    public JsonElement getPayload() { return payload; }
+
+    public int getAttempts() { return attempts; }
+
+    // Не раніше цього часу (мс від епохи) операцію можна повторити
+    public long getNextAttemptAt() { return nextAttemptAt; }
+
+    public String getLastError() { return lastError; }
+
+    void setPayload(JsonElement payload) {
+        this.payload = payload;
+    }
+
+    void recordFailure(int attempts, long nextAttemptAt, String lastError) {
+        this.attempts = attempts;
+        this.nextAttemptAt = nextAttemptAt;
+        this.lastError = lastError;
+    }
+
+    // Бронювання з payload (для операцій над бронюваннями)
+    public Booking getBooking() {
+        return SyncManager.decode(payload, Booking.class);
+    }
+
+    public Room getRoom() {
+        return SyncManager.decode(payload, Room.class);
+    }
+}
@@ -0,0 +1,93 @@
+package com.hostel.server;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Фонове прибирання даних видалених хостелів. Видалення хостела пише лише
+ * надгробок, а кімнати, бронювання й відгуки знімаються тут порціями: кожна
+ * порція - короткий крок зі своїм записом у журнал, тож інші зміни між
+ * порціями не чекають. Незавершене прибирання продовжується після перезапуску.
+ */
+class TombstoneCollector {
+
+    // Одна порція прибирання: кількість знятих записів, 0 - прибирати нічого, -1 - помилка
+    interface Sweep {
+        int sweep(String hostelId, int limit);
+    }
+
+    private final Sweep sweep;
+    private final int chunkSize;
+    private final ExecutorService executor;
+    private final Set<String> scheduled = ConcurrentHashMap.newKeySet();
+
+    // Метрики
+    private final AtomicLong collectedRecords = new AtomicLong();
+    private final AtomicLong completedHostels = new AtomicLong();
+    private final AtomicLong failedSweeps = new AtomicLong();
+
+    TombstoneCollector(Sweep sweep, int chunkSize) {
+        this.sweep = sweep;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tombstone-collector");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    void schedule(String hostelId) {
+        if (scheduled.add(hostelId)) {
+            executor.execute(() -> collect(hostelId));
+        }
+    }
+
+    private void collect(String hostelId) {
+        try {
+            int removed;
+            do {
+                removed = sweep.sweep(hostelId, chunkSize);
+                if (removed > 0) {
+                    collectedRecords.addAndGet(removed);
+                }
+            } while (removed > 0 && !Thread.currentThread().isInterrupted());
+
+            if (removed == 0) {
+                completedHostels.incrementAndGet();
+            } else if (removed < 0) {
+                // Надгробок лишається в журналі - прибирання повториться після перезапуску
+                failedSweeps.incrementAndGet();
+                System.err.println("[SERVER ERROR] Прибирання даних хостела " + hostelId + " перервано");
+            }
+        } catch (RuntimeException e) {
+            failedSweeps.incrementAndGet();
+            System.err.println("[SERVER ERROR] Помилка прибирання даних хостела " + hostelId + ": " + e.getMessage());
+        } finally {
+            scheduled.remove(hostelId);
+        }
+    }
+
+    Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pending", scheduled.size());
+        stats.put("collectedRecords", collectedRecords.get());
+        stats.put("completedHostels", completedHostels.get());
+        stats.put("failed", failedSweeps.get());
+        return stats;
+    }
+
+    void shutdown() {
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -2,14 +2,66 @@ package com.hostel.service;
 
 import com.hostel.model.Booking;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class BookingCache {
     private Map<String, List<Booking>> userCache = new HashMap<>();
     private Map<String, Booking> bookingCache = new HashMap<>();
     private boolean isCacheLoaded = false;
 
+    // Результати звірки офлайн-бронювань (OFFLINE_BOOK_ -> серверне бронювання), спільні для всіх кешів
+    private static final Map<String, ReconciliationResult> reconciled = new ConcurrentHashMap<>();
+
+    public static void recordReconciliation(ReconciliationResult result) {
+        reconciled.put(result.getOfflineId(), result);
+    }
+
+    public static ReconciliationResult getReconciliation(String offlineId) {
+        return reconciled.get(offlineId);
+    }
+
+    /**
+     * Серверний ID для бронювання: офлайн-ID замінюється на ID, під яким бронювання
+     * збережено при звірці; null - офлайн-бронювання відхилено і на сервері його немає.
+     * Після перезапуску результатів звірки в пам'яті немає - ID виводиться з офлайн-ID.
+     */
+    public static String resolveBookingId(String bookingId) {
+        ReconciliationResult result = reconciled.get(bookingId);
+        if (result == null) {
+            return OfflineBookingReconciler.isOfflineId(bookingId) ?
+                    OfflineBookingReconciler.serverBookingId(bookingId) : bookingId;
+        }
+        return result.getBooking() != null ? result.getBooking().getId() : null;
+    }
+
     public List<Booking> getCachedBookings(String userId) {
-        return userCache.getOrDefault(userId, new ArrayList<>());
+        List<Booking> bookings = userCache.get(userId);
+        if (bookings == null) {
+            return new ArrayList<>();
+        }
+        applyReconciliation(bookings);
+        return new ArrayList<>(bookings);
+    }
+
+    // Заміна офлайн-заглушок результатами звірки
+    private void applyReconciliation(List<Booking> bookings) {
+        if (reconciled.isEmpty()) {
+            return;
+        }
+        for (int i = 0; i < bookings.size(); i++) {
+            Booking placeholder = bookings.get(i);
+            ReconciliationResult result = reconciled.get(placeholder.getId());
+            if (result == null) {
+                continue;
+            }
+            if (result.getBooking() != null) {
+                bookings.set(i, result.getBooking());
+                bookingCache.remove(placeholder.getId());
+                bookingCache.put(result.getBooking().getId(), result.getBooking());
+            } else {
+                placeholder.setStatus(Booking.BookingStatus.CANCELLED);
+            }
+        }
     }
 
     public void cacheBookings(String userId, List<Booking> bookings) {
@@ -24,6 +76,10 @@ public class BookingCache {
     }
 
     public Booking getCachedBooking(String bookingId) {
+        ReconciliationResult result = reconciled.get(bookingId);
+        if (result != null && result.getBooking() != null) {
+            return result.getBooking();
+        }
         return bookingCache.get(bookingId);
     }
 
@@ -19,6 +19,20 @@ public class BookingCreationMenu {
     }
 
     public Booking createBookingForHostel(String hostelId, String clientId, Room selectedRoom) {
+        // Вибір часу заселення
+        LocalDateTime checkIn = selectCheckInTime();
+        if (checkIn == null) return null;
+
+        // Вибір часу виїзду
+        LocalDateTime checkOut = selectCheckOutTime(checkIn);
+        if (checkOut == null) return null;
+
+        return createBookingForHostel(hostelId, clientId, selectedRoom, checkIn, checkOut);
+    }
+
+    // Бронювання на вже обраний період (кімнату обрано серед вільних на цей період)
+    public Booking createBookingForHostel(String hostelId, String clientId, Room selectedRoom,
+                                          LocalDateTime checkIn, LocalDateTime checkOut) {
         System.out.println("\n" + "=".repeat(40));
         System.out.println("СТВОРЕННЯ БРОНЮВАННЯ");
         System.out.println("=".repeat(40));
@@ -33,14 +47,6 @@ public class BookingCreationMenu {
                             ((Client)currentUser).getFullName() : currentUser.getEmail()));
         }
 
-        // Вибір часу заселення
-        LocalDateTime checkIn = selectCheckInTime();
-        if (checkIn == null) return null;
-
-        // Вибір часу виїзду
-        LocalDateTime checkOut = selectCheckOutTime(checkIn);
-        if (checkOut == null) return null;
-
         // Розрахунок ціни
         double price = bookingService.calculatePrice(selectedRoom, checkIn, checkOut);
 
@@ -173,7 +179,7 @@ public class BookingCreationMenu {
                 String.format("%.2f", room.getPricePerHour()) + " грн/год";
     }
 
-    private LocalDateTime selectCheckInTime() {
+    public LocalDateTime selectCheckInTime() {
         System.out.println("\n--- ВИБІР ЧАСУ ЗАСЕЛЕННЯ ---");
 
         while (true) {
@@ -209,7 +215,7 @@ public class BookingCreationMenu {
         }
     }
 
-    private LocalDateTime selectCheckOutTime(LocalDateTime checkIn) {
+    public LocalDateTime selectCheckOutTime(LocalDateTime checkIn) {
         System.out.println("\n--- ВИБІР ЧАСУ ВИЇЗДУ ---");
 
         while (true) {
@@ -0,0 +1,82 @@
+package com.hostel.service;
+
+import com.hostel.model.Booking;
+import com.hostel.utils.BookingExporter;
+import com.hostel.utils.FileManager;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Scanner;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+public class BookingExportMenu {
+    private static final int PREVIEW_ROWS = 10;
+
+    private final Scanner scanner;
+
+    public BookingExportMenu(Scanner scanner) {
+        this.scanner = scanner;
+    }
+
+    /**
+     * Вибір формату і експорт бронювань курсора у директорію експорту.
+     * cursor викликається для кожного проходу, бо курсор одноразовий.
+     */
+    public void exportBookings(String fileName, Supplier<Iterator<Booking>> cursor, Predicate<Booking> filter) {
+        System.out.println("\n--- ЕКСПОРТ ДАНИХ ---");
+        System.out.println("Формати експорту:");
+        System.out.println("1. CSV файл (.csv)");
+        System.out.println("2. JSON Lines файл (.jsonl)");
+        System.out.println("3. Екран (попередній перегляд)");
+
+        System.out.print("\nОберіть формат: ");
+        String choice = scanner.nextLine().trim();
+
+        switch (choice) {
+            case "1" -> exportToFile(fileName, BookingExporter.Format.CSV, cursor.get(), filter);
+            case "2" -> exportToFile(fileName, BookingExporter.Format.JSONL, cursor.get(), filter);
+            case "3" -> preview(cursor.get(), filter);
+            default -> System.out.println("[ERROR] Невірний вибір");
+        }
+    }
+
+    private void exportToFile(String fileName, BookingExporter.Format format,
+                              Iterator<Booking> cursor, Predicate<Booking> filter) {
+        System.out.print("Стиснути файл (gzip)? (так/ні): ");
+        String response = scanner.nextLine().trim().toLowerCase();
+        boolean gzip = response.equals("так") || response.equals("yes") || response.equals("y");
+
+        BookingExporter exporter = new BookingExporter(format, gzip,
+                rows -> System.out.println("[EXPORT] Записано рядків: " + rows));
+        Path target = FileManager.getExportPath(fileName + exporter.getExtension());
+        System.out.println("[INFO] Експорт даних у файл: " + target);
+
+        long startTime = System.currentTimeMillis();
+        try {
+            long rows = exporter.export(cursor, filter, target);
+            System.out.println("✅ Дані експортовано успішно: " + rows + " записів за " +
+                    (System.currentTimeMillis() - startTime) + "мс");
+            System.out.println("[INFO] Файл збережено: " + target.toAbsolutePath());
+        } catch (IOException e) {
+            System.out.println("[ERROR] Помилка експорту: " + e.getMessage());
+        }
+    }
+
+    private void preview(Iterator<Booking> cursor, Predicate<Booking> filter) {
+        BookingExporter exporter = new BookingExporter(BookingExporter.Format.CSV, false, null);
+        int shown = 0;
+        while (shown < PREVIEW_ROWS && cursor.hasNext()) {
+            Booking booking = cursor.next();
+            if (filter == null || filter.test(booking)) {
+                System.out.print(exporter.formatRow(booking));
+                shown++;
+            }
+        }
+        if (shown == 0) {
+            System.out.println("[INFO] Даних для експорту немає");
+        } else {
+            System.out.println("[INFO] Показано перших записів: " + shown);
+        }
+    }
+}
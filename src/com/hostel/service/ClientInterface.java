@@ -1,11 +1,17 @@
 package com.hostel.service;
 
 import com.hostel.model.*;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Scanner;
 import com.hostel.server.FileServer;
+import com.hostel.server.AvailableHostel;
+import com.hostel.server.HostelSearchCriteria;
+import com.hostel.server.HostelSearchPage;
 
 public class ClientInterface {
+    private static final int SEARCH_PAGE_SIZE = 10;
+
     private final Scanner scanner;
     private final HostelService hostelService;
     private final BookingService bookingService;
@@ -107,62 +113,124 @@ public class ClientInterface {
         System.out.print("Введіть назву хостелу або адресу (Enter для всіх): ");
         String query = scanner.nextLine().trim();
 
-        System.out.println("[INFO] Виконується пошук...");
+        // Спочатку період, щоб шукати лише хостели з вільними на нього кімнатами
+        LocalDateTime checkIn = bookingCreationMenu.selectCheckInTime();
+        if (checkIn == null) return;
 
-        List<Hostel> hostels = hostelService.searchHostels(city, query.isEmpty() ? "" : query);
+        LocalDateTime checkOut = bookingCreationMenu.selectCheckOutTime(checkIn);
+        if (checkOut == null) return;
 
-        if (hostels.isEmpty()) {
-            System.out.println("[INFO] Хостелів не знайдено");
-            System.out.println("Можливі причини:");
-            System.out.println("1. Неправильна назва міста");
-            System.out.println("2. Хостели в цьому місті призупинено");
-            System.out.println("3. Відсутнє мережеве з'єднання");
+        HostelSearchCriteria criteria = new HostelSearchCriteria(city, query, checkIn, checkOut);
+        if (!selectRoomFilters(criteria)) {
             return;
         }
 
-        System.out.println("\n[SUCCESS] Знайдено хостелів: " + hostels.size());
-
-        for (int i = 0; i < hostels.size(); i++) {
-            Hostel hostel = hostels.get(i);
-            System.out.println("\n" + (i + 1) + ". " + hostel.getName());
-            System.out.println("   Адреса: " + hostel.getAddress() + ", " + hostel.getCity());
-            System.out.println("   Статус: " + (hostel.isActive() ? "✅ Активний" : "⏸️ Призупинений"));
-
-            System.out.print("   Обрати цей хостел? (так/ні): ");
-            String select = scanner.nextLine().trim().toLowerCase();
+        System.out.println("[INFO] Виконується пошук...");
 
-            if (select.equals("так") || select.equals("yes") || select.equals("y")) {
-                selectHostelForBooking(hostel);
+        int page = 1;
+        while (true) {
+            HostelSearchPage<AvailableHostel> result =
+                    hostelService.searchAvailableHostels(criteria, page, SEARCH_PAGE_SIZE);
+
+            if (result.getTotalCount() == 0) {
+                System.out.println("[INFO] Хостелів з вільними кімнатами не знайдено");
+                System.out.println("Можливі причини:");
+                System.out.println("1. Неправильна назва міста");
+                System.out.println("2. Хостели в цьому місті призупинено");
+                System.out.println("3. На обраний період немає кімнат, що відповідають умовам");
                 return;
             }
-        }
 
-        System.out.println("[INFO] Хостел не обрано");
-    }
+            System.out.println("\n[SUCCESS] Знайдено хостелів: " + result.getTotalCount() +
+                    " (сторінка " + result.getPage() + " з " + result.getTotalPages() + ")");
+
+            List<AvailableHostel> hostels = result.getResults();
+            for (int i = 0; i < hostels.size(); i++) {
+                AvailableHostel available = hostels.get(i);
+                Hostel hostel = available.getHostel();
+                System.out.println("\n" + (i + 1) + ". " + hostel.getName());
+                System.out.println("   Адреса: " + hostel.getAddress() + ", " + hostel.getCity());
+                System.out.println("   Вільних кімнат: " + available.getFreeRooms().size() +
+                        ", від " + available.getCheapestPricePerHour() + " грн/год");
+                if (available.getRating() > 0) {
+                    System.out.println("   Рейтинг: " + String.format("%.1f", available.getRating()) + "/5");
+                }
+            }
 
-    private void selectHostelForBooking(Hostel hostel) {
-        System.out.println("\n--- ВИБІР ХОСТЕЛУ: " + hostel.getName() + " ---");
+            System.out.print("\nНомер хостелу" + (result.hasNextPage() ? ", 'д' - наступна сторінка" : "") +
+                    (result.getPage() > 1 ? ", 'п' - попередня" : "") + ", 0 - відміна: ");
+            String choice = scanner.nextLine().trim().toLowerCase();
+
+            if (choice.equals("д") && result.hasNextPage()) {
+                page++;
+                continue;
+            }
+            if (choice.equals("п") && result.getPage() > 1) {
+                page--;
+                continue;
+            }
+
+            try {
+                int number = Integer.parseInt(choice);
+                if (number >= 1 && number <= hostels.size()) {
+                    selectRoomForBooking(hostels.get(number - 1), checkIn, checkOut);
+                    return;
+                }
+                if (number != 0) {
+                    System.out.println("[ERROR] Невірний вибір");
+                    continue;
+                }
+            } catch (NumberFormatException e) {
+                System.out.println("[ERROR] Невірний вибір");
+                continue;
+            }
 
-        if (!hostel.isActive()) {
-            System.out.println("[ERROR] Цей хостел тимчасово призупинено");
-            System.out.println("Бронювання недоступні");
+            System.out.println("[INFO] Хостел не обрано");
             return;
         }
+    }
 
-        if (!(bookingService instanceof SimpleBookingService)) {
-            System.out.println("[ERROR] Неможливо отримати список кімнат");
-            return;
+    // Необов'язкові фільтри кімнат; false - неправильне введення
+    private boolean selectRoomFilters(HostelSearchCriteria criteria) {
+        System.out.print("Тип кімнати (1 - приватна, 2 - спільна, Enter - будь-який): ");
+        String type = scanner.nextLine().trim();
+        switch (type) {
+            case "1" -> criteria.setRoomType(Room.RoomType.PRIVATE);
+            case "2" -> criteria.setRoomType(Room.RoomType.SHARED);
+            case "" -> { }
+            default -> {
+                System.out.println("[ERROR] Невірний тип кімнати");
+                return false;
+            }
         }
 
-        SimpleBookingService simpleService = (SimpleBookingService) bookingService;
-        List<Room> availableRooms = simpleService.getRoomsByHostel(hostel.getId());
+        try {
+            System.out.print("Мінімальна кількість місць (Enter - без обмеження): ");
+            String capacity = scanner.nextLine().trim();
+            if (!capacity.isEmpty()) {
+                criteria.setMinCapacity(Integer.parseInt(capacity));
+            }
 
-        if (availableRooms.isEmpty()) {
-            System.out.println("[INFO] Наразі немає доступних кімнат у цьому хостелі");
-            return;
+            System.out.print("Максимальна ціна, грн/год (Enter - без обмеження): ");
+            String price = scanner.nextLine().trim();
+            if (!price.isEmpty()) {
+                criteria.setMaxPricePerHour(Double.parseDouble(price.replace(',', '.')));
+            }
+        } catch (NumberFormatException e) {
+            System.out.println("[ERROR] Неправильний формат числа");
+            return false;
         }
+        return true;
+    }
+
+    private void selectRoomForBooking(AvailableHostel available, LocalDateTime checkIn, LocalDateTime checkOut) {
+        Hostel hostel = available.getHostel();
+        System.out.println("\n--- ВИБІР ХОСТЕЛУ: " + hostel.getName() + " ---");
+
+        // Кімнати вже відібрані пошуком: відповідають умовам і вільні на період
+        List<Room> availableRooms = available.getFreeRooms();
 
-        System.out.println("\nДоступні кімнати:");
+        System.out.println("\nВільні кімнати на обраний період:");
         for (int i = 0; i < availableRooms.size(); i++) {
             Room room = availableRooms.get(i);
             String type = room.getType() == Room.RoomType.PRIVATE ? "Приватна" : "Спільна";
@@ -199,7 +267,7 @@ public class ClientInterface {
 
             System.out.println("[INFO] Перехід до створення бронювання...");
             Booking booking = bookingCreationMenu.createBookingForHostel(
-                    hostel.getId(), clientId, selectedRoom);
+                    hostel.getId(), clientId, selectedRoom, checkIn, checkOut);
 
             if (booking != null) {
                 System.out.println("[SUCCESS] Бронювання створено!");
@@ -0,0 +1,30 @@
+package com.hostel.service;
+
+import java.util.List;
+
+// Виведення повідомлень у консоль (канал за замовчуванням)
+public class ConsoleNotificationSink implements NotificationSink {
+
+    @Override
+    public String getName() {
+        return "console";
+    }
+
+    @Override
+    public void deliver(List<Notification> digest) {
+        Notification first = digest.get(0);
+        StringBuilder text = new StringBuilder()
+                .append("[NOTIFICATION TO ").append(first.getRecipient()).append(' ')
+                .append(first.getRecipientId()).append("] ");
+        if (digest.size() == 1) {
+            text.append(first.getMessage());
+        } else {
+            text.append("Повідомлень: ").append(digest.size());
+            for (Notification notification : digest) {
+                text.append(System.lineSeparator()).append("  - ").append(notification.getMessage());
+            }
+        }
+        // Один виклик println, щоб рядки дайджесту не перемішувались з іншим виводом
+        System.out.println(text);
+    }
+}
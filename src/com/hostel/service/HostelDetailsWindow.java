@@ -2,15 +2,26 @@ package com.hostel.service;
 
 import com.hostel.model.*;
 import com.hostel.server.FileServer;
+import com.hostel.server.HostelStats;
+import com.hostel.server.RatingStats;
+import com.hostel.server.RevenueReport;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Scanner;
 
 public class HostelDetailsWindow {
+    private static final DateTimeFormatter PERIOD_FORMAT = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm");
+
     private final Scanner scanner;
     private final HostelService hostelService;
     private final BookingService bookingService;
     private final SimpleReviewService reviewService;
     private final HostelEditMenu hostelEditMenu;
+    private final BookingExportMenu exportMenu;
 
     public HostelDetailsWindow(Scanner scanner, HostelService hostelService,
                                BookingService bookingService) {
@@ -19,6 +30,7 @@ public class HostelDetailsWindow {
         this.bookingService = bookingService;
         this.reviewService = new SimpleReviewService();
         this.hostelEditMenu = new HostelEditMenu(scanner, hostelService, bookingService);
+        this.exportMenu = new BookingExportMenu(scanner);
     }
 
     public void displayHostelDetails(Hostel hostel) {
@@ -87,7 +99,7 @@ public class HostelDetailsWindow {
         System.out.println("Приватних кімнат: " + privateRooms);
         System.out.println("Спільних кімнат: " + sharedRooms);
         System.out.println("Всього місць: " + totalBeds);
-        System.out.println("Доступних кімнат: " + availableRooms + " з " + rooms.size());
+        System.out.println("Відкритих для бронювання кімнат: " + availableRooms + " з " + rooms.size());
 
         if (minPrice != Double.MAX_VALUE) {
             System.out.println("\n--- ЦІНИ ---");
@@ -109,7 +121,7 @@ public class HostelDetailsWindow {
                 System.out.println("   Тип: " + (room.getType() == Room.RoomType.PRIVATE ? "Приватна" : "Спільна"));
                 System.out.println("   Місць: " + room.getCapacity());
                 System.out.println("   Ціна: " + room.getPricePerHour() + " грн/год");
-                System.out.println("   Статус: " + (room.isAvailable() ? "✅ Доступна" : "❌ Заброньована"));
+                System.out.println("   Статус: " + (room.isAvailable() ? "✅ Відкрита для бронювання" : "❌ Закрита"));
             }
         }
     }
@@ -117,37 +129,20 @@ public class HostelDetailsWindow {
     private void showStatistics(Hostel hostel) {
         System.out.println("\n--- СТАТИСТИКА ---");
 
-        List<Booking> bookings = bookingService.getHostelBookings(hostel.getId());
+        // Готові лічильники сервера замість перебору всіх бронювань
+        HostelStats stats = FileServer.getHostelStats(hostel.getId());
+        long total = stats.getTotalBookings();
 
-        if (bookings.isEmpty()) {
+        if (total == 0) {
             System.out.println("[INFO] Бронювань немає");
             return;
         }
 
-        int total = bookings.size();
-        int active = 0;
-        int completed = 0;
-        int cancelled = 0;
-        double totalRevenue = 0;
-        double pendingRevenue = 0;
-
-        for (Booking booking : bookings) {
-            switch (booking.getStatus()) {
-                case ACTIVE -> {
-                    active++;
-                    if (booking.getPaymentStatus() == Booking.PaymentStatus.UNPAID) {
-                        pendingRevenue += booking.getTotalPrice();
-                    }
-                }
-                case COMPLETED -> {
-                    completed++;
-                    if (booking.getPaymentStatus() == Booking.PaymentStatus.PAID) {
-                        totalRevenue += booking.getTotalPrice();
-                    }
-                }
-                case CANCELLED -> cancelled++;
-            }
-        }
+        long active = stats.getActiveBookings();
+        long completed = stats.getCompletedBookings();
+        long cancelled = stats.getCancelledBookings();
+        double totalRevenue = stats.getPaidRevenue();
+        double pendingRevenue = stats.getPendingRevenue();
 
         System.out.println("Всього бронювань: " + total);
         System.out.println("Активні: " + active);
@@ -381,17 +376,19 @@ public class HostelDetailsWindow {
     private void showReviews(Hostel hostel) {
         System.out.println("\n--- ВІДГУКИ ---");
 
-        double avgRating = reviewService.getAverageRatingForHostel(hostel.getId());
-        List<Review> reviews = reviewService.getReviewsForHostel(hostel.getId());
+        RatingStats ratings = reviewService.getRatingStats(hostel.getId());
 
-        if (reviews.isEmpty()) {
+        if (ratings.getCount() == 0) {
             System.out.println("[INFO] Відгуків поки що немає");
             return;
         }
 
+        double avgRating = ratings.getAverage();
         System.out.println("Середній рейтинг: " + getStars((int)Math.round(avgRating)) +
                 " (" + String.format("%.1f", avgRating) + "/5)");
-        System.out.println("Всього відгуків: " + reviews.size());
+        System.out.println("Всього відгуків: " + ratings.getCount());
+
+        List<Review> reviews = reviewService.getReviewsForHostel(hostel.getId());
 
         // Останні 5 відгуків
         int limit = Math.min(reviews.size(), 5);
@@ -491,46 +488,44 @@ public class HostelDetailsWindow {
     private void viewAccountingData(Hostel hostel) {
         System.out.println("\n--- ДАНІ ОБЛІКУ ---");
         System.out.println("Хостел: " + hostel.getName());
-        System.out.println("Період: останні 30 днів");
-
-        // Отримання даних
-        List<Booking> bookings = bookingService.getHostelBookings(hostel.getId());
 
-        if (bookings.isEmpty()) {
-            System.out.println("[INFO] Даних обліку немає");
+        LocalDateTime[] period = selectAccountingPeriod();
+        if (period == null) {
             return;
         }
 
-        // Фільтрація за останні 30 днів
-        java.time.LocalDateTime monthAgo = java.time.LocalDateTime.now().minusDays(30);
-        List<Booking> recentBookings = new java.util.ArrayList<>();
-        double recentRevenue = 0;
+        // Показники беруться із серверних зведень, бронювання не перебираються
+        RevenueReport report = FileServer.getRevenueReport(hostel.getId(), period[0], period[1]);
+        System.out.println("Період: " + report.getFrom().format(PERIOD_FORMAT) + " - " +
+                report.getTo().format(PERIOD_FORMAT));
 
-        for (Booking booking : bookings) {
-            if (booking.getCreatedAt().isAfter(monthAgo) &&
-                    booking.getStatus() == Booking.BookingStatus.COMPLETED &&
-                    booking.getPaymentStatus() == Booking.PaymentStatus.PAID) {
-                recentBookings.add(booking);
-                recentRevenue += booking.getTotalPrice();
-            }
+        if (report.getBookings() == 0) {
+            System.out.println("[INFO] Даних обліку за період немає");
+            return;
         }
 
         System.out.println("\nФінансові показники:");
-        System.out.println("  Доходи за місяць: " + String.format("%.2f", recentRevenue) + " грн");
+        System.out.println("  Завершених оплачених бронювань: " + report.getBookings());
+        System.out.println("  Доходи за період: " + String.format("%.2f", report.getRevenue()) + " грн");
         System.out.println("  Середній дохід на день: " +
-                String.format("%.2f", recentRevenue / 30) + " грн");
+                String.format("%.2f", report.getAverageDailyRevenue()) + " грн");
 
         // Статистика по днях тижня
-        int[] daysCount = new int[7];
-        for (Booking booking : recentBookings) {
-            int dayOfWeek = booking.getCreatedAt().getDayOfWeek().getValue() - 1; // 0 = Monday
-            daysCount[dayOfWeek]++;
-        }
-
         String[] days = {"Пн", "Вт", "Ср", "Чт", "Пт", "Сб", "Нд"};
         System.out.println("\nАктивність по днях тижня:");
-        for (int i = 0; i < 7; i++) {
-            System.out.println("  " + days[i] + ": " + daysCount[i] + " бронювань");
+        for (DayOfWeek day : DayOfWeek.values()) {
+            System.out.println("  " + days[day.getValue() - 1] + ": " + report.getBookings(day) +
+                    " бронювань, " + String.format("%.2f", report.getRevenue(day)) + " грн");
+        }
+
+        // Статистика по годинах доби (лише години з бронюваннями)
+        System.out.println("\nАктивність по годинах доби:");
+        for (int hour = 0; hour < 24; hour++) {
+            if (report.getBookingsByHour(hour) > 0) {
+                System.out.println("  " + String.format("%02d:00", hour) + ": " +
+                        report.getBookingsByHour(hour) + " бронювань, " +
+                        String.format("%.2f", report.getRevenueByHour(hour)) + " грн");
+            }
         }
 
         // Експорт даних
@@ -538,36 +533,67 @@ public class HostelDetailsWindow {
         String export = scanner.nextLine().trim().toLowerCase();
 
         if (export.equals("так") || export.equals("yes") || export.equals("y")) {
-            exportAccountingData(hostel, recentBookings, recentRevenue);
+            exportAccountingData(hostel, report);
         }
     }
 
-    private void exportAccountingData(Hostel hostel, List<Booking> bookings, double revenue) {
-        System.out.println("\n--- ЕКСПОРТ ДАНИХ ---");
-        System.out.println("Формати експорту:");
-        System.out.println("1. Текстовий файл (.txt)");
-        System.out.println("2. CSV файл (.csv)");
-        System.out.println("3. Екран (попередній перегляд)");
-
-        System.out.print("\nОберіть формат: ");
-        String format = scanner.nextLine().trim();
-
-        String filename = "accounting_" + hostel.getId() + "_" +
-                java.time.LocalDate.now() +
-                (format.equals("1") ? ".txt" : format.equals("2") ? ".csv" : "");
-
-        System.out.println("[INFO] Експорт даних у файл: " + filename);
+    // {початок, кінець} періоду обліку або null, якщо вибір скасовано
+    private LocalDateTime[] selectAccountingPeriod() {
+        System.out.println("\nПеріод обліку:");
+        System.out.println("1. Останні 7 днів");
+        System.out.println("2. Останні 30 днів");
+        System.out.println("3. Останні 365 днів");
+        System.out.println("4. Власний період");
+        System.out.print("Ваш вибір (Enter - 30 днів): ");
+        String choice = scanner.nextLine().trim();
 
-        // Імітація експорту
-        try {
-            Thread.sleep(1500);
-            System.out.println("✅ Дані експортовано успішно");
-            System.out.println("[INFO] Файл збережено в директорії програми");
-        } catch (InterruptedException e) {
-            System.out.println("[ERROR] Помилка експорту");
+        LocalDateTime now = LocalDateTime.now();
+        switch (choice) {
+            case "1" -> {
+                return new LocalDateTime[]{now.minusDays(7), now};
+            }
+            case "", "2" -> {
+                return new LocalDateTime[]{now.minusDays(30), now};
+            }
+            case "3" -> {
+                return new LocalDateTime[]{now.minusDays(365), now};
+            }
+            case "4" -> {
+                try {
+                    System.out.print("Початкова дата (РРРР-ММ-ДД): ");
+                    LocalDate start = LocalDate.parse(scanner.nextLine().trim());
+                    System.out.print("Кінцева дата включно (РРРР-ММ-ДД): ");
+                    LocalDate end = LocalDate.parse(scanner.nextLine().trim());
+                    if (end.isBefore(start)) {
+                        System.out.println("[ERROR] Кінцева дата раніше початкової");
+                        return null;
+                    }
+                    return new LocalDateTime[]{start.atStartOfDay(), end.plusDays(1).atStartOfDay()};
+                } catch (DateTimeParseException e) {
+                    System.out.println("[ERROR] Неправильний формат дати");
+                    return null;
+                }
+            }
+            default -> {
+                System.out.println("[ERROR] Невірний вибір");
+                return null;
+            }
         }
     }
 
+    private void exportAccountingData(Hostel hostel, RevenueReport report) {
+        // Ті самі бронювання, що й у звіті: завершені, оплачені, створені в періоді
+        String fileName = "accounting_" + hostel.getId() + "_" +
+                report.getFrom().toLocalDate() + "_" + report.getTo().toLocalDate();
+        exportMenu.exportBookings(fileName,
+                () -> FileServer.openBookingCursor(List.of(hostel.getId())),
+                booking -> booking.getStatus() == Booking.BookingStatus.COMPLETED &&
+                        booking.getPaymentStatus() == Booking.PaymentStatus.PAID &&
+                        booking.getCreatedAt() != null &&
+                        !booking.getCreatedAt().isBefore(report.getFrom()) &&
+                        booking.getCreatedAt().isBefore(report.getTo()));
+    }
+
     private void viewActiveBookings(Hostel hostel) {
         System.out.println("\n--- АКТИВНІ БРОНЮВАННЯ ---");
 
@@ -806,20 +832,12 @@ public class HostelDetailsWindow {
 
         // Статистика
         System.out.println("\n--- СТАТИСТИКА ВІДГУКІВ ---");
-        double avgRating = reviewService.getAverageRatingForHostel(hostel.getId());
-        System.out.println("Середній рейтинг: " + String.format("%.1f", avgRating) + "/5");
-
-        int[] ratingCount = new int[5];
-        for (Review review : reviews) {
-            if (review.getRating() >= 1 && review.getRating() <= 5) {
-                ratingCount[review.getRating() - 1]++;
-            }
-        }
+        RatingStats ratings = reviewService.getRatingStats(hostel.getId());
+        System.out.println("Середній рейтинг: " + String.format("%.1f", ratings.getAverage()) + "/5");
 
-        for (int i = 4; i >= 0; i--) {
-            double percentage = (double) ratingCount[i] / reviews.size() * 100;
-            System.out.println((i + 1) + " зірок: " + ratingCount[i] + " (" +
-                    String.format("%.1f", percentage) + "%)");
+        for (int stars = RatingStats.MAX_STARS; stars >= 1; stars--) {
+            System.out.println(stars + " зірок: " + ratings.getCount(stars) + " (" +
+                    String.format("%.1f", ratings.getPercentage(stars)) + "%)");
         }
     }
 }
\ No newline at end of file
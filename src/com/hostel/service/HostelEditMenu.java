@@ -1,7 +1,6 @@
 package com.hostel.service;
 
 import com.hostel.model.*;
-import com.hostel.server.FileServer;
 import java.util.List;
 import java.util.Scanner;
 
@@ -208,7 +207,7 @@ public class HostelEditMenu {
             System.out.println("   Тип: " + (room.getType() == Room.RoomType.PRIVATE ? "Приватна" : "Спільна"));
             System.out.println("   Місць: " + room.getCapacity());
             System.out.println("   Ціна: " + room.getPricePerHour() + " грн/год");
-            System.out.println("   Статус: " + (room.isAvailable() ? "✅ Доступна" : "❌ Заброньована"));
+            System.out.println("   Статус: " + (room.isAvailable() ? "✅ Відкрита для бронювання" : "❌ Закрита"));
         }
     }
 
@@ -347,8 +346,10 @@ public class HostelEditMenu {
                 default -> System.out.println("[ERROR] Невірний вибір");
             }
 
-            // Оновлення кімнати на сервері
-            FileServer.saveRoom(room);
+            // Оновлення кімнати на сервері (офлайн - через чергу синхронізації)
+            if (!choice.equals("0") && !service.updateRoom(room)) {
+                System.out.println("[ERROR] Не вдалося зберегти зміни кімнати");
+            }
         }
     }
 
@@ -1,6 +1,9 @@
 package com.hostel.service;
 
 import com.hostel.model.Hostel;
+import com.hostel.server.AvailableHostel;
+import com.hostel.server.HostelSearchCriteria;
+import com.hostel.server.HostelSearchPage;
 import java.util.List;
 
 public interface HostelService {
@@ -16,6 +19,10 @@ public interface HostelService {
 
     List<Hostel> searchHostels(String city, String query);
 
+    HostelSearchPage<Hostel> searchHostels(String city, String query, int page, int pageSize);
+
+    HostelSearchPage<AvailableHostel> searchAvailableHostels(HostelSearchCriteria criteria, int page, int pageSize);
+
     boolean suspendHostel(String hostelId);
 
     boolean activateHostel(String hostelId);
@@ -0,0 +1,55 @@
+package com.hostel.service;
+
+import com.hostel.model.User;
+import com.hostel.server.FileServer;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Замінник SMTP: кожен дайджест стає листом .eml у hostel_data/outbox/mail/.
+ * Лист з'являється атомарно (запис у тимчасовий файл і перейменування),
+ * тому поштовий ретранслятор може забирати файли з директорії без блокувань.
+ */
+public class MailOutboxSink implements NotificationSink {
+    private static final Path MAIL_DIR = Paths.get("hostel_data/outbox/mail");
+    private static final String SENDER = "noreply@hostel.local";
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Override
+    public String getName() {
+        return "mail";
+    }
+
+    @Override
+    public void deliver(List<Notification> digest) throws IOException {
+        Notification first = digest.get(0);
+        User user = FileServer.getUserById(first.getRecipientId());
+        String to = user != null && user.getEmail() != null ? user.getEmail() :
+                first.getRecipientId() + "@hostel.local";
+        String subject = digest.size() == 1 ? "Повідомлення системи хостелів" :
+                "Повідомлення системи хостелів (" + digest.size() + ")";
+
+        StringBuilder mail = new StringBuilder()
+                .append("From: ").append(SENDER).append("\r\n")
+                .append("To: ").append(to).append("\r\n")
+                .append("Subject: ").append(subject).append("\r\n")
+                .append("Date: ").append(ZonedDateTime.now().format(DateTimeFormatter.RFC_1123_DATE_TIME)).append("\r\n")
+                .append("Content-Type: text/plain; charset=UTF-8\r\n")
+                .append("\r\n");
+        for (Notification notification : digest) {
+            mail.append(notification.getMessage()).append("\r\n");
+        }
+
+        Files.createDirectories(MAIL_DIR);
+        String name = System.currentTimeMillis() + "_" + sequence.incrementAndGet() + ".eml";
+        Path temp = MAIL_DIR.resolve(name + ".tmp");
+        Files.write(temp, mail.toString().getBytes(StandardCharsets.UTF_8));
+        Files.move(temp, MAIL_DIR.resolve(name), StandardCopyOption.ATOMIC_MOVE);
+    }
+}
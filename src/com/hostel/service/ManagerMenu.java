@@ -2,9 +2,12 @@ package com.hostel.service;
 
 import com.hostel.model.*;
 import com.hostel.server.FileServer;
+import com.hostel.server.HostelStats;
+import com.hostel.server.RatingStats;
 import java.util.List;
 import java.util.Scanner;
 import com.hostel.server.SyncManager;
+import com.hostel.server.SyncOperation;
 
 public class ManagerMenu {
     private final Scanner scanner;
@@ -12,6 +15,7 @@ public class ManagerMenu {
     private final BookingService bookingService;
     private final AuthenticationService authService;
     private final HostelDetailsWindow hostelDetailsWindow;
+    private final BookingExportMenu exportMenu;
     private User currentManager;
 
     public ManagerMenu(Scanner scanner, HostelService hostelService,
@@ -21,6 +25,7 @@ public class ManagerMenu {
         this.bookingService = bookingService;
         this.authService = authService;
         this.hostelDetailsWindow = new HostelDetailsWindow(scanner, hostelService, bookingService);
+        this.exportMenu = new BookingExportMenu(scanner);
     }
 
     public void setCurrentManager(User manager) {
@@ -60,7 +65,9 @@ public class ManagerMenu {
                 case "6" -> logout();
                 case "0" -> stayInMenu = false;
                 case "sync" -> SyncManager.forceSync(); // Прихована команда
+                case "sync-dlq" -> manageDeadLetters(); // Прихована команда
                 case "network" -> toggleNetwork(); // Прихована команда
+                case "storage-bench" -> FileServer.runStorageBenchmark(); // Прихована команда
                 default -> System.out.println("[ERROR] Невірний вибір");
             }
         }
@@ -286,42 +293,27 @@ public class ManagerMenu {
     private void viewHostelBookings(Hostel hostel) {
         System.out.println("\n--- БРОНЮВАННЯ ХОСТЕЛУ ---");
 
-        List<Booking> bookings = bookingService.getHostelBookings(hostel.getId());
+        HostelStats stats = FileServer.getHostelStats(hostel.getId());
 
-        if (bookings.isEmpty()) {
+        if (stats.getTotalBookings() == 0) {
             System.out.println("[INFO] Бронювань немає");
             return;
         }
 
-        System.out.println("Всього бронювань: " + bookings.size());
-
-        int active = 0, completed = 0, cancelled = 0;
-        double totalRevenue = 0;
-
-        for (Booking booking : bookings) {
-            switch (booking.getStatus()) {
-                case ACTIVE -> active++;
-                case COMPLETED -> {
-                    completed++;
-                    if (booking.getPaymentStatus() == Booking.PaymentStatus.PAID) {
-                        totalRevenue += booking.getTotalPrice();
-                    }
-                }
-                case CANCELLED -> cancelled++;
-            }
-        }
+        System.out.println("Всього бронювань: " + stats.getTotalBookings());
 
         System.out.println("\nСтатистика:");
-        System.out.println("Активні: " + active);
-        System.out.println("Завершені: " + completed);
-        System.out.println("Скасовані: " + cancelled);
-        System.out.println("Загальний дохід: " + String.format("%.2f", totalRevenue) + " грн");
+        System.out.println("Активні: " + stats.getActiveBookings());
+        System.out.println("Завершені: " + stats.getCompletedBookings());
+        System.out.println("Скасовані: " + stats.getCancelledBookings());
+        System.out.println("Загальний дохід: " + String.format("%.2f", stats.getPaidRevenue()) + " грн");
 
-        // Детальний перегляд
+        // Детальний перегляд (список завантажується лише за потреби)
         System.out.print("\nПереглянути детальний список? (так/ні): ");
         String viewDetails = scanner.nextLine().trim().toLowerCase();
 
         if (viewDetails.equals("так") || viewDetails.equals("yes") || viewDetails.equals("y")) {
+            List<Booking> bookings = bookingService.getHostelBookings(hostel.getId());
             System.out.println("\nДетальний список бронювань:");
 
             for (int i = 0; i < bookings.size(); i++) {
@@ -341,27 +333,15 @@ public class ManagerMenu {
         System.out.println("\n--- СТАТИСТИКА ХОСТЕЛУ ---");
         System.out.println("Хостел: " + hostel.getName());
 
-        // Отримання даних з сервера
-        List<Booking> bookings = bookingService.getHostelBookings(hostel.getId());
-        List<Review> reviews = FileServer.getReviewsForHostel(hostel.getId());
-
-        // Розрахунок статистики
-        int totalBookings = bookings.size();
-        int activeBookings = 0;
-        int completedBookings = 0;
-        double totalRevenue = 0;
-        double avgRating = FileServer.getAverageRatingForHostel(hostel.getId());
-
-        for (Booking booking : bookings) {
-            if (booking.getStatus() == Booking.BookingStatus.ACTIVE) {
-                activeBookings++;
-            } else if (booking.getStatus() == Booking.BookingStatus.COMPLETED) {
-                completedBookings++;
-                if (booking.getPaymentStatus() == Booking.PaymentStatus.PAID) {
-                    totalRevenue += booking.getTotalPrice();
-                }
-            }
-        }
+        // Отримання даних з сервера (лічильники підтримуються сервером)
+        HostelStats stats = FileServer.getHostelStats(hostel.getId());
+        RatingStats ratings = FileServer.getRatingStats(hostel.getId());
+
+        long totalBookings = stats.getTotalBookings();
+        long activeBookings = stats.getActiveBookings();
+        long completedBookings = stats.getCompletedBookings();
+        double totalRevenue = stats.getPaidRevenue();
+        double avgRating = ratings.getAverage();
 
         // Виведення статистики
         System.out.println("\nОсновні показники:");
@@ -376,10 +356,17 @@ public class ManagerMenu {
         }
 
         System.out.println("\nВідгуки та рейтинги:");
-        System.out.println("Всього відгуків: " + reviews.size());
+        System.out.println("Всього відгуків: " + ratings.getCount());
         System.out.println("Середній рейтинг: " + String.format("%.1f", avgRating) + " / 5");
 
-        if (!reviews.isEmpty()) {
+        if (ratings.getCount() > 0) {
+            for (int stars = RatingStats.MAX_STARS; stars >= 1; stars--) {
+                System.out.println(stars + " зірок: " + ratings.getCount(stars) + " (" +
+                        String.format("%.1f", ratings.getPercentage(stars)) + "%)");
+            }
+
+            // Список потрібен лише для останніх відгуків
+            List<Review> reviews = FileServer.getReviewsForHostel(hostel.getId());
             System.out.println("\nОстанні відгуки:");
             int limit = Math.min(reviews.size(), 3);
             for (int i = 0; i < limit; i++) {
@@ -483,25 +470,12 @@ public class ManagerMenu {
             return;
         }
 
-        int totalBookings = 0;
-        double totalRevenue = 0;
-
-        for (Hostel hostel : hostels) {
-            List<Booking> bookings = bookingService.getHostelBookings(hostel.getId());
-            totalBookings += bookings.size();
-
-            for (Booking booking : bookings) {
-                if (booking.getStatus() == Booking.BookingStatus.COMPLETED &&
-                        booking.getPaymentStatus() == Booking.PaymentStatus.PAID) {
-                    totalRevenue += booking.getTotalPrice();
-                }
-            }
-        }
+        HostelStats managerStats = FileServer.getManagerStats(currentManager.getId());
 
         System.out.println("Загальна статистика:");
         System.out.println("Хостелів: " + hostels.size());
-        System.out.println("Всього бронювань: " + totalBookings);
-        System.out.println("Загальний дохід: " + String.format("%.2f", totalRevenue) + " грн");
+        System.out.println("Всього бронювань: " + managerStats.getTotalBookings());
+        System.out.println("Загальний дохід: " + String.format("%.2f", managerStats.getPaidRevenue()) + " грн");
 
         // Детальний перегляд по хостелах
         System.out.print("\nПереглянути деталі по хостелах? (так/ні): ");
@@ -510,31 +484,25 @@ public class ManagerMenu {
         if (viewDetails.equals("так") || viewDetails.equals("yes") || viewDetails.equals("y")) {
             for (Hostel hostel : hostels) {
                 System.out.println("\nХостел: " + hostel.getName());
-                List<Booking> bookings = bookingService.getHostelBookings(hostel.getId());
-
-                int active = 0, completed = 0, cancelled = 0;
-                double revenue = 0;
-
-                for (Booking booking : bookings) {
-                    switch (booking.getStatus()) {
-                        case ACTIVE -> active++;
-                        case COMPLETED -> {
-                            completed++;
-                            if (booking.getPaymentStatus() == Booking.PaymentStatus.PAID) {
-                                revenue += booking.getTotalPrice();
-                            }
-                        }
-                        case CANCELLED -> cancelled++;
-                    }
-                }
+                HostelStats stats = FileServer.getHostelStats(hostel.getId());
 
-                System.out.println("  Бронювань: " + bookings.size());
-                System.out.println("  Активні: " + active);
-                System.out.println("  Завершені: " + completed);
-                System.out.println("  Скасовані: " + cancelled);
-                System.out.println("  Дохід: " + String.format("%.2f", revenue) + " грн");
+                System.out.println("  Бронювань: " + stats.getTotalBookings());
+                System.out.println("  Активні: " + stats.getActiveBookings());
+                System.out.println("  Завершені: " + stats.getCompletedBookings());
+                System.out.println("  Скасовані: " + stats.getCancelledBookings());
+                System.out.println("  Дохід: " + String.format("%.2f", stats.getPaidRevenue()) + " грн");
             }
         }
+
+        // Експорт усіх бронювань мережі потоком, без завантаження в список
+        System.out.print("\nЕкспортувати бронювання всіх хостелів? (так/ні): ");
+        String export = scanner.nextLine().trim().toLowerCase();
+
+        if (export.equals("так") || export.equals("yes") || export.equals("y")) {
+            String managerId = currentManager.getId();
+            exportMenu.exportBookings("bookings_" + managerId + "_" + java.time.LocalDate.now(),
+                    () -> FileServer.openManagerBookingCursor(managerId), null);
+        }
     }
 
     private void viewServerStats() {
@@ -569,4 +537,47 @@ public class ManagerMenu {
         System.out.println("[INFO] Статус мережі змінено на: " +
                 (NetworkMonitor.isNetworkAvailable() ? "Онлайн" : "Офлайн"));
     }
+
+    // Перегляд операцій синхронізації, які вичерпали спроби, і повернення їх у чергу
+    private void manageDeadLetters() {
+        List<SyncOperation> deadLetters = SyncManager.getDeadLetters();
+        if (deadLetters.isEmpty()) {
+            System.out.println("[INFO] Недоставлених операцій немає");
+            return;
+        }
+
+        System.out.println("\n--- НЕДОСТАВЛЕНІ ОПЕРАЦІЇ СИНХРОНІЗАЦІЇ ---");
+        for (SyncOperation operation : deadLetters) {
+            System.out.println(String.format("#%d %s [%s] спроб: %d, помилка: %s",
+                    operation.getSeq(), operation.getDescription(), operation.getEntityKey(),
+                    operation.getAttempts(), operation.getLastError()));
+        }
+
+        System.out.print("\nНомер операції для повтору ('все' - усі, Enter - назад): ");
+        String input = scanner.nextLine().trim();
+        if (input.isEmpty()) {
+            return;
+        }
+
+        int requeued = 0;
+        try {
+            if (input.equalsIgnoreCase("все")) {
+                for (SyncOperation operation : deadLetters) {
+                    if (SyncManager.requeueDeadLetter(operation.getSeq())) {
+                        requeued++;
+                    }
+                }
+            } else if (SyncManager.requeueDeadLetter(Long.parseLong(input))) {
+                requeued++;
+            }
+        } catch (NumberFormatException e) {
+            System.out.println("[ERROR] Невірний номер операції");
+            return;
+        }
+
+        System.out.println("[INFO] Повернуто в чергу: " + requeued);
+        if (requeued > 0) {
+            SyncManager.forceSync();
+        }
+    }
 }
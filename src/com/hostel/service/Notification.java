@@ -0,0 +1,44 @@
+package com.hostel.service;
+
+// Повідомлення клієнту або менеджеру, що чекає на доставку
+public class Notification {
+
+    public enum Recipient {
+        CLIENT,
+        MANAGER
+    }
+
+    private final Recipient recipient;
+    private final String recipientId;
+    private final String message;
+    private final long createdAt;
+
+    Notification(Recipient recipient, String recipientId, String message) {
+        this.recipient = recipient;
+        this.recipientId = recipientId;
+        this.message = message;
+        this.createdAt = System.currentTimeMillis();
+    }
+
+    public Recipient getRecipient() {
+        return recipient;
+    }
+
+    public String getRecipientId() {
+        return recipientId;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    // Час створення, мс від епохи
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    // Ключ адресата для групування в дайджести, наприклад "CLIENT:CLIENT_1"
+    String getRecipientKey() {
+        return recipient + ":" + recipientId;
+    }
+}
@@ -0,0 +1,298 @@
+package com.hostel.service;
+
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Асинхронна доставка повідомлень. Відправник лише кладе повідомлення в
+ * обмежену чергу; окремий потік групує їх по адресатах у дайджести, обмежує
+ * частоту доставки і повторює невдалі доставки окремо для кожного каналу.
+ *
+ * Дайджест адресата відправляється не раніше ніж через lingerMs після першого
+ * повідомлення і не частіше одного разу на minIntervalMs, тому серія
+ * повідомлень одному адресату (наприклад, масове скасування) стає одним листом.
+ */
+class NotificationDispatcher {
+    // Налаштування: -Dhostel.notifications.queueCapacity=10000 тощо
+    private static final int QUEUE_CAPACITY = Math.max(1, Integer.getInteger("hostel.notifications.queueCapacity", 10_000));
+    private static final long LINGER_MS = Long.getLong("hostel.notifications.lingerMs", 200);
+    private static final long MIN_INTERVAL_MS = Long.getLong("hostel.notifications.minIntervalMs", 1000);
+    private static final double RATE_PER_SECOND = Math.max(1, Integer.getInteger("hostel.notifications.ratePerSecond", 50));
+    private static final int MAX_ATTEMPTS = Math.max(1, Integer.getInteger("hostel.notifications.maxAttempts", 5));
+    private static final long RETRY_BACKOFF_MS = Long.getLong("hostel.notifications.retryBackoffMs", 500);
+    private static final long SHUTDOWN_TIMEOUT_MS = 5000;
+    private static final long IDLE_WAIT_MS = 60_000;
+    private static final int DRAIN_LIMIT = 1024;
+
+    // Порожній маркер, яким будять потік при зупинці
+    private static final Notification WAKE_UP = new Notification(Notification.Recipient.CLIENT, "", "");
+
+    private static final class Digest {
+        final String key;
+        final long readyAt;
+        final List<Notification> notifications = new ArrayList<>();
+
+        Digest(String key, long readyAt) {
+            this.key = key;
+            this.readyAt = readyAt;
+        }
+    }
+
+    // Невдала доставка дайджесту одним каналом
+    private static final class Retry {
+        final NotificationSink sink;
+        final List<Notification> digest;
+        final int attempt;
+        final long dueAt;
+
+        Retry(NotificationSink sink, List<Notification> digest, int attempt, long dueAt) {
+            this.sink = sink;
+            this.digest = digest;
+            this.attempt = attempt;
+            this.dueAt = dueAt;
+        }
+    }
+
+    private final List<NotificationSink> sinks;
+    private final BlockingQueue<Notification> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+    // Стан потоку доставки - змінюється лише ним
+    private final Map<String, Digest> digests = new HashMap<>();
+    private final PriorityQueue<Digest> readyOrder = new PriorityQueue<>(Comparator.comparingLong(d -> d.readyAt));
+    private final Map<String, Long> lastDeliveredAt = new HashMap<>();
+    private final PriorityQueue<Retry> retries = new PriorityQueue<>(Comparator.comparingLong(r -> r.dueAt));
+    private double tokens = RATE_PER_SECOND;
+    private long tokensUpdatedAt = System.currentTimeMillis();
+
+    // Метрики
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong dispatched = new AtomicLong();
+    private final AtomicLong digestsSent = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong latencySumMs = new AtomicLong();
+    private final AtomicLong maxLatencyMs = new AtomicLong();
+    private final AtomicInteger held = new AtomicInteger();
+
+    private volatile boolean running;
+    private Thread worker;
+
+    NotificationDispatcher(List<NotificationSink> sinks) {
+        this.sinks = sinks;
+    }
+
+    synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::run, "notification-dispatcher");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Постановка в чергу без очікування. Якщо черга переповнена, повідомлення
+     * відкидається (false). Після зупинки потоку доставка йде одразу.
+     */
+    boolean submit(Notification notification) {
+        if (!running) {
+            deliverNow(List.of(notification));
+            return true;
+        }
+        if (!queue.offer(notification)) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        enqueued.incrementAndGet();
+        return true;
+    }
+
+    // Зупинка з доставкою всього накопиченого (не довше SHUTDOWN_TIMEOUT_MS)
+    synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        queue.offer(WAKE_UP);
+        try {
+            worker.join(SHUTDOWN_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        worker = null;
+
+        // Повідомлення, що встигли потрапити в чергу під час зупинки
+        List<Notification> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        rest.remove(WAKE_UP);
+        deliverNow(rest);
+    }
+
+    Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long sent = dispatched.get();
+        stats.put("queued", queue.size() + held.get());
+        stats.put("enqueued", enqueued.get());
+        stats.put("dropped", dropped.get());
+        stats.put("dispatched", sent);
+        stats.put("digests", digestsSent.get());
+        stats.put("retries", retried.get());
+        stats.put("failed", failed.get());
+        stats.put("avgLatencyMs", sent == 0 ? 0 : latencySumMs.get() / sent);
+        stats.put("maxLatencyMs", maxLatencyMs.get());
+        List<String> names = new ArrayList<>();
+        for (NotificationSink sink : sinks) {
+            names.add(sink.getName());
+        }
+        stats.put("sinks", String.join(",", names));
+        return stats;
+    }
+
+    private void run() {
+        List<Notification> batch = new ArrayList<>();
+        // Після зупинки цикл доставляє все накопичене без затримок і лімітів
+        while (running || !queue.isEmpty() || !digests.isEmpty() || !retries.isEmpty()) {
+            long now = System.currentTimeMillis();
+            long wait = running ? nextWakeUp(now) - now : 0;
+            try {
+                Notification first = wait > 0 ? queue.poll(wait, TimeUnit.MILLISECONDS) : queue.poll();
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, DRAIN_LIMIT);
+                }
+            } catch (InterruptedException e) {
+                running = false;
+            }
+
+            now = System.currentTimeMillis();
+            for (Notification notification : batch) {
+                if (notification != WAKE_UP) {
+                    hold(notification);
+                }
+            }
+            batch.clear();
+
+            boolean flush = !running;
+            deliverReady(now, flush);
+            retryDue(now, flush);
+        }
+    }
+
+    private void hold(Notification notification) {
+        String key = notification.getRecipientKey();
+        Digest digest = digests.get(key);
+        if (digest == null) {
+            Long last = lastDeliveredAt.get(key);
+            long readyAt = Math.max(notification.getCreatedAt() + LINGER_MS,
+                    last == null ? 0 : last + MIN_INTERVAL_MS);
+            digest = new Digest(key, readyAt);
+            digests.put(key, digest);
+            readyOrder.add(digest);
+        }
+        digest.notifications.add(notification);
+        held.incrementAndGet();
+    }
+
+    private void deliverReady(long now, boolean flush) {
+        while (!readyOrder.isEmpty() && (flush || readyOrder.peek().readyAt <= now)) {
+            if (!flush && !takeToken(now)) {
+                return;
+            }
+            Digest digest = readyOrder.poll();
+            digests.remove(digest.key);
+            held.addAndGet(-digest.notifications.size());
+            lastDeliveredAt.put(digest.key, now);
+
+            for (Notification notification : digest.notifications) {
+                long latency = now - notification.getCreatedAt();
+                latencySumMs.addAndGet(latency);
+                maxLatencyMs.accumulateAndGet(latency, Math::max);
+            }
+            dispatched.addAndGet(digest.notifications.size());
+            digestsSent.incrementAndGet();
+
+            for (NotificationSink sink : sinks) {
+                deliver(sink, digest.notifications, 1, now);
+            }
+        }
+
+        // Адресати, яким давно нічого не надсилали, вже не обмежені інтервалом
+        if (lastDeliveredAt.size() > DRAIN_LIMIT) {
+            lastDeliveredAt.values().removeIf(last -> last + MIN_INTERVAL_MS <= now);
+        }
+    }
+
+    private void retryDue(long now, boolean flush) {
+        while (!retries.isEmpty() && (flush || retries.peek().dueAt <= now)) {
+            Retry retry = retries.poll();
+            deliver(retry.sink, retry.digest, retry.attempt, now);
+        }
+    }
+
+    private void deliver(NotificationSink sink, List<Notification> digest, int attempt, long now) {
+        try {
+            sink.deliver(digest);
+        } catch (Exception e) {
+            if (attempt >= MAX_ATTEMPTS) {
+                failed.addAndGet(digest.size());
+                System.err.println(String.format("[NOTIFICATIONS ERROR] Канал %s не доставив %d повідомлень після %d спроб: %s",
+                        sink.getName(), digest.size(), attempt, e.getMessage()));
+                return;
+            }
+            retried.incrementAndGet();
+            long backoff = RETRY_BACKOFF_MS << Math.min(attempt - 1, 20);
+            retries.add(new Retry(sink, digest, attempt + 1, now + backoff));
+        }
+    }
+
+    // Загальне обмеження частоти доставки (маркерне відро на RATE_PER_SECOND дайджестів)
+    private boolean takeToken(long now) {
+        tokens = Math.min(RATE_PER_SECOND, tokens + (now - tokensUpdatedAt) * RATE_PER_SECOND / 1000);
+        tokensUpdatedAt = now;
+        if (tokens < 1) {
+            return false;
+        }
+        tokens--;
+        return true;
+    }
+
+    private long nextWakeUp(long now) {
+        long wakeUp = now + IDLE_WAIT_MS;
+        if (!readyOrder.isEmpty()) {
+            long readyAt = readyOrder.peek().readyAt;
+            if (readyAt <= now && tokens < 1) {
+                // Чекаємо на наступний маркер
+                readyAt = now + (long) Math.ceil((1 - tokens) * 1000 / RATE_PER_SECOND);
+            }
+            wakeUp = Math.min(wakeUp, readyAt);
+        }
+        if (!retries.isEmpty()) {
+            wakeUp = Math.min(wakeUp, retries.peek().dueAt);
+        }
+        return wakeUp;
+    }
+
+    // Доставка в потоці відправника: після зупинки диспетчера
+    private void deliverNow(List<Notification> notifications) {
+        Map<String, List<Notification>> byRecipient = new LinkedHashMap<>();
+        for (Notification notification : notifications) {
+            byRecipient.computeIfAbsent(notification.getRecipientKey(), k -> new ArrayList<>()).add(notification);
+        }
+        for (List<Notification> digest : byRecipient.values()) {
+            for (NotificationSink sink : sinks) {
+                try {
+                    sink.deliver(digest);
+                } catch (Exception e) {
+                    failed.addAndGet(digest.size());
+                    System.err.println("[NOTIFICATIONS ERROR] Канал " + sink.getName() + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -1,75 +1,128 @@
 package com.hostel.service;
 
 import com.hostel.model.Booking;
+import com.hostel.model.Hostel;
 import com.hostel.server.FileServer;
-import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
-import java.util.*;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 public class NotificationService {
-    private static Timer reminderTimer;
-    private static Map<String, List<Booking>> pendingReminders = new HashMap<>();
+    // За скільки хвилин до заїзду/виїзду надсилати нагадування
+    private static final long CHECK_IN_LEAD_MINUTES = Long.getLong("hostel.reminders.checkInLeadMinutes", 24 * 60);
+    private static final long CHECK_OUT_LEAD_MINUTES = Long.getLong("hostel.reminders.checkOutLeadMinutes", 60);
+    private static final DateTimeFormatter REMINDER_FORMAT = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm");
 
-    public static void startReminderService() {
-        if (reminderTimer != null) {
-            reminderTimer.cancel();
-        }
+    // Канали доставки: -Dhostel.notifications.sinks=console,outbox,mail
+    private static final NotificationDispatcher dispatcher = new NotificationDispatcher(
+            createSinks(System.getProperty("hostel.notifications.sinks", "console")));
 
-        reminderTimer = new Timer(true);
+    private static final ReminderScheduler reminders = new ReminderScheduler(
+            CHECK_IN_LEAD_MINUTES * 60_000, CHECK_OUT_LEAD_MINUTES * 60_000, NotificationService::sendReminder);
+    private static boolean listening;
 
-        // Перевірка кожні 5 хвилин
-        reminderTimer.scheduleAtFixedRate(new TimerTask() {
-            @Override
-            public void run() {
-                checkBookingReminders();
-            }
-        }, 0, 5 * 60 * 1000); // 5 хвилин
+    static {
+        dispatcher.start();
+    }
 
-        System.out.println("[NOTIFICATIONS] Служба нагадувань запущена");
+    private static List<NotificationSink> createSinks(String names) {
+        List<NotificationSink> sinks = new ArrayList<>();
+        for (String name : names.split(",")) {
+            try {
+                sinks.add(NotificationSink.forName(name));
+            } catch (IllegalArgumentException e) {
+                System.err.println("[NOTIFICATIONS ERROR] " + e.getMessage());
+            }
+        }
+        if (sinks.isEmpty()) {
+            sinks.add(new ConsoleNotificationSink());
+        }
+        return sinks;
     }
 
-    private static void checkBookingReminders() {
-        // Отримуємо всі активні бронювання
-        List<Booking> allBookings = new ArrayList<>();
+    /**
+     * Запуск нагадувань: розклад наповнюється активними бронюваннями один раз,
+     * далі підтримується слухачем змін бронювань на сервері.
+     */
+    public static synchronized void startReminderService() {
+        if (!listening) {
+            // Спершу підписка, потім наповнення: зміни між ними не загубляться
+            FileServer.addBookingListener(new FileServer.BookingListener() {
+                @Override
+                public void bookingChanged(Booking booking) {
+                    reminders.update(booking);
+                }
 
-        // Отримуємо всі хостели та їх бронювання
-        // (тут спрощено, в реальній системі була б оптимізація)
-        FileServer.getServerStats(); // Тільки для ініціалізації
+                @Override
+                public void bookingsChanged(List<Booking> bookings) {
+                    reminders.updateAll(bookings);
+                }
 
-        // Перевіряємо кожне бронювання
-        LocalDateTime now = LocalDateTime.now();
+                @Override
+                public void bookingRemoved(String bookingId) {
+                    reminders.cancel(bookingId);
+                }
+            });
+            listening = true;
+        }
+        for (Booking booking : FileServer.getActiveBookings()) {
+            reminders.update(booking);
+        }
+        reminders.start();
+        dispatcher.start();
 
-        // Спрощена імітація
-        System.out.println("[NOTIFICATIONS] Перевірка нагадувань... (" + now + ")");
+        System.out.println("[NOTIFICATIONS] Служба нагадувань запущена. Заплановано бронювань: " +
+                reminders.getScheduledCount());
+    }
 
-        // Тут була б реальна логіка перевірки
-        // Наразі просто імітуємо
-        if (Math.random() > 0.7) {
-            System.out.println("[NOTIFICATIONS] Знайдено бронювання для нагадування");
+    private static void sendReminder(ReminderScheduler.Kind kind, String bookingId) {
+        Booking booking = FileServer.getBookingById(bookingId);
+        if (booking == null || booking.getStatus() != Booking.BookingStatus.ACTIVE) {
+            return;
         }
+        Hostel hostel = FileServer.getHostelById(booking.getHostelId());
+        String hostelName = hostel != null ? hostel.getName() : booking.getHostelId();
+
+        String message = kind == ReminderScheduler.Kind.CHECK_IN ?
+                String.format("Нагадування: заїзд за бронюванням #%s у хостел '%s' (кімната %s) - %s",
+                        bookingId, hostelName, booking.getRoomId(), booking.getCheckInTime().format(REMINDER_FORMAT)) :
+                String.format("Нагадування: виїзд за бронюванням #%s з хостелу '%s' - %s",
+                        bookingId, hostelName, booking.getCheckOutTime().format(REMINDER_FORMAT));
+        sendNotificationToClient(booking.getClientId(), message);
     }
 
+    // Бронювання ставиться в розклад і без цього виклику - через слухача змін
     public static void addBookingReminder(Booking booking) {
-        String hostelId = booking.getHostelId();
-        pendingReminders.computeIfAbsent(hostelId, k -> new ArrayList<>()).add(booking);
+        reminders.update(booking);
         System.out.println("[NOTIFICATIONS] Додано нагадування для бронювання: " + booking.getId());
     }
 
+    public static int getScheduledReminders() {
+        return reminders.getScheduledCount();
+    }
+
+    public static long getSentReminders() {
+        return reminders.getFiredCount();
+    }
+
+    // Повідомлення ставиться в чергу доставки; виклик не чекає на канали
     public static void sendNotificationToClient(String clientId, String message) {
-        System.out.println("[NOTIFICATION TO CLIENT " + clientId + "] " + message);
-        // В реальній системі тут був би email/SMS
+        dispatcher.submit(new Notification(Notification.Recipient.CLIENT, clientId, message));
     }
 
     public static void sendNotificationToManager(String managerId, String message) {
-        System.out.println("[NOTIFICATION TO MANAGER " + managerId + "] " + message);
-        // В реальній системі тут був би email/SMS
+        dispatcher.submit(new Notification(Notification.Recipient.MANAGER, managerId, message));
+    }
+
+    public static Map<String, Object> getDispatchStats() {
+        return dispatcher.getStats();
     }
 
     public static void stopService() {
-        if (reminderTimer != null) {
-            reminderTimer.cancel();
-            reminderTimer = null;
-        }
+        reminders.stop();
+        // Накопичені повідомлення доставляються до завершення роботи
+        dispatcher.stop();
         System.out.println("[NOTIFICATIONS] Служба нагадувань зупинена");
     }
 }
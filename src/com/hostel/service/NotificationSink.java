@@ -0,0 +1,28 @@
+package com.hostel.service;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Канал доставки повідомлень. Вибирається через
+ * -Dhostel.notifications.sinks=console,outbox,mail (можна кілька через кому).
+ */
+public interface NotificationSink {
+
+    String getName();
+
+    /**
+     * Доставка дайджесту - усіх накопичених повідомлень одного адресата.
+     * Виняток означає, що дайджест буде доставлено цим каналом повторно.
+     */
+    void deliver(List<Notification> digest) throws IOException;
+
+    static NotificationSink forName(String name) {
+        switch (name.trim().toLowerCase()) {
+            case "console": return new ConsoleNotificationSink();
+            case "outbox": return new OutboxNotificationSink();
+            case "mail": return new MailOutboxSink();
+            default: throw new IllegalArgumentException("Невідомий канал повідомлень: " + name);
+        }
+    }
+}
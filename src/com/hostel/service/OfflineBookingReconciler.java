@@ -0,0 +1,142 @@
+package com.hostel.service;
+
+import com.hostel.model.Booking;
+import com.hostel.model.Room;
+import com.hostel.server.FileServer;
+import com.hostel.server.ReservationResult;
+import java.util.*;
+
+/**
+ * Звірка офлайн-бронювань з поточною зайнятістю кімнат на сервері.
+ * Пакет обробляється в порядку черги; кандидати для перенесення вибираються
+ * і сортуються один раз на хостел, а не для кожного бронювання.
+ * Якщо обрана кімната зайнята чи закрита, пробуються кімнати того ж хостела
+ * того ж типу, не менші за місткістю і не дорожчі за годину.
+ */
+class OfflineBookingReconciler {
+    static final String OFFLINE_PREFIX = "OFFLINE_BOOK_";
+
+    // Спершу найменша достатня місткість, потім найближча (найвища допустима) ціна
+    private static final Comparator<Room> CANDIDATE_ORDER = Comparator
+            .comparingInt(Room::getCapacity)
+            .thenComparing(Comparator.comparingDouble(Room::getPricePerHour).reversed());
+
+    private final BookingService bookingService;
+    private final Map<String, List<Room>> candidatesByHostel = new HashMap<>();
+    private boolean storageFailed;
+
+    OfflineBookingReconciler(BookingService bookingService) {
+        this.bookingService = bookingService;
+    }
+
+    List<ReconciliationResult> reconcile(List<Booking> offlineBookings) {
+        List<ReconciliationResult> results = new ArrayList<>(offlineBookings.size());
+        for (Booking offline : offlineBookings) {
+            results.add(reconcileOne(offline));
+        }
+        return results;
+    }
+
+    private ReconciliationResult reconcileOne(Booking offline) {
+        // Після помилки сховища решту пакета відкладаємо, щоб не порушити порядок черги
+        if (storageFailed) {
+            return new ReconciliationResult(offline, null, ReconciliationResult.Outcome.RETRY,
+                    ReservationResult.STORAGE_ERROR);
+        }
+
+        // Зарезервовано попередньою спробою, підтвердження якої не дійшло до черги.
+        // Причину перенесення тоді вже не відновити - вважаємо, що кімнату було зайнято
+        Booking existing = FileServer.getBookingById(serverBookingId(offline.getId()));
+        if (existing != null) {
+            if (existing.getRoomId().equals(offline.getRoomId())) {
+                return new ReconciliationResult(offline, existing, ReconciliationResult.Outcome.RESERVED,
+                        ReservationResult.RESERVED);
+            }
+            return new ReconciliationResult(offline, existing, ReconciliationResult.Outcome.RELOCATED,
+                    ReservationResult.CONFLICT);
+        }
+
+        if (offline.getCheckInTime() == null || offline.getCheckOutTime() == null ||
+                !offline.getCheckOutTime().isAfter(offline.getCheckInTime())) {
+            return new ReconciliationResult(offline, null, ReconciliationResult.Outcome.REJECTED,
+                    ReservationResult.INVALID_PERIOD);
+        }
+
+        Room original = FileServer.getRoomById(offline.getRoomId());
+        ReservationResult reason = ReservationResult.ROOM_NOT_FOUND;
+        if (original != null) {
+            Booking booking = toServerBooking(offline, original);
+            reason = FileServer.reserveBooking(booking);
+            if (reason == ReservationResult.RESERVED) {
+                return new ReconciliationResult(offline, booking, ReconciliationResult.Outcome.RESERVED, reason);
+            }
+        }
+
+        if (reason == ReservationResult.STORAGE_ERROR) {
+            storageFailed = true;
+            return new ReconciliationResult(offline, null, ReconciliationResult.Outcome.RETRY, reason);
+        }
+        if (original == null) {
+            return new ReconciliationResult(offline, null, ReconciliationResult.Outcome.REJECTED, reason);
+        }
+
+        // Конфлікт або кімнату закрито - шукаємо схожу вільну кімнату
+        for (Room candidate : candidates(offline.getHostelId())) {
+            if (candidate.getId().equals(original.getId()) || candidate.getType() != original.getType() ||
+                    candidate.getCapacity() < original.getCapacity() ||
+                    candidate.getPricePerHour() > original.getPricePerHour() ||
+                    !FileServer.isRoomFree(candidate.getId(), offline.getCheckInTime(), offline.getCheckOutTime())) {
+                continue;
+            }
+
+            Booking booking = toServerBooking(offline, candidate);
+            ReservationResult result = FileServer.reserveBooking(booking);
+            if (result == ReservationResult.RESERVED) {
+                return new ReconciliationResult(offline, booking, ReconciliationResult.Outcome.RELOCATED, reason);
+            }
+            if (result == ReservationResult.STORAGE_ERROR) {
+                storageFailed = true;
+                return new ReconciliationResult(offline, null, ReconciliationResult.Outcome.RETRY, result);
+            }
+        }
+        return new ReconciliationResult(offline, null, ReconciliationResult.Outcome.REJECTED, reason);
+    }
+
+    private List<Room> candidates(String hostelId) {
+        return candidatesByHostel.computeIfAbsent(hostelId, id -> {
+            List<Room> rooms = new ArrayList<>(FileServer.getRoomsByHostel(id));
+            rooms.sort(CANDIDATE_ORDER);
+            return rooms;
+        });
+    }
+
+    static boolean isOfflineId(String bookingId) {
+        return bookingId.startsWith(OFFLINE_PREFIX);
+    }
+
+    /**
+     * Серверний ID офлайн-бронювання виводиться з офлайн-ID (числова частина
+     * спільного лічильника унікальна), тож повтор після збою не резервує вдруге,
+     * а зв'язок офлайн -> сервер відновлюється без збереженої таблиці.
+     */
+    static String serverBookingId(String offlineId) {
+        return "BOOK_" + offlineId.substring(OFFLINE_PREFIX.length());
+    }
+
+    private Booking toServerBooking(Booking offline, Room room) {
+        double price = bookingService.calculatePrice(room, offline.getCheckInTime(), offline.getCheckOutTime());
+        Booking booking = new Booking(offline.getHostelId(), room.getId(), offline.getClientId(),
+                offline.getCheckInTime(), offline.getCheckOutTime(), price,
+                offline.getClientFirstName(), offline.getClientLastName(),
+                offline.getClientPhone(), offline.getClientEmail());
+        booking.setId(serverBookingId(offline.getId()));
+        // Зміни статусу й оплати, внесені офлайн, зливаються з операцією створення
+        if (offline.getStatus() != null) {
+            booking.setStatus(offline.getStatus());
+        }
+        if (offline.getPaymentStatus() != null) {
+            booking.setPaymentStatus(offline.getPaymentStatus());
+        }
+        return booking;
+    }
+}
@@ -0,0 +1,38 @@
+package com.hostel.service;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.List;
+
+// Журнал вихідних повідомлень: один JSON-рядок на повідомлення в hostel_data/outbox/
+public class OutboxNotificationSink implements NotificationSink {
+    private static final Path OUTBOX_FILE = Paths.get("hostel_data/outbox/notifications.jsonl");
+
+    private final Gson gson = new Gson();
+
+    @Override
+    public String getName() {
+        return "outbox";
+    }
+
+    @Override
+    public void deliver(List<Notification> digest) throws IOException {
+        Files.createDirectories(OUTBOX_FILE.getParent());
+        try (BufferedWriter writer = Files.newBufferedWriter(OUTBOX_FILE, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (Notification notification : digest) {
+                JsonObject record = new JsonObject();
+                record.addProperty("recipient", notification.getRecipient().name());
+                record.addProperty("recipientId", notification.getRecipientId());
+                record.addProperty("createdAt", notification.getCreatedAt());
+                record.addProperty("message", notification.getMessage());
+                writer.write(gson.toJson(record));
+                writer.newLine();
+            }
+        }
+    }
+}
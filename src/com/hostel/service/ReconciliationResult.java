@@ -0,0 +1,63 @@
+package com.hostel.service;
+
+import com.hostel.model.Booking;
+import com.hostel.server.ReservationResult;
+
+// Результат звірки одного офлайн-бронювання з сервером
+public class ReconciliationResult {
+
+    public enum Outcome {
+        RESERVED,  // збережено в обраній кімнаті
+        RELOCATED, // обрана кімната зайнята, бронювання перенесено в схожу
+        REJECTED,  // вільної схожої кімнати немає
+        RETRY      // сервер не зберіг бронювання, звірка повториться
+    }
+
+    private final Booking offlineBooking;
+    private final Booking booking;
+    private final Outcome outcome;
+    private final ReservationResult reason;
+
+    ReconciliationResult(Booking offlineBooking, Booking booking, Outcome outcome, ReservationResult reason) {
+        this.offlineBooking = offlineBooking;
+        this.booking = booking;
+        this.outcome = outcome;
+        this.reason = reason;
+    }
+
+    public String getOfflineId() {
+        return offlineBooking.getId();
+    }
+
+    public Booking getOfflineBooking() {
+        return offlineBooking;
+    }
+
+    // Бронювання на сервері (null, якщо його не створено)
+    public Booking getBooking() {
+        return booking;
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    // Результат спроби зарезервувати обрану кімнату
+    public ReservationResult getReason() {
+        return reason;
+    }
+
+    public String getMessage() {
+        return switch (outcome) {
+            case RESERVED -> String.format("Бронювання %s синхронізовано як %s",
+                    getOfflineId(), booking.getId());
+            case RELOCATED -> String.format("Бронювання %s синхронізовано як %s в кімнаті %s замість %s (%s)",
+                    getOfflineId(), booking.getId(), booking.getRoomId(), offlineBooking.getRoomId(),
+                    reason.getDescription());
+            case REJECTED -> String.format("Бронювання %s відхилено: %s, схожих вільних кімнат немає",
+                    getOfflineId(), reason.getDescription());
+            case RETRY -> String.format("Бронювання %s не збережено: %s",
+                    getOfflineId(), reason.getDescription());
+        };
+    }
+}
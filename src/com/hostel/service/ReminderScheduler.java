@@ -0,0 +1,233 @@
+package com.hostel.service;
+
+import com.hostel.model.Booking;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.function.BiConsumer;
+
+/**
+ * Планувальник нагадувань про заїзд і виїзд. Події лежать у черзі з пріоритетом
+ * за часом спрацювання (O(log n) на додавання), а потік спить рівно до
+ * найближчої події - без періодичного перебору бронювань.
+ * Старі події при зміні чи скасуванні бронювання з черги не шукаються: у
+ * бронювання змінюється покоління, і застарілі події відкидаються при вийманні.
+ */
+class ReminderScheduler {
+
+    enum Kind {
+        CHECK_IN,  // нагадування перед заїздом
+        CHECK_OUT  // нагадування перед виїздом
+    }
+
+    private static final class Event {
+        final long fireAt;
+        final long order;
+        final String bookingId;
+        final long generation;
+        final Kind kind;
+
+        Event(long fireAt, long order, String bookingId, long generation, Kind kind) {
+            this.fireAt = fireAt;
+            this.order = order;
+            this.bookingId = bookingId;
+            this.generation = generation;
+            this.kind = kind;
+        }
+    }
+
+    // Поточний розклад бронювання: за датами визначаємо, чи треба щось переплановувати
+    private static final class Schedule {
+        final long generation;
+        final LocalDateTime checkIn;
+        final LocalDateTime checkOut;
+        int pendingEvents; // події розкладу, що ще чекають у черзі
+
+        Schedule(long generation, LocalDateTime checkIn, LocalDateTime checkOut) {
+            this.generation = generation;
+            this.checkIn = checkIn;
+            this.checkOut = checkOut;
+        }
+    }
+
+    private static final Comparator<Event> FIRE_ORDER = Comparator
+            .comparingLong((Event event) -> event.fireAt)
+            .thenComparingLong(event -> event.order);
+    // Застарілі події вичищаються, коли їх стає більше, ніж живих
+    private static final int PURGE_MIN_STALE = 1024;
+
+    private final long checkInLeadMillis;
+    private final long checkOutLeadMillis;
+    private final BiConsumer<Kind, String> action;
+
+    private final PriorityQueue<Event> queue = new PriorityQueue<>(FIRE_ORDER);
+    private final Map<String, Schedule> schedules = new HashMap<>();
+    private long nextOrder;
+    private long nextGeneration;
+    private int liveEvents;
+    private long fired;
+    private Thread thread;
+    private boolean running;
+
+    ReminderScheduler(long checkInLeadMillis, long checkOutLeadMillis, BiConsumer<Kind, String> action) {
+        this.checkInLeadMillis = checkInLeadMillis;
+        this.checkOutLeadMillis = checkOutLeadMillis;
+        this.action = action;
+    }
+
+    /**
+     * Планування за поточним станом бронювання. Неактивне бронювання знімається
+     * з розкладу; якщо дати не змінились, нічого не робиться.
+     */
+    synchronized void update(Booking booking) {
+        if (booking.getStatus() != Booking.BookingStatus.ACTIVE ||
+                booking.getCheckInTime() == null || booking.getCheckOutTime() == null) {
+            cancel(booking.getId());
+            return;
+        }
+
+        Schedule current = schedules.get(booking.getId());
+        if (current != null && booking.getCheckInTime().equals(current.checkIn) &&
+                booking.getCheckOutTime().equals(current.checkOut)) {
+            return;
+        }
+        cancel(booking.getId());
+
+        long now = System.currentTimeMillis();
+        long checkOutAt = toMillis(booking.getCheckOutTime());
+        if (checkOutAt <= now) {
+            return;
+        }
+
+        Schedule schedule = new Schedule(++nextGeneration, booking.getCheckInTime(), booking.getCheckOutTime());
+        schedules.put(booking.getId(), schedule);
+        Event head = queue.peek();
+
+        long checkInAt = toMillis(booking.getCheckInTime());
+        if (checkInAt > now) {
+            push(Math.max(now, checkInAt - checkInLeadMillis), booking.getId(), schedule, Kind.CHECK_IN);
+        }
+        push(Math.max(now, checkOutAt - checkOutLeadMillis), booking.getId(), schedule, Kind.CHECK_OUT);
+
+        // Потік спить до старої найближчої події - будимо, якщо нова раніша
+        if (head == null || queue.peek() != head) {
+            notifyAll();
+        }
+    }
+
+    // Пакет змін під одним захопленням монітора
+    synchronized void updateAll(List<Booking> bookings) {
+        for (Booking booking : bookings) {
+            update(booking);
+        }
+    }
+
+    synchronized void cancel(String bookingId) {
+        Schedule removed = schedules.remove(bookingId);
+        if (removed == null) {
+            return;
+        }
+        // Події скасованого розкладу стають застарілими; чистимо чергу, коли їх забагато
+        liveEvents -= removed.pendingEvents;
+        int stale = queue.size() - liveEvents;
+        if (stale > PURGE_MIN_STALE && stale > liveEvents) {
+            queue.removeIf(event -> !isLive(event));
+        }
+    }
+
+    synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, "reminder-scheduler");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    synchronized int getScheduledCount() {
+        return schedules.size();
+    }
+
+    synchronized long getFiredCount() {
+        return fired;
+    }
+
+    private void run() {
+        while (true) {
+            List<Event> due = new ArrayList<>();
+            synchronized (this) {
+                try {
+                    while (running && due.isEmpty()) {
+                        Event head = queue.peek();
+                        long now = System.currentTimeMillis();
+                        if (head == null) {
+                            wait();
+                        } else if (head.fireAt > now) {
+                            wait(head.fireAt - now);
+                        } else {
+                            collectDue(now, due);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (!running) {
+                    return;
+                }
+                fired += due.size();
+            }
+
+            // Надсилання - поза блокуванням, щоб не затримувати планування
+            for (Event event : due) {
+                try {
+                    action.accept(event.kind, event.bookingId);
+                } catch (RuntimeException e) {
+                    System.err.println("[NOTIFICATIONS ERROR] Помилка нагадування для " + event.bookingId +
+                            ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void collectDue(long now, List<Event> due) {
+        while (!queue.isEmpty() && queue.peek().fireAt <= now) {
+            Event event = queue.poll();
+            if (!isLive(event)) {
+                continue;
+            }
+            Schedule schedule = schedules.get(event.bookingId);
+            schedule.pendingEvents--;
+            liveEvents--;
+            due.add(event);
+            // Після нагадування про виїзд бронювання більше не відстежується
+            if (event.kind == Kind.CHECK_OUT) {
+                liveEvents -= schedule.pendingEvents;
+                schedules.remove(event.bookingId);
+            }
+        }
+    }
+
+    private void push(long fireAt, String bookingId, Schedule schedule, Kind kind) {
+        queue.add(new Event(fireAt, nextOrder++, bookingId, schedule.generation, kind));
+        schedule.pendingEvents++;
+        liveEvents++;
+    }
+
+    private boolean isLive(Event event) {
+        Schedule schedule = schedules.get(event.bookingId);
+        return schedule != null && schedule.generation == event.generation;
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -1,6 +1,7 @@
 package com.hostel.service;
 
 import com.hostel.model.Review;
+import com.hostel.server.RatingStats;
 import java.util.List;
 
 public interface ReviewService {
@@ -10,4 +11,6 @@ public interface ReviewService {
     List<Review> getReviewsForHostel(String hostelId);
 
     double getAverageRatingForHostel(String hostelId);
+
+    RatingStats getRatingStats(String hostelId);
 }
\ No newline at end of file
@@ -2,13 +2,12 @@ package com.hostel.service;
 
 import com.hostel.model.*;
 import com.hostel.server.FileServer;
+import com.hostel.server.IdGenerator;
 import java.util.*;
 
 public class SimpleAuthService implements AuthenticationService {
     private User currentUser;
     private SessionManager sessionManager;
-    private int clientCounter = 1;
-    private int managerCounter = 1;
 
     public SimpleAuthService() {
         this.sessionManager = new SessionManager();
@@ -81,10 +80,10 @@ public class SimpleAuthService implements AuthenticationService {
         User newUser;
         if (userType == UserType.CLIENT) {
             newUser = new Client(email, phone, password, firstName, lastName);
-            newUser.setId("CLIENT_" + clientCounter++);
+            newUser.setId(IdGenerator.nextId("CLIENT"));
         } else {
             newUser = new Manager(email, phone, password);
-            newUser.setId("MANAGER_" + managerCounter++);
+            newUser.setId(IdGenerator.nextId("MANAGER"));
         }
 
         // Збереження на сервер
@@ -2,7 +2,10 @@ package com.hostel.service;
 
 import com.hostel.model.*;
 import com.hostel.server.FileServer;
+import com.hostel.server.IdGenerator;
+import com.hostel.server.ReservationResult;
 import com.hostel.server.SyncManager;
+import com.hostel.server.SyncOperation;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
@@ -10,6 +13,54 @@ import java.util.*;
 public class SimpleBookingService implements BookingService {
     private BookingCache bookingCache = new BookingCache();
 
+    static {
+        // Обробники операцій офлайн-черги: черга зберігає дані, а не код
+        SyncManager.registerBatchHandler(SyncOperation.Type.CREATE_BOOKING,
+                operations -> new SimpleBookingService().reconcileOfflineBookings(operations));
+        SyncManager.registerHandler(SyncOperation.Type.SAVE_BOOKING, operation -> {
+            Booking booking = operation.getBooking();
+            if (FileServer.getBookingById(booking.getId()) != null) {
+                // Збережено попередньою спробою, підтвердження якої не дійшло до черги
+                return;
+            }
+            // Повтор іде тим самим резервуванням, що й онлайн-бронювання: за час у черзі кімнату могли зайняти
+            ReservationResult result = FileServer.reserveBooking(booking);
+            if (result == ReservationResult.STORAGE_ERROR) {
+                throw new IllegalStateException(result.getDescription());
+            }
+            if (result != ReservationResult.RESERVED) {
+                NotificationService.sendNotificationToClient(booking.getClientId(), String.format(
+                        "Бронювання кімнати %s не збережено: %s", booking.getRoomId(), result.getDescription()));
+                throw new SyncManager.TerminalSyncException(result.getDescription());
+            }
+        });
+        SyncManager.registerHandler(SyncOperation.Type.UPDATE_BOOKING, operation -> {
+            Booking update = operation.getBooking();
+            String bookingId = BookingCache.resolveBookingId(update.getId());
+            if (bookingId == null) {
+                // Офлайн-бронювання відхилено при звірці - змінювати нічого
+                return;
+            }
+            if (OfflineBookingReconciler.isOfflineId(update.getId()) && FileServer.getBookingById(bookingId) == null &&
+                    !SyncManager.hasQueuedOperation(SyncOperation.Type.CREATE_BOOKING, operation.getEntityKey())) {
+                // Звірку завершено до перезапуску, а бронювання на сервері немає - його відхилено
+                return;
+            }
+            if (update.getStatus() != null && !FileServer.updateBookingStatus(bookingId, update.getStatus())) {
+                throw new IllegalStateException("Бронювання не знайдено: " + bookingId);
+            }
+            if (update.getPaymentStatus() != null &&
+                    !FileServer.updateBookingPaymentStatus(bookingId, update.getPaymentStatus())) {
+                throw new IllegalStateException("Бронювання не знайдено: " + bookingId);
+            }
+        });
+        SyncManager.registerHandler(SyncOperation.Type.SAVE_ROOM, operation -> {
+            if (!FileServer.saveRoom(operation.getRoom())) {
+                throw new IllegalStateException("Сховище недоступне");
+            }
+        });
+    }
+
     @Override
     public Booking createBooking(String hostelId, String roomId, String clientId,
                                  LocalDateTime checkIn, LocalDateTime checkOut,
@@ -23,15 +74,17 @@ public class SimpleBookingService implements BookingService {
         if (!NetworkMonitor.isNetworkAvailable()) {
             System.out.println("[BOOKING ERROR] Відсутнє мережеве з'єднання");
 
-            // Додаємо в чергу синхронізації
-            SyncManager.addToSyncQueue("Створення бронювання", () -> {
-                createBookingSync(hostelId, roomId, clientId, checkIn, checkOut,
-                        firstName, lastName, phone, email);
-            });
+            Booking offline = createOfflineBooking(hostelId, roomId, clientId, checkIn, checkOut,
+                    firstName, lastName, phone, email);
+
+            // Додаємо в чергу синхронізації (операція зберігається на диску)
+            if (!SyncManager.enqueueCreateBooking(offline)) {
+                System.out.println("[BOOKING ERROR] Не вдалося додати бронювання до черги синхронізації");
+                return null;
+            }
 
             System.out.println("[BOOKING] Бронювання додано до черги синхронізації");
-            return createOfflineBooking(hostelId, roomId, clientId, checkIn, checkOut,
-                    firstName, lastName, phone, email);
+            return offline;
         }
 
         // Отримання кімнати
@@ -41,11 +94,6 @@ public class SimpleBookingService implements BookingService {
             return null;
         }
 
-        if (!room.isAvailable()) {
-            System.out.println("[BOOKING ERROR] Кімната недоступна");
-            return null;
-        }
-
         if (!room.getHostelId().equals(hostelId)) {
             System.out.println("[BOOKING ERROR] Кімната не належить вказаному хостелу");
             return null;
@@ -57,20 +105,24 @@ public class SimpleBookingService implements BookingService {
         // Створення бронювання
         Booking booking = new Booking(hostelId, roomId, clientId, checkIn, checkOut,
                 price, firstName, lastName, phone, email);
-        booking.setId("BOOK_" + System.currentTimeMillis() + "_" + new Random().nextInt(1000));
+        booking.setId(IdGenerator.nextId("BOOK"));
 
-        // Збереження на сервер
-        boolean saved = FileServer.saveBooking(booking);
+        // Атомарне резервування: перевірка періоду і збереження під блокуванням кімнати
+        ReservationResult result = FileServer.reserveBooking(booking);
 
         long elapsedTime = System.currentTimeMillis() - startTime;
 
-        if (!saved) {
+        if (result == ReservationResult.STORAGE_ERROR) {
             System.out.println("[BOOKING ERROR] Не вдалося зберегти бронювання на сервері");
 
             // Додаємо в чергу синхронізації
-            SyncManager.addToSyncQueue("Повторна спроба збереження бронювання",
-                    () -> FileServer.saveBooking(booking));
+            SyncManager.enqueueSaveBooking(booking);
+
+            return null;
+        }
 
+        if (result != ReservationResult.RESERVED) {
+            System.out.println("[BOOKING ERROR] " + result.getDescription());
             return null;
         }
 
@@ -95,7 +147,7 @@ public class SimpleBookingService implements BookingService {
         // Створення тимчасового бронювання для офлайн режиму
         Booking booking = new Booking(hostelId, roomId, clientId, checkIn, checkOut,
                 0, firstName, lastName, phone, email);
-        booking.setId("OFFLINE_BOOK_" + System.currentTimeMillis());
+        booking.setId(IdGenerator.nextId("OFFLINE_BOOK"));
         booking.setStatus(Booking.BookingStatus.ACTIVE);
 
         // Кешуємо локально
@@ -107,25 +159,61 @@ public class SimpleBookingService implements BookingService {
         return booking;
     }
 
-    private void createBookingSync(String hostelId, String roomId, String clientId,
-                                   LocalDateTime checkIn, LocalDateTime checkOut,
-                                   String firstName, String lastName, String phone, String email) {
-        // Синхронна версія для черги
-        Room room = FileServer.getRoomById(roomId);
-        if (room == null || !room.isAvailable()) {
-            System.out.println("[SYNC ERROR] Кімната недоступна для синхронізації");
-            return;
+    /**
+     * Звірка пакета офлайн-бронювань з сервером. Відкладені через помилку
+     * сховища бронювання повертаються черзі як помилки і будуть повторені.
+     */
+    private Map<Long, Exception> reconcileOfflineBookings(List<SyncOperation> operations) {
+        List<Booking> offline = new ArrayList<>(operations.size());
+        for (SyncOperation operation : operations) {
+            offline.add(operation.getBooking());
         }
 
-        double price = calculatePrice(room, checkIn, checkOut);
-        Booking booking = new Booking(hostelId, roomId, clientId, checkIn, checkOut,
-                price, firstName, lastName, phone, email);
-        booking.setId("SYNC_BOOK_" + System.currentTimeMillis());
+        List<ReconciliationResult> results = new OfflineBookingReconciler(this).reconcile(offline);
+        Map<Long, Exception> errors = new HashMap<>();
+        int[] counts = new int[ReconciliationResult.Outcome.values().length];
+        for (int i = 0; i < results.size(); i++) {
+            ReconciliationResult result = results.get(i);
+            counts[result.getOutcome().ordinal()]++;
+            if (result.getOutcome() == ReconciliationResult.Outcome.RETRY) {
+                errors.put(operations.get(i).getSeq(), new IllegalStateException(result.getMessage()));
+                continue;
+            }
+            BookingCache.recordReconciliation(result);
+            reportReconciliation(result);
+        }
 
-        if (FileServer.saveBooking(booking)) {
-            System.out.println("[SYNC SUCCESS] Бронювання синхронізовано: " + booking.getId());
-        } else {
-            System.out.println("[SYNC ERROR] Не вдалося синхронізувати бронювання");
+        System.out.println(String.format(
+                "[SYNC] Звірка офлайн-бронювань: збережено %d, перенесено %d, відхилено %d, відкладено %d",
+                counts[ReconciliationResult.Outcome.RESERVED.ordinal()],
+                counts[ReconciliationResult.Outcome.RELOCATED.ordinal()],
+                counts[ReconciliationResult.Outcome.REJECTED.ordinal()],
+                counts[ReconciliationResult.Outcome.RETRY.ordinal()]));
+        return errors;
+    }
+
+    private void reportReconciliation(ReconciliationResult result) {
+        Booking offline = result.getOfflineBooking();
+        switch (result.getOutcome()) {
+            case RESERVED -> {
+                System.out.println("[SYNC SUCCESS] " + result.getMessage());
+                notifyManager(offline.getHostelId(), result.getBooking());
+            }
+            case RELOCATED -> {
+                System.out.println("[SYNC SUCCESS] " + result.getMessage());
+                NotificationService.sendNotificationToClient(offline.getClientId(), String.format(
+                        "Кімната %s на обраний період виявилась зайнятою. Ваше бронювання #%s перенесено в кімнату %s",
+                        offline.getRoomId(), result.getBooking().getId(), result.getBooking().getRoomId()));
+                notifyManager(offline.getHostelId(), result.getBooking());
+            }
+            case REJECTED -> {
+                System.out.println("[SYNC ERROR] " + result.getMessage());
+                NotificationService.sendNotificationToClient(offline.getClientId(), String.format(
+                        "Офлайн-бронювання кімнати %s не підтверджено: %s",
+                        offline.getRoomId(), result.getReason().getDescription()));
+            }
+            default -> {
+            }
         }
     }
 
@@ -146,19 +234,20 @@ public class SimpleBookingService implements BookingService {
         System.out.println("[BOOKING] Скасування бронювання: " + bookingId);
 
         if (!NetworkMonitor.isNetworkAvailable()) {
-            System.out.println("[BOOKING ERROR] Відсутнє мережеве з'єднання");
-            return false;
+            System.out.println("[BOOKING INFO] Офлайн режим - скасування буде синхронізовано пізніше");
+            return enqueueOfflineUpdate(bookingId, Booking.BookingStatus.CANCELLED, null);
         }
 
-        // Перевірка бронювання
-        Booking booking = FileServer.getBookingById(bookingId);
+        // Перевірка бронювання (офлайн-бронювання після звірки має серверний ID)
+        String serverId = BookingCache.resolveBookingId(bookingId);
+        Booking booking = serverId == null ? null : FileServer.getBookingById(serverId);
         if (booking == null) {
             System.out.println("[BOOKING ERROR] Бронювання не знайдено");
             return false;
         }
 
         // Зміна статусу
-        boolean updated = FileServer.updateBookingStatus(bookingId, Booking.BookingStatus.CANCELLED);
+        boolean updated = FileServer.updateBookingStatus(serverId, Booking.BookingStatus.CANCELLED);
 
         if (updated) {
             System.out.println("[BOOKING SUCCESS] Бронювання скасовано: " + bookingId);
@@ -229,25 +318,71 @@ public class SimpleBookingService implements BookingService {
 
     @Override
     public boolean updateBookingStatus(String bookingId, Booking.BookingStatus status) {
+        if (!NetworkMonitor.isNetworkAvailable()) {
+            return enqueueOfflineUpdate(bookingId, status, null);
+        }
         return FileServer.updateBookingStatus(bookingId, status);
     }
 
     @Override
     public boolean updateBookingPaymentStatus(String bookingId, Booking.PaymentStatus status) {
+        if (!NetworkMonitor.isNetworkAvailable()) {
+            return enqueueOfflineUpdate(bookingId, null, status);
+        }
         return FileServer.updateBookingPaymentStatus(bookingId, status);
     }
 
+    // Офлайн-зміна: оновлюємо локальну копію і ставимо зміну в чергу (повторні зміни зливаються)
+    private boolean enqueueOfflineUpdate(String bookingId, Booking.BookingStatus status,
+                                         Booking.PaymentStatus paymentStatus) {
+        Booking booking = bookingCache.getCachedBooking(bookingId);
+        if (booking == null) {
+            booking = FileServer.getBookingById(bookingId);
+        }
+        if (booking == null) {
+            System.out.println("[BOOKING ERROR] Бронювання не знайдено");
+            return false;
+        }
+
+        if (!SyncManager.enqueueBookingUpdate(booking, status, paymentStatus)) {
+            System.out.println("[BOOKING ERROR] Не вдалося додати зміну до черги синхронізації");
+            return false;
+        }
+        // Серверні об'єкти змінить сам сервер під час синхронізації; офлайн-бронювання існує лише локально
+        if (bookingId.startsWith("OFFLINE_BOOK_")) {
+            if (status != null) {
+                booking.setStatus(status);
+            }
+            if (paymentStatus != null) {
+                booking.setPaymentStatus(paymentStatus);
+            }
+        }
+        return true;
+    }
+
     // Додаткові методи для кімнат
     public List<Room> getRoomsByHostel(String hostelId) {
         return FileServer.getRoomsByHostel(hostelId);
     }
 
+    public List<Room> getFreeRooms(String hostelId, LocalDateTime checkIn, LocalDateTime checkOut) {
+        return FileServer.getFreeRooms(hostelId, checkIn, checkOut);
+    }
+
     public List<Room> getAllRoomsByHostel(String hostelId) {
         return FileServer.getAllRoomsByHostel(hostelId);
     }
 
+    // Збереження відредагованої кімнати; офлайн - через чергу синхронізації
+    public boolean updateRoom(Room room) {
+        if (!NetworkMonitor.isNetworkAvailable()) {
+            return SyncManager.enqueueSaveRoom(room);
+        }
+        return FileServer.saveRoom(room);
+    }
+
     public void addRoom(Room room) {
-        room.setId("ROOM_" + System.currentTimeMillis() + "_" + new Random().nextInt(1000));
+        room.setId(IdGenerator.nextId("ROOM"));
         FileServer.saveRoom(room);
     }
 }
\ No newline at end of file
@@ -2,8 +2,12 @@ package com.hostel.service;
 
 import com.hostel.model.Hostel;
 import com.hostel.server.FileServer;
+import com.hostel.server.AvailableHostel;
+import com.hostel.server.ChangeBatch;
+import com.hostel.server.HostelSearchCriteria;
+import com.hostel.server.HostelSearchPage;
+import com.hostel.server.IdGenerator;
 import java.util.List;
-import java.util.Random;
 import com.hostel.model.*;
 
 public class SimpleHostelService implements HostelService {
@@ -13,7 +17,7 @@ public class SimpleHostelService implements HostelService {
         System.out.println("[HOSTEL] Створення хостелу: " + name);
 
         Hostel hostel = new Hostel(name, address, city, managerId);
-        hostel.setId("HOSTEL_" + System.currentTimeMillis() + "_" + new Random().nextInt(1000));
+        hostel.setId(IdGenerator.nextId("HOSTEL"));
 
         boolean saved = FileServer.saveHostel(hostel);
 
@@ -60,47 +64,60 @@ public class SimpleHostelService implements HostelService {
         return FileServer.searchHostels(city, query);
     }
 
+    @Override
+    public HostelSearchPage<Hostel> searchHostels(String city, String query, int page, int pageSize) {
+        return FileServer.searchHostels(city, query, page, pageSize);
+    }
+
+    @Override
+    public HostelSearchPage<AvailableHostel> searchAvailableHostels(HostelSearchCriteria criteria,
+                                                                   int page, int pageSize) {
+        return FileServer.searchAvailableHostels(criteria, page, pageSize);
+    }
+
     @Override
     public boolean suspendHostel(String hostelId) {
         Hostel hostel = FileServer.getHostelById(hostelId);
-        if (hostel != null) {
-            hostel.setActive(false);
-            boolean updated = FileServer.updateHostel(hostel);
-
-            if (updated) {
-                System.out.println("[HOSTEL] Хостел призупинено: " + hostelId);
-
-                // Деактивація активних бронювань
-                List<Booking> activeBookings = FileServer.getActiveHostelBookings(hostelId);
-                for (Booking booking : activeBookings) {
-                    FileServer.updateBookingStatus(booking.getId(), Booking.BookingStatus.CANCELLED);
-
-                    // Повідомлення клієнтам
-                    String message = String.format(
-                            "Ваше бронювання #%s скасовано через призупинення роботи хостелу '%s'",
-                            booking.getId(), hostel.getName()
-                    );
-                    NotificationService.sendNotificationToClient(booking.getClientId(), message);
-                }
-
-                return true;
-            }
+        if (hostel == null) {
+            return false;
         }
-        return false;
+
+        // Призупинення і скасування всіх активних бронювань - один пакет змін
+        List<Booking> activeBookings = FileServer.getActiveHostelBookings(hostelId);
+        ChangeBatch batch = new ChangeBatch();
+        batch.setHostelActive(hostelId, false);
+        for (Booking booking : activeBookings) {
+            batch.setBookingStatus(booking.getId(), Booking.BookingStatus.CANCELLED);
+        }
+        if (!FileServer.applyBatch(batch)) {
+            return false;
+        }
+        System.out.println("[HOSTEL] Хостел призупинено: " + hostelId +
+                " (скасовано бронювань: " + activeBookings.size() + ")");
+
+        // Повідомлення клієнтам
+        for (Booking booking : activeBookings) {
+            String message = String.format(
+                    "Ваше бронювання #%s скасовано через призупинення роботи хостелу '%s'",
+                    booking.getId(), hostel.getName()
+            );
+            NotificationService.sendNotificationToClient(booking.getClientId(), message);
+        }
+        return true;
     }
 
     @Override
     public boolean activateHostel(String hostelId) {
-        Hostel hostel = FileServer.getHostelById(hostelId);
-        if (hostel != null) {
-            hostel.setActive(true);
-            boolean updated = FileServer.updateHostel(hostel);
-
-            if (updated) {
-                System.out.println("[HOSTEL] Хостел активовано: " + hostelId);
-                return true;
-            }
+        if (FileServer.getHostelById(hostelId) == null) {
+            return false;
+        }
+        // Як і призупинення: кешований хостел змінюється лише після запису в журнал
+        ChangeBatch batch = new ChangeBatch();
+        batch.setHostelActive(hostelId, true);
+        if (!FileServer.applyBatch(batch)) {
+            return false;
         }
-        return false;
+        System.out.println("[HOSTEL] Хостел активовано: " + hostelId);
+        return true;
     }
 }
\ No newline at end of file
@@ -2,6 +2,8 @@ package com.hostel.service;
 
 import com.hostel.model.Review;
 import com.hostel.server.FileServer;
+import com.hostel.server.IdGenerator;
+import com.hostel.server.RatingStats;
 import java.util.List;
 
 public class SimpleReviewService implements ReviewService {
@@ -24,6 +26,7 @@ public class SimpleReviewService implements ReviewService {
 
         // Створення відгуку
         Review review = new Review(bookingId, clientId, hostelId, rating, comment);
+        review.setId(IdGenerator.nextId("REVIEW"));
 
         // Збереження на сервер
         boolean saved = FileServer.saveReview(review);
@@ -60,4 +63,9 @@ public class SimpleReviewService implements ReviewService {
     public double getAverageRatingForHostel(String hostelId) {
         return FileServer.getAverageRatingForHostel(hostelId);
     }
-}
\ No newline at end of file
+
+    @Override
+    public RatingStats getRatingStats(String hostelId) {
+        return FileServer.getRatingStats(hostelId);
+    }
+}
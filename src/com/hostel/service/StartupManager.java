@@ -57,6 +57,12 @@ public class StartupManager {
         // Ініціалізація сервера (файлової системи)
         com.hostel.server.FileServer.getServerStats();
 
+        // Відновлення офлайн-черги синхронізації з диска
+        int pendingSync = SyncManager.getQueueSize();
+        if (pendingSync > 0) {
+            System.out.println("[SERVICES] Операцій у черзі синхронізації: " + pendingSync);
+        }
+
         System.out.println("[SERVICES] Служби запущено");
     }
 
@@ -89,6 +95,10 @@ public class StartupManager {
             System.out.println("[SHUTDOWN] Синхронізація офлайн-даних...");
             SyncManager.forceSync();
         }
+        SyncManager.shutdown();
+
+        // Фінальний знімок даних
+        com.hostel.server.FileServer.shutdown();
 
         System.out.println("[SHUTDOWN] Система зупинена");
     }
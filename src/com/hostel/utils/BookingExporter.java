@@ -0,0 +1,162 @@
+package com.hostel.utils;
+
+import com.google.gson.JsonObject;
+import com.hostel.model.Booking;
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.function.Predicate;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Потоковий експорт бронювань у CSV (RFC 4180) або JSON Lines.
+ * Бронювання читаються з курсора по одному і відразу пишуться в буферизований
+ * канал файлу, тому пам'ять не залежить від обсягу експорту.
+ * Файл спочатку пишеться у тимчасовий і лише після успіху замінює ціль.
+ */
+public class BookingExporter {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int PROGRESS_STEP = 10_000;
+
+    private static final String[] COLUMNS = {
+            "id", "hostelId", "roomId", "clientId", "clientFirstName", "clientLastName",
+            "clientPhone", "clientEmail", "checkInTime", "checkOutTime", "totalPrice",
+            "status", "paymentStatus", "createdAt"
+    };
+
+    public enum Format {
+        CSV(".csv"),
+        JSONL(".jsonl");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    // Викликається кожні PROGRESS_STEP рядків і один раз у кінці
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onProgress(long rows);
+    }
+
+    private final Format format;
+    private final boolean gzip;
+    private final ProgressListener progress;
+
+    public BookingExporter(Format format, boolean gzip, ProgressListener progress) {
+        this.format = format;
+        this.gzip = gzip;
+        this.progress = progress;
+    }
+
+    public String getExtension() {
+        return format.getExtension() + (gzip ? ".gz" : "");
+    }
+
+    /**
+     * Експорт бронювань курсора, що проходять filter, у файл target.
+     * Повертає кількість записаних рядків (без заголовка).
+     */
+    public long export(Iterator<Booking> cursor, Predicate<Booking> filter, Path target) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        long rows;
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            OutputStream out = Channels.newOutputStream(channel);
+            GZIPOutputStream gzipOut = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : null;
+            Writer writer = new BufferedWriter(new OutputStreamWriter(
+                    gzipOut != null ? gzipOut : out, StandardCharsets.UTF_8), BUFFER_SIZE);
+            rows = write(cursor, filter, writer);
+
+            // Канал закривається лише після fsync, тому потоки не закриваються, а дописуються
+            writer.flush();
+            if (gzipOut != null) {
+                gzipOut.finish();
+            }
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return rows;
+    }
+
+    private long write(Iterator<Booking> cursor, Predicate<Booking> filter, Writer writer) throws IOException {
+        if (format == Format.CSV) {
+            writer.write(FileManager.toCsvLine(COLUMNS));
+        }
+
+        long rows = 0;
+        while (cursor.hasNext()) {
+            Booking booking = cursor.next();
+            if (filter != null && !filter.test(booking)) {
+                continue;
+            }
+            writer.write(formatRow(booking));
+            rows++;
+            if (progress != null && rows % PROGRESS_STEP == 0) {
+                progress.onProgress(rows);
+            }
+        }
+        if (progress != null) {
+            progress.onProgress(rows);
+        }
+        return rows;
+    }
+
+    /**
+     * Один рядок експорту разом із завершенням рядка
+     * (CRLF для CSV за RFC 4180, LF для JSON Lines).
+     */
+    public String formatRow(Booking booking) {
+        String[] values = values(booking);
+        if (format == Format.CSV) {
+            return FileManager.toCsvLine(values);
+        }
+
+        JsonObject json = new JsonObject();
+        for (int i = 0; i < COLUMNS.length; i++) {
+            if (COLUMNS[i].equals("totalPrice")) {
+                json.addProperty(COLUMNS[i], booking.getTotalPrice());
+            } else {
+                json.addProperty(COLUMNS[i], values[i]);
+            }
+        }
+        return json + "\n";
+    }
+
+    private static String[] values(Booking booking) {
+        return new String[]{
+                booking.getId(),
+                booking.getHostelId(),
+                booking.getRoomId(),
+                booking.getClientId(),
+                booking.getClientFirstName(),
+                booking.getClientLastName(),
+                booking.getClientPhone(),
+                booking.getClientEmail(),
+                format(booking.getCheckInTime()),
+                format(booking.getCheckOutTime()),
+                String.format(Locale.ROOT, "%.2f", booking.getTotalPrice()),
+                booking.getStatus() == null ? null : booking.getStatus().name(),
+                booking.getPaymentStatus() == null ? null : booking.getPaymentStatus().name(),
+                format(booking.getCreatedAt())
+        };
+    }
+
+    private static String format(LocalDateTime dateTime) {
+        return dateTime == null ? null : dateTime.toString();
+    }
+}
@@ -1,6 +1,10 @@
 package com.hostel.utils;
 
+import com.hostel.server.FileServer;
+import com.hostel.server.IdGenerator;
+import com.hostel.server.SyncManager;
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -82,20 +86,16 @@ public class FileManager {
     }
 
     private static void copyDataFiles(String backupFolder) {
-        String[] dataFiles = {
-                "hostel_data/users.json",
-                "hostel_data/hostels.json",
-                "hostel_data/rooms.json",
-                "hostel_data/bookings.json",
-                "hostel_data/reviews.json",
-                "hostel_data/server.log"
-        };
+        // Список будують самі сервери з тих самих шляхів, у які вони пишуть
+        List<Path> dataFiles = new ArrayList<>(FileServer.getDataFiles());
+        dataFiles.addAll(SyncManager.getDataFiles());
+        dataFiles.add(IdGenerator.getStateFile());
 
         int copied = 0;
         int failed = 0;
 
-        for (String filePath : dataFiles) {
-            File sourceFile = new File(filePath);
+        for (Path filePath : dataFiles) {
+            File sourceFile = filePath.toFile();
             if (sourceFile.exists()) {
                 try {
                     String destPath = backupFolder + sourceFile.getName();
@@ -121,7 +121,7 @@ public class FileManager {
             writer.println("Дата створення: " + LocalDateTime.now());
             writer.println("Версія системи: 1.0.0");
             writer.println("Тип бекапу: Повний");
-            writer.println("Розмір даних: " + getFolderSize(new File("hostel_data")) + " байт");
+            writer.println("Розмір даних: " + getFolderSize(new File(FileServer.getDataDirectory())) + " байт");
             writer.println("================================");
         } catch (IOException e) {
             System.err.println("[BACKUP ERROR] Не вдалося створити файл інформації");
@@ -242,18 +242,19 @@ public class FileManager {
     }
 
     /**
-     * Експорт даних у CSV файл
+     * Експорт даних у CSV файл. Рядки пишуться по мірі обходу data,
+     * поля екрануються за RFC 4180.
      */
-    public static boolean exportToCsv(List<String[]> data, String fileName, String[] headers) {
-        String filePath = EXPORT_DIR + fileName + ".csv";
+    public static boolean exportToCsv(Iterable<String[]> data, String fileName, String[] headers) {
+        Path filePath = getExportPath(fileName + ".csv");
 
-        try (PrintWriter writer = new PrintWriter(new FileWriter(filePath))) {
+        try (Writer writer = Files.newBufferedWriter(filePath, StandardCharsets.UTF_8)) {
             // Запис заголовків
-            writer.println(String.join(",", headers));
+            writer.write(toCsvLine(headers));
 
             // Запис даних
             for (String[] row : data) {
-                writer.println(String.join(",", row));
+                writer.write(toCsvLine(row));
             }
 
             System.out.println("[EXPORT] Дані експортовано у CSV файл: " + filePath);
@@ -265,6 +266,39 @@ public class FileManager {
         }
     }
 
+    /**
+     * Рядок CSV за RFC 4180: поля з комами, лапками або переносами рядка
+     * беруться в лапки, лапки всередині подвоюються, рядок завершується CRLF.
+     * null записується як порожнє поле.
+     */
+    public static String toCsvLine(String[] fields) {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            String field = fields[i];
+            if (field == null) {
+                continue;
+            }
+            if (field.indexOf(',') >= 0 || field.indexOf('"') >= 0 ||
+                    field.indexOf('\r') >= 0 || field.indexOf('\n') >= 0) {
+                line.append('"').append(field.replace("\"", "\"\"")).append('"');
+            } else {
+                line.append(field);
+            }
+        }
+        return line.append("\r\n").toString();
+    }
+
+    /**
+     * Шлях до файлу в директорії експорту (директорія створюється за потреби)
+     */
+    public static Path getExportPath(String fileName) {
+        createDirectoryIfNotExists(EXPORT_DIR);
+        return Paths.get(EXPORT_DIR, fileName);
+    }
+
     /**
      * Логування подій
      */
@@ -0,0 +1,72 @@
+package com.hostel.server;
+
+import com.hostel.model.Hostel;
+import java.util.Map;
+
+/**
+ * Перевірка пошукового індексу хостелів: підрядки всередині слів, нечіткий збіг
+ * з одруківкою, нормалізація й фільтр за містом.
+ *
+ * Звичайна програма, як і ReservationStressTest:
+ *   java -cp out:gson.jar com.hostel.server.HostelSearchIndexTest
+ * Код завершення 1 - тест не пройдено.
+ */
+public class HostelSearchIndexTest {
+    private static int failures = 0;
+
+    public static void main(String[] args) {
+        HostelSearchIndex index = new HostelSearchIndex();
+        index.update(hostel("H_KYIV", "Green Hostel", "Shevchenka St 5", "Київ"));
+        index.update(hostel("H_LVIV", "Old Town Inn", "пл. Ринок 1", "Львів"));
+        index.update(hostel("H_ODESA", "Sea Breeze", "Derybasivska 10", "Одеса"));
+
+        // Короткі підрядки всередині слова: крайових триграм запиту в документі немає
+        expectFound(index.search("", "ste"), "H_KYIV", "підрядок 'ste' у назві");
+        expectFound(index.search("", "henk"), "H_KYIV", "підрядок 'henk' в адресі");
+        expectFound(index.search("", "инок"), "H_LVIV", "підрядок 'инок' кирилицею");
+        expectMissing(index.search("", "ste"), "H_LVIV", "'ste' не входить в Old Town Inn");
+
+        // Нечіткий збіг без точного підрядка проходить поріг, точний збіг важить більше
+        Map<String, Double> fuzzy = index.search("", "hostell");
+        expectFound(fuzzy, "H_KYIV", "одруківка 'hostell'");
+        Map<String, Double> exact = index.search("", "hostel");
+        check(exact.getOrDefault("H_KYIV", 0.0) > fuzzy.getOrDefault("H_KYIV", 0.0),
+                "точний збіг має оцінку вищу за одруківку");
+
+        // Запит з двох символів перевіряється підрядком
+        expectFound(index.search("", "ry"), "H_ODESA", "двосимвольний запит 'ry'");
+
+        // Нормалізація регістру, фільтр за містом
+        expectFound(index.search("київ", "SHEVCHENKA"), "H_KYIV", "регістр запиту й міста");
+        expectFound(index.search("Львів", "РИНОК"), "H_LVIV", "регістр кирилиці");
+        expectMissing(index.search("Одеса", "ste"), "H_KYIV", "хостел іншого міста");
+
+        // Після видалення хостел не знаходиться
+        index.remove("H_KYIV");
+        expectMissing(index.search("", "ste"), "H_KYIV", "видалений хостел");
+
+        System.out.println(failures == 0 ? "OK" : "FAILED: " + failures);
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    private static Hostel hostel(String id, String name, String address, String city) {
+        Hostel hostel = new Hostel(name, address, city, "TEST_MANAGER");
+        hostel.setId(id);
+        return hostel;
+    }
+
+    private static void expectFound(Map<String, Double> scores, String id, String what) {
+        check(scores.containsKey(id), what + ": очікувався " + id + ", знайдено " + scores.keySet());
+    }
+
+    private static void expectMissing(Map<String, Double> scores, String id, String what) {
+        check(!scores.containsKey(id), what + ": " + id + " не мав знайтися");
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            failures++;
+            System.err.println("FAILED: " + message);
+        }
+    }
+}
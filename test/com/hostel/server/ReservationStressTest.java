@@ -0,0 +1,146 @@
+package com.hostel.server;
+
+import com.hostel.model.Booking;
+import com.hostel.model.Hostel;
+import com.hostel.model.Room;
+import java.io.IOException;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Навантажувальний тест атомарного резервування: багато потоків одночасно
+ * бронюють кілька кімнат одного хостела на випадкові періоди, що перетинаються.
+ * Після цього перевіряється, що жодна кімната не заброньована двічі на той самий
+ * час і що кожне RESERVED справді збережено; друкується пропускна здатність.
+ *
+ * Тестового фреймворку в проєкті немає, тож це звичайна програма з кореня test/
+ * (gson.jar - та сама бібліотека Gson, що потрібна серверу):
+ *   javac -cp gson.jar -d out $(find src test -name "*.java")
+ *   java -cp out:gson.jar com.hostel.server.ReservationStressTest [потоків] [спроб]
+ * Дані пишуться в тимчасову директорію. Код завершення 1 - тест не пройдено
+ * (перетин бронювань, втрачене бронювання, помилка сховища або виняток у потоці).
+ */
+public class ReservationStressTest {
+    private static final String HOSTEL_ID = "STRESS_HOSTEL";
+    private static final int ROOMS = 8;
+    // Вікно, в якому вибираються періоди: 60 днів, бронювання від 1 до 72 годин
+    private static final int WINDOW_HOURS = 60 * 24;
+    private static final int MAX_LENGTH_HOURS = 72;
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        int attempts = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+
+        // До першого звернення до FileServer: директорія даних читається при ініціалізації
+        Path dataDir = Files.createTempDirectory("hostel-stress");
+        System.setProperty("hostel.dataDir", dataDir.toString());
+        System.setProperty("hostel.wal.fsync", "never");
+
+        Hostel hostel = new Hostel("Stress", "Test street 1", "Kyiv", "STRESS_MANAGER");
+        hostel.setId(HOSTEL_ID);
+        check(FileServer.saveHostel(hostel), "не вдалося зберегти хостел");
+        List<String> roomIds = new ArrayList<>();
+        for (int i = 0; i < ROOMS; i++) {
+            Room room = new Room(HOSTEL_ID, Room.RoomType.PRIVATE, 2, 100);
+            room.setId("STRESS_ROOM_" + i);
+            check(FileServer.saveRoom(room), "не вдалося зберегти кімнату");
+            roomIds.add(room.getId());
+        }
+
+        Map<ReservationResult, LongAdder> results = new EnumMap<>(ReservationResult.class);
+        for (ReservationResult result : ReservationResult.values()) {
+            results.put(result, new LongAdder());
+        }
+        LocalDateTime base = LocalDateTime.now().plusDays(30).withNano(0);
+        AtomicInteger next = new AtomicInteger();
+        LongAdder errors = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            pool.execute(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                int attempt;
+                while ((attempt = next.getAndIncrement()) < attempts) {
+                    LocalDateTime checkIn = base.plusHours(random.nextInt(WINDOW_HOURS));
+                    LocalDateTime checkOut = checkIn.plusHours(1 + random.nextInt(MAX_LENGTH_HOURS));
+                    Booking booking = new Booking(HOSTEL_ID, roomIds.get(random.nextInt(ROOMS)),
+                            "STRESS_CLIENT_" + random.nextInt(100), checkIn, checkOut,
+                            100, "Stress", "Test", "+380000000000", "stress@test.local");
+                    booking.setId("STRESS_BOOK_" + attempt);
+                    try {
+                        results.get(FileServer.reserveBooking(booking)).increment();
+                    } catch (RuntimeException e) {
+                        // Виняток пулу потоків інакше загубився б - рахуємо як провал
+                        errors.increment();
+                        System.err.println("Виняток у спробі " + attempt + ": " + e);
+                    }
+                }
+            });
+        }
+
+        long startTime = System.nanoTime();
+        start.countDown();
+        pool.shutdown();
+        check(pool.awaitTermination(10, TimeUnit.MINUTES), "потоки не завершились за 10 хвилин");
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+
+        // Перевірка: бронювання кожної кімнати, відсортовані за заїздом, не перетинаються
+        Map<String, List<Booking>> byRoom = new HashMap<>();
+        for (Booking booking : FileServer.getHostelBookings(HOSTEL_ID)) {
+            byRoom.computeIfAbsent(booking.getRoomId(), k -> new ArrayList<>()).add(booking);
+        }
+        int stored = 0;
+        int overlaps = 0;
+        for (List<Booking> bookings : byRoom.values()) {
+            bookings.sort(Comparator.comparing(Booking::getCheckInTime));
+            stored += bookings.size();
+            for (int i = 1; i < bookings.size(); i++) {
+                Booking previous = bookings.get(i - 1);
+                Booking current = bookings.get(i);
+                if (previous.getCheckOutTime().isAfter(current.getCheckInTime())) {
+                    overlaps++;
+                    System.err.println("Подвійне бронювання кімнати " + current.getRoomId() + ": " +
+                            previous.getId() + " і " + current.getId());
+                }
+            }
+        }
+
+        long reserved = results.get(ReservationResult.RESERVED).sum();
+        System.out.println(String.format("Потоків: %d, спроб: %d, час: %.2f с, %.0f спроб/с",
+                threads, attempts, seconds, attempts / seconds));
+        results.forEach((result, count) -> System.out.println("  " + result + ": " + count.sum()));
+        System.out.println("Збережено бронювань: " + stored + ", перетинів: " + overlaps +
+                ", винятків: " + errors.sum());
+
+        FileServer.shutdown();
+        deleteRecursively(dataDir);
+
+        boolean passed = overlaps == 0 && stored == reserved && errors.sum() == 0 &&
+                results.get(ReservationResult.STORAGE_ERROR).sum() == 0;
+        System.out.println(passed ? "OK" : "FAILED");
+        System.exit(passed ? 0 : 1);
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            System.err.println("FAILED: " + message);
+            System.exit(1);
+        }
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (var paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+}